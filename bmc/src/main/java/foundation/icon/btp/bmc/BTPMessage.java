@@ -16,6 +16,7 @@
 
 package foundation.icon.btp.bmc;
 
+import foundation.icon.score.util.RLPUtil;
 import foundation.icon.score.util.StringUtil;
 import score.ByteArrayObjectWriter;
 import score.Context;
@@ -33,11 +34,18 @@ public class BTPMessage {
     private BigInteger nsn;
     private FeeInfo feeInfo;
 
+    //serialized bytes, only for the view which is decoded without payload
+    private byte[] bytes;
+    //offset and length of the serialized items from src to payload in bytes
+    private int bodyOffset;
+    private int bodyLength;
+
     public String getSrc() {
         return src;
     }
 
     public void setSrc(String src) {
+        detach();
         this.src = src;
     }
 
@@ -46,6 +54,7 @@ public class BTPMessage {
     }
 
     public void setDst(String dst) {
+        detach();
         this.dst = dst;
     }
 
@@ -54,6 +63,7 @@ public class BTPMessage {
     }
 
     public void setSvc(String svc) {
+        detach();
         this.svc = svc;
     }
 
@@ -62,14 +72,22 @@ public class BTPMessage {
     }
 
     public void setSn(BigInteger sn) {
+        detach();
         this.sn = sn;
     }
 
     public byte[] getPayload() {
+        if (payload == null && bytes != null) {
+            ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+            reader.beginList();
+            reader.skip(4);
+            payload = reader.readByteArray();
+        }
         return payload;
     }
 
     public void setPayload(byte[] payload) {
+        bytes = null;
         this.payload = payload;
     }
 
@@ -96,7 +114,7 @@ public class BTPMessage {
         sb.append(", dst=").append(dst);
         sb.append(", svc='").append(svc).append('\'');
         sb.append(", sn=").append(sn);
-        sb.append(", payload=").append(StringUtil.bytesToHex(payload));
+        sb.append(", payload=").append(StringUtil.bytesToHex(getPayload()));
         sb.append(", nsn=").append(nsn);
         sb.append(", feeInfo=").append(feeInfo);
         sb.append('}');
@@ -140,7 +158,62 @@ public class BTPMessage {
 
     public byte[] toBytes() {
         ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
-        BTPMessage.writeObject(writer, this);
-        return writer.toByteArray();
+        if (bytes == null) {
+            BTPMessage.writeObject(writer, this);
+            return writer.toByteArray();
+        }
+        //reuse serialized items from src to payload, and serialize nsn and feeInfo
+        writer.beginList(2);
+        writer.write(this.getNsn());
+        writer.writeNullable(this.getFeeInfo());
+        writer.end();
+        byte[] tail = writer.toByteArray();
+        int tailOffset = (int) RLPUtil.header(tail, 0, tail.length)[0];
+        int length = bodyLength + tail.length - tailOffset;
+        byte[] listHeader = RLPUtil.listHeader(length);
+        byte[] ret = new byte[listHeader.length + length];
+        System.arraycopy(listHeader, 0, ret, 0, listHeader.length);
+        System.arraycopy(bytes, bodyOffset, ret, listHeader.length, bodyLength);
+        System.arraycopy(tail, tailOffset, ret, listHeader.length + bodyLength, tail.length - tailOffset);
+        return ret;
+    }
+
+    /**
+     * Decodes serialized bytes except payload which is decoded when {@link #getPayload()} is called.
+     * If src, dst, svc, sn and payload are not changed, {@link #toBytes()} reuses the serialized bytes of them.
+     *
+     * @param bytes serialized bytes of BTPMessage
+     * @return BTPMessage
+     */
+    public static BTPMessage view(byte[] bytes) {
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        BTPMessage obj = new BTPMessage();
+        reader.beginList();
+        obj.setSrc(reader.readString());
+        obj.setDst(reader.readString());
+        obj.setSvc(reader.readString());
+        obj.setSn(reader.readBigInteger());
+        reader.skip();
+        obj.setNsn(reader.readBigInteger());
+        obj.setFeeInfo(reader.readNullable(FeeInfo.class));
+        reader.end();
+
+        int offset = (int) RLPUtil.header(bytes, 0, bytes.length)[0];
+        int end = offset;
+        for (int i = 0; i < 5; i++) {
+            long[] h = RLPUtil.header(bytes, end, bytes.length);
+            end += (int) (h[0] + h[1]);
+        }
+        obj.bytes = bytes;
+        obj.bodyOffset = offset;
+        obj.bodyLength = end - offset;
+        return obj;
+    }
+
+    private void detach() {
+        if (bytes != null) {
+            getPayload();
+            bytes = null;
+        }
     }
 }
@@ -19,16 +19,17 @@ package foundation.icon.btp.bmc;
 import foundation.icon.btp.lib.BMC;
 import foundation.icon.btp.lib.BMCStatus;
 import foundation.icon.btp.lib.BMVScoreInterface;
+import foundation.icon.btp.lib.BatchBSHScoreInterface;
 import foundation.icon.btp.lib.BSHScoreInterface;
 import foundation.icon.btp.lib.BTPAddress;
 import foundation.icon.btp.lib.BTPException;
+import foundation.icon.btp.lib.IncrementalBMVScoreInterface;
+import foundation.icon.btp.lib.Lanes;
 import foundation.icon.btp.lib.OwnerManager;
 import foundation.icon.btp.lib.OwnerManagerImpl;
-import foundation.icon.score.util.ArrayUtil;
 import foundation.icon.score.util.Logger;
 import foundation.icon.score.util.StringUtil;
 import score.Address;
-import score.ArrayDB;
 import score.BranchDB;
 import score.Context;
 import score.DictDB;
@@ -51,7 +52,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     public static final Address CHAIN_SCORE = Address.fromString("cx0000000000000000000000000000000000000000");
 
     public enum Internal {
-        Init, Link, Unlink, Claim, Response;
+        Init, Link, Unlink, Claim, Response, Lanes;
 
         public static Internal of(String s) {
             for (Internal internal : values()) {
@@ -72,31 +73,64 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
 
     //
     private final OwnerManager ownerManager = new OwnerManagerImpl("owners");
-    private final BranchDB<String, BranchDB<Address, ArrayDB<byte[]>>> fragments = Context.newBranchDB("fragments", byte[].class);
+    private final Fragments fragments = new Fragments("fragmentBuffers", "fragments");
+    private final ReorderBuffer reorderBuffer = new ReorderBuffer("reorderBuffer");
+    private final Congestion congestion = new Congestion("congestion");
+    //for incremental verifier, Map<Link, Relay> and Map<Link, [last index, next index, updated height]>
+    private final DictDB<String, Address> streamRelays = Context.newDictDB("streamRelays", Address.class);
+    private final DictDB<String, byte[]> streams = Context.newDictDB("streams", byte[].class);
 
     //
     private final Verifiers verifiers = new Verifiers("verifiers");
+    private final DictDB<String, Boolean> incrementalVerifiers = Context.newDictDB("incrementalVerifiers", Boolean.class);
     private final Services services = new Services("services");
+    private final DictDB<String, Boolean> batchServices = Context.newDictDB("batchServices", Boolean.class);
     private final Routes routes = new Routes("routes");
     private final Links links = new Links("links");
+    //Map<ReachableNetwork, LinkNetwork>
+    private final DictDB<String, String> reachableIndex = Context.newDictDB("reachableIndex", String.class);
+    private final VarDB<Boolean> reachableIndexed = Context.newVarDB("reachableIndexed", Boolean.class);
+    private final VarDB<Boolean> relaysIndexed = Context.newVarDB("relaysIndexed", Boolean.class);
 
-    private final BranchDB<String, ArrayDB<Address>> relays = Context.newBranchDB("relays", Address.class);
+    private final Relays relays = new Relays("relays");
     private final DictDB<String, BigInteger> btpLinkNetworkIds = Context.newDictDB("btpLinkNetworkIds", BigInteger.class);
     private final DictDB<BigInteger, BigInteger> btpLinkOffset = Context.newDictDB("btpLinkOffset", BigInteger.class);
     private final VarDB<BigInteger> networkSn = Context.newVarDB("networkSn", BigInteger.class);
+    private final VarDB<Long> configVersion = Context.newVarDB("configVersion", Long.class);
+    private final VarDB<Boolean> compactBTPEvent = Context.newVarDB("compactBTPEvent", Boolean.class);
+    private final VarDB<Boolean> relayCounting = Context.newVarDB("relayCounting", Boolean.class);
+    //only available while it handles the relay message or sendMessages in compact BTPEvent mode
+    private EventSummary eventSummary;
 
     private final Fees fees = new Fees("fees");
-    //Map<SourceNetwork, Map<Service, Map<SerialNumber, ResponseInfo>>>
-    private final BranchDB<String, BranchDB<String, DictDB<BigInteger, ResponseInfo>>> responseInfos
-            = Context.newBranchDB("responseInfos", ResponseInfo.class);
-    private final BranchDB<Address, DictDB<String, BigInteger>> rewards
-            = Context.newBranchDB("rewards", BigInteger.class);
+    private final ResponseInfos responseInfos = new ResponseInfos("responses", "responseInfos");
+    private final Rewards rewards = new Rewards("rewards");
     private final VarDB<Address> feeHandler = Context.newVarDB("feeHandler", Address.class);
     //Map<NetworkSn, BMCRequest>
     private final DictDB<BigInteger, BMCRequest> requests = Context.newDictDB("requests", BMCRequest.class);
 
     public BTPMessageCenter(String _net) {
         this.btpAddr = new BTPAddress(BTPAddress.PROTOCOL_BTP, _net, Context.getAddress().toString());
+        links.migrate();
+        if (!reachableIndexed.getOrDefault(false)) {
+            //migrate from the version which doesn't have reachableIndex
+            for (String net : links.keySet()) {
+                for (BTPAddress reachable : links.getReachable(net)) {
+                    if (reachableIndex.get(reachable.net()) == null) {
+                        reachableIndex.set(reachable.net(), net);
+                    }
+                }
+            }
+            reachableIndexed.set(true);
+        }
+        if (!relaysIndexed.getOrDefault(false)) {
+            //migrate from the version which doesn't have the index of relays
+            int size = links.size();
+            for (int i = 0; i < size; i++) {
+                relays.buildIndex(links.getAddr(i).toString());
+            }
+            relaysIndexed.set(true);
+        }
     }
 
     @External(readonly = true)
@@ -112,6 +146,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void addVerifier(String _net, Address _addr) {
         requireOwnerAccess();
+        increaseConfigVersion();
         if (btpAddr.net().equals(_net)) {
             throw BMCException.unknown("invalid _net");
         }
@@ -124,10 +159,27 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void removeVerifier(String _net) {
         requireOwnerAccess();
+        increaseConfigVersion();
         if (!verifiers.containsKey(_net)) {
             throw BMCException.notExistsBMV();
         }
         verifiers.remove(_net);
+        incrementalVerifiers.set(_net, null);
+    }
+
+    @External
+    public void setIncrementalVerifier(String _net, boolean _incremental) {
+        requireOwnerAccess();
+        if (!verifiers.containsKey(_net)) {
+            throw BMCException.notExistsBMV();
+        }
+        incrementalVerifiers.set(_net, _incremental ? Boolean.TRUE : null);
+        increaseConfigVersion();
+    }
+
+    @External(readonly = true)
+    public boolean isIncrementalVerifier(String _net) {
+        return incrementalVerifiers.getOrDefault(_net, false);
     }
 
     @External(readonly = true)
@@ -146,6 +198,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void addService(String _svc, Address _addr) {
         requireOwnerAccess();
+        increaseConfigVersion();
         if (!StringUtil.isAlphaNumeric(_svc)) {
             throw BMCException.unknown("invalid service name");
         }
@@ -158,10 +211,27 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void removeService(String _svc) {
         requireOwnerAccess();
+        increaseConfigVersion();
         if (!services.containsKey(_svc)) {
             throw BMCException.notExistsBSH();
         }
         services.remove(_svc);
+        batchServices.set(_svc, null);
+    }
+
+    @External
+    public void setBatchService(String _svc, boolean _batch) {
+        requireOwnerAccess();
+        if (!services.containsKey(_svc)) {
+            throw BMCException.notExistsBSH();
+        }
+        batchServices.set(_svc, _batch ? Boolean.TRUE : null);
+        increaseConfigVersion();
+    }
+
+    @External(readonly = true)
+    public boolean isBatchService(String _svc) {
+        return batchServices.getOrDefault(_svc, false);
     }
 
     @External(readonly = true)
@@ -214,6 +284,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void addLink(String _link) {
         requireOwnerAccess();
+        increaseConfigVersion();
         BTPAddress target = BTPAddress.valueOf(_link);
         String net = target.net();
         if (!verifiers.containsKey(net)) {
@@ -231,7 +302,6 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         link.setAddr(target);
         link.setRxSeq(BigInteger.ZERO);
         link.setTxSeq(BigInteger.ZERO);
-        link.setReachable(new ArrayList<>());
         putLink(link);
 
         sendInternal(target, new BMCMessage(Internal.Init.name(),
@@ -241,25 +311,35 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void removeLink(String _link) {
         requireOwnerAccess();
+        increaseConfigVersion();
         BTPAddress target = BTPAddress.valueOf(_link);
         String net = target.net();
-        Link link = links.remove(net);
+        Link link = links.get(net);
         if (link == null || !link.getAddr().equals(target)) {
             throw BMCException.notExistsLink();
         }
+        List<BTPAddress> reachableList = links.getReachable(net);
+        links.remove(net);
         if (routes.containsValue(net)) {
             throw BMCException.unknown("could not remove, referred by route");
         }
-        ArrayDB<Address> arrayDB = relays.at(_link);
-        for(int i = 0; i < arrayDB.size(); i++ ) {
-            arrayDB.removeLast();
+        for (Address relay : relays.clear(_link)) {
+            fragments.clear(_link, relay);
+            fragments.clearLegacy(_link, relay);
         }
+        reorderBuffer.clear(_link, link.getRxSeq());
+        congestion.clear(_link);
         BigInteger networkId = btpLinkNetworkIds.get(_link);
         if (networkId != null) {
             btpLinkNetworkIds.set(_link, null);
             btpLinkOffset.set(networkId, null);
         }
         fees.remove(net);
+        for (BTPAddress reachable : reachableList) {
+            if (net.equals(reachableIndex.get(reachable.net()))) {
+                updateReachableIndex(reachable.net());
+            }
+        }
 
         propagateInternal(new BMCMessage(
                 Internal.Unlink.name(),
@@ -293,6 +373,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void addRoute(String _dst, String _link) {
         requireOwnerAccess();
+        increaseConfigVersion();
         if (_dst.equals(_link)) {
             throw BMCException.unknown("invalid _dst");
         }
@@ -307,6 +388,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void removeRoute(String _dst) {
         requireOwnerAccess();
+        increaseConfigVersion();
         if (routes.remove(_dst) == null) {
             throw BMCException.unknown("not exists route");
         }
@@ -316,10 +398,10 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External(readonly = true)
     public Map getRoutes() {
         Map<String, String> map = new HashMap<>();
-        for (Link link : links.values()) {
-            for(BTPAddress reachable : link.getReachable()) {
+        for (String net : links.keySet()) {
+            for(BTPAddress reachable : links.getReachable(net)) {
                 if (!map.containsKey(reachable.net())) {
-                    map.put(reachable.net(), link.getAddr().net());
+                    map.put(reachable.net(), net);
                 }
             }
         }
@@ -327,9 +409,72 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         return map;
     }
 
+    private static void requirePage(int _offset, int _limit) {
+        if (_offset < 0 || _limit <= 0) {
+            throw BMCException.unknown("invalid page");
+        }
+    }
+
+    @External(readonly = true)
+    public Map getVerifiersPage(int _offset, int _limit) {
+        requirePage(_offset, _limit);
+        return verifiers.toMap(_offset, _limit);
+    }
+
+    @External(readonly = true)
+    public Map getServicesPage(int _offset, int _limit) {
+        requirePage(_offset, _limit);
+        return services.toMap(_offset, _limit);
+    }
+
+    @External(readonly = true)
+    public String[] getLinksPage(int _offset, int _limit) {
+        requirePage(_offset, _limit);
+        List<BTPAddress> addrs = links.getAddrs(_offset, _limit);
+        int len = addrs.size();
+        String[] links = new String[len];
+        for (int i = 0; i < len; i++) {
+            links[i] = addrs.get(i).toString();
+        }
+        return links;
+    }
+
+    @External(readonly = true)
+    public Map getRoutesPage(int _offset, int _limit) {
+        requirePage(_offset, _limit);
+        return routes.toMap(_offset, _limit);
+    }
+
+    @External(readonly = true)
+    public Map getFeeTablePage(int _offset, int _limit) {
+        requirePage(_offset, _limit);
+        Map<String, BigInteger[]> map = new HashMap<>();
+        for (FeeRecord fee : fees.values(_offset, _limit)) {
+            map.put(fee.getNetwork(), fee.getValues(true));
+        }
+        return map;
+    }
+
+    @External(readonly = true)
+    public Address[] getRelaysPage(String _link, int _offset, int _limit) {
+        requireLink(BTPAddress.valueOf(_link));
+        requirePage(_offset, _limit);
+        return relays.toArray(_link, _offset, _limit);
+    }
+
+    private void increaseConfigVersion() {
+        configVersion.set(getConfigVersion() + 1);
+    }
+
+    @External(readonly = true)
+    public long getConfigVersion() {
+        return configVersion.getOrDefault(0L);
+    }
+
     @External
     public void setFeeTable(String[] _dst, BigInteger[][] _value) {
         requireOwnerAccess();
+        increaseConfigVersion();
         if (_dst.length != _value.length) {
             throw BMCException.unknown("invalid array length");
         }
@@ -351,7 +496,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
                 } else {
                     resolveNext(dstNet);
                 }
-                fees.put(dstNet, new FeeInfo(dstNet, values));
+                fees.put(dstNet, new FeeRecord(dstNet, values));
             } else {
                 fees.remove(dstNet);
             }
@@ -359,18 +504,18 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     }
 
     private BigInteger[] getFeeList(String net, boolean includeBackward) {
-        FeeInfo fee = fees.get(net);
+        FeeRecord fee = fees.get(net);
         if (fee == null) {
             return new BigInteger[]{};
         }
-        return includeBackward ? fee.getValues() :
-                ArrayUtil.copyOf(fee.getValues(), fee.getValues().length / 2);
+        return fee.getValues(includeBackward);
     }
 
     @External(readonly = true)
     public BigInteger getFee(String _to, boolean _response) {
         resolveNext(_to);
-        return ArrayUtil.sum(getFeeList(_to, _response));
+        FeeRecord fee = fees.get(_to);
+        return fee == null ? BigInteger.ZERO : fee.getTotal(_response);
     }
 
     @External(readonly = true)
@@ -390,6 +535,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
             System.arraycopy(feeList, 1, nextFeeList, 0, feeList.length - 1);
             feeInfo.setValues(nextFeeList);
             addReward(address, feeInfo.getNetwork(), feeList[0]);
+            relays.credit(address, feeInfo.getNetwork(), feeList[0]);
         }
     }
 
@@ -411,11 +557,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     }
 
     private void addReward(Address addr, String net, BigInteger amount) {
-        if (amount != null && amount.compareTo(BigInteger.ZERO) > 0) {
-            DictDB<String, BigInteger> rewardDictDB = rewards.at(addr);
-            rewardDictDB.set(net,
-                    amount.add(rewardDictDB.getOrDefault(net, BigInteger.ZERO)));
-        }
+        rewards.add(addr, net, amount);
     }
 
     static Address toAddress(String s) {
@@ -438,7 +580,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         if (BigInteger.ZERO.compareTo(reward) >= 0) {
             throw BMCException.unknown("not exists claimable reward");
         }
-        rewards.at(caller).set(_network, BigInteger.ZERO);
+        rewards.clear(caller, _network);
         if (_network.equals(btpAddr.net())) {
             Context.transfer(toAddress(_receiver), reward);
             ClaimReward(caller, _network, _receiver, reward, BigInteger.ZERO);
@@ -461,12 +603,13 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
 
     @External(readonly = true)
     public BigInteger getReward(String _network, Address _addr) {
-        return rewards.at(_addr).getOrDefault(_network, BigInteger.ZERO);
+        return rewards.get(_addr, _network);
     }
 
     @External
     public void setFeeHandler(Address _addr) {
         requireOwnerAccess();
+        increaseConfigVersion();
         feeHandler.set(_addr);
     }
 
@@ -475,17 +618,65 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         return feeHandler.get();
     }
 
+    @External
+    public void setResponseExpiry(long _blocks) {
+        requireOwnerAccess();
+        increaseConfigVersion();
+        if (_blocks < 0) {
+            throw BMCException.unknown("invalid _blocks");
+        }
+        responseInfos.setExpiry(_blocks);
+    }
+
+    @External(readonly = true)
+    public long getResponseExpiry() {
+        return responseInfos.getExpiry();
+    }
+
+    @External
+    public void pruneResponses(String _src, String _svc, BigInteger _from, BigInteger _to) {
+        requireOwnerAccess();
+        if (_from.compareTo(BigInteger.ONE) < 0 || _from.compareTo(_to) > 0 ||
+                _to.subtract(_from).compareTo(BigInteger.valueOf(ResponseInfos.PRUNE_LIMIT)) >= 0) {
+            throw BMCException.unknown("invalid range");
+        }
+        for (BigInteger sn = _from; sn.compareTo(_to) <= 0; sn = sn.add(BigInteger.ONE)) {
+            ResponseInfo responseInfo = responseInfos.prune(_src, _svc, sn);
+            if (responseInfo != null) {
+                collectRemainFee(responseInfo.getFeeInfo());
+            }
+        }
+    }
+
+    @External
+    public void finishLegacyResponses() {
+        requireOwnerAccess();
+        responseInfos.finishLegacy();
+    }
+
+    @External(readonly = true)
+    public boolean isLegacyResponsesFinished() {
+        return responseInfos.isLegacyFinished();
+    }
+
     private BTPAddress resolveNextFromReachable(String _net) {
-        int size = links.size();
-        for (int i = 0; i < size; i++) {
-            Link link = links.getValue(i);
-            for (BTPAddress reachable : link.getReachable()) {
+        String linkNet = reachableIndex.get(_net);
+        if (linkNet != null) {
+            return getLink(linkNet).getAddr();
+        }
+        return null;
+    }
+
+    private void updateReachableIndex(String _net) {
+        for (String net : links.keySet()) {
+            for (BTPAddress reachable : links.getReachable(net)) {
                 if (_net.equals(reachable.net())) {
-                    return link.getAddr();
+                    reachableIndex.set(_net, net);
+                    return;
                 }
             }
         }
-        return null;
+        reachableIndex.set(_net, null);
     }
 
     private BTPAddress resolveNext(String _net) {
@@ -507,20 +698,72 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
 
     @External
     public void handleRelayMessage(String _prev, String _msg) {
+        requireRelay(_prev, true);
         byte[] msgBytes = Base64.getUrlDecoder().decode(_msg.getBytes());
-        handleRelayMessage(_prev, msgBytes);
+        handleRelayMessage(_prev, null, msgBytes, null);
     }
 
-    private void handleRelayMessage(String _prev, byte[] msgBytes) {
+    @External
+    public void handleRelayMessageBytes(String _prev, byte[] _msg) {
+        requireRelay(_prev, true);
+        handleRelayMessage(_prev, null, _msg, null);
+    }
+
+    @External
+    public void handleRelayMessageWithSeq(String _prev, BigInteger _seq, byte[] _msg) {
+        requireRelay(_prev, true);
+        handleRelayMessage(_prev, _seq, _msg, null);
+    }
+
+    /**
+     * @param _seq sequence which the relay message follows, null if it follows rxSeq of the link
+     * @param _idx index of fragment if msgBytes is a fragment for incremental verifier, otherwise null
+     */
+    private void handleRelayMessage(String _prev, BigInteger _seq, byte[] msgBytes, Integer _idx) {
+        links.beginCache();
+        rewards.beginLedger();
+        if (relayCounting.getOrDefault(false)) {
+            relays.beginLedger(_prev);
+        }
+        EventSummary summary = beginEventSummary();
+        try {
+            handleRelayMessageWithCache(_prev, _seq, msgBytes, _idx);
+            links.flush();
+            rewards.flush();
+            relays.flush();
+            emitEventSummary(_prev);
+        } finally {
+            links.endCache();
+            rewards.endLedger();
+            relays.endLedger();
+            eventSummary = summary;
+        }
+    }
+
+    private void handleRelayMessageWithCache(String _prev, BigInteger _seq, byte[] msgBytes, Integer _idx) {
         BTPAddress prev = BTPAddress.valueOf(_prev);
         Link link = getLink(prev);
         BigInteger rxSeq = link.getRxSeq();
+        BigInteger seq = _seq == null ? rxSeq : _seq;
+        int seqCompare = seq.compareTo(rxSeq);
+        //the reorder buffer is on the normal lane only
+        if (seqCompare < 0 || (seqCompare > 0 && (link.isRxLanes() || !reorderBuffer.isEnabled(_prev)))) {
+            throw BMCException.unknown("invalid _seq");
+        }
+        if (link.isRxLanes()) {
+            seq = Lanes.combine(seq, link.getPriorityRxSeq());
+        }
 
         BMVScoreInterface verifier = getVerifier(link.getAddr().net());
         // decode and verify relay message
         byte[][] serializedMsgs;
         try {
-            serializedMsgs = verifier.handleRelayMessage(btpAddr.toString(), _prev, rxSeq, msgBytes);
+            if (_idx == null) {
+                serializedMsgs = verifier.handleRelayMessage(btpAddr.toString(), _prev, seq, msgBytes);
+            } else {
+                serializedMsgs = new IncrementalBMVScoreInterface(verifiers.get(link.getAddr().net()))
+                        .handleFragment(btpAddr.toString(), _prev, seq, msgBytes, _idx);
+            }
         } catch (Exception e) {
             logger.println("handleRelayMessage", "fail to verify", e.toString());
             throw BTPException.of(e);
@@ -528,97 +771,333 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         long msgCount = serializedMsgs.length;
 
         Address caller = Context.getCaller();
-        if (getRelayIndex(_prev, caller) < 0) {
-            throw BMCException.unauthorized("not registered relay");
+        if (seqCompare > 0) {
+            List<BigInteger[]> parked = reorderBuffer.park(_prev, rxSeq, seq, caller, serializedMsgs);
+            boolean event = !parked.isEmpty() && reorderBuffer.isEventEnabled(_prev);
+            int cnt = 0;
+            for (BigInteger[] range : parked) {
+                cnt += range[1].subtract(range[0]).intValue() + 1;
+                if (event) {
+                    MessageBuffered(_prev, range[0], range[1]);
+                }
+            }
+            relays.count(caller, cnt);
+            logger.println("handleRelayMessage", "park", seq, "cnt:", cnt);
+            return;
         }
+        relays.count(caller, msgCount);
+        BTPMessage[] msgs = viewMessages(rxSeq, serializedMsgs);
+        BigInteger[] seqs = receiveMessages(link, msgs);
         if (msgCount > 0) {
-            link.setRxSeq(rxSeq.add(BigInteger.valueOf(msgCount)));
+            if (link.isRxLanes()) {
+                //the messages parked after LanesMessage are not in the normal lane, those are relayed again
+                reorderBuffer.reset(_prev, rxSeq);
+            } else {
+                reorderBuffer.evict(_prev, rxSeq, link.getRxSeq());
+            }
         }
         putLink(link);
 
-        // dispatch BTPMessages
-        for (byte[] serializedMsg : serializedMsgs) {
-            rxSeq = rxSeq.add(BigInteger.ONE);
-            BTPMessage msg;
+        Address[] msgRelays = new Address[serializedMsgs.length];
+        for (int i = 0; i < msgRelays.length; i++) {
+            msgRelays[i] = caller;
+        }
+        dispatchMessages(prev, seqs, msgs, msgRelays);
+
+        // dispatch BTPMessages which are parked in the reorder buffer
+        link = getLink(prev);
+        if (link.isRxLanes()) {
+            return;
+        }
+        rxSeq = link.getRxSeq();
+        List<ReorderBuffer.Entry> entries = reorderBuffer.drain(_prev, rxSeq);
+        int size = entries.size();
+        if (size > 0) {
+            byte[][] drainedMsgs = new byte[size][];
+            for (int i = 0; i < size; i++) {
+                drainedMsgs[i] = entries.get(i).getMsg();
+            }
+            msgs = viewMessages(rxSeq, drainedMsgs);
+            //the messages following LanesMessage which enables the lanes are not in the normal lane
+            for (int i = 0; i < size; i++) {
+                LanesMessage lanesMsg = toLanesMessage(link, msgs[i]);
+                if (lanesMsg != null && lanesMsg.isEnabled()) {
+                    size = i + 1;
+                    BTPMessage[] lanesMsgs = new BTPMessage[size];
+                    System.arraycopy(msgs, 0, lanesMsgs, 0, size);
+                    msgs = lanesMsgs;
+                    break;
+                }
+            }
+            Address[] drainedRelays = new Address[size];
+            for (int i = 0; i < size; i++) {
+                drainedRelays[i] = entries.get(i).getRelay();
+            }
+            seqs = receiveMessages(link, msgs);
+            if (link.isRxLanes()) {
+                reorderBuffer.reset(_prev, link.getRxSeq());
+            }
+            putLink(link);
+            dispatchMessages(prev, seqs, msgs, drainedRelays);
+            if (reorderBuffer.isEventEnabled(_prev)) {
+                MessageDrained(_prev, rxSeq.add(BigInteger.ONE), rxSeq.add(BigInteger.valueOf(size)));
+            }
+        }
+    }
+
+    /**
+     * @param rxSeq sequence before the first message
+     */
+    private BTPMessage[] viewMessages(BigInteger rxSeq, byte[][] serializedMsgs) {
+        BTPMessage[] msgs = new BTPMessage[serializedMsgs.length];
+        for (int i = 0; i < serializedMsgs.length; i++) {
+            byte[] serializedMsg = serializedMsgs[i];
             try {
-                msg = BTPMessage.fromBytes(serializedMsg);
+                msgs[i] = BTPMessage.view(serializedMsg);
             } catch (Exception e) {
                 logger.println("handleRelayMessage",
-                        "fail to parse BTPMessage rxSeq:",rxSeq,
+                        "fail to parse BTPMessage rxSeq:", rxSeq, ", idx:", i,
                         ", msg:", serializedMsg,
                         ", err:", e.toString());
                 throw BMCException.unknown("fail to parse BTPMessage");
             }
+        }
+        return msgs;
+    }
+
+    /**
+     * Advances the sequences of the link by the received messages.
+     * If the lanes of the link are enabled for receiving, internal and response messages are in the priority lane.
+     * The lanes for receiving are switched by LanesMessage from the previous BMC,
+     * so that each message is classified in the same mode as the previous BMC sent it.
+     *
+     * @return lane-tagged sequence of each message
+     */
+    private BigInteger[] receiveMessages(Link link, BTPMessage[] msgs) {
+        BigInteger[] seqs = new BigInteger[msgs.length];
+        for (int i = 0; i < msgs.length; i++) {
+            if (link.isRxLanes() && isPriority(msgs[i])) {
+                link.setPriorityRxSeq(link.getPriorityRxSeq().add(BigInteger.ONE));
+                seqs[i] = Lanes.tag(Lanes.PRIORITY, link.getPriorityRxSeq());
+            } else {
+                link.setRxSeq(link.getRxSeq().add(BigInteger.ONE));
+                seqs[i] = link.getRxSeq();
+            }
+            LanesMessage lanesMsg = toLanesMessage(link, msgs[i]);
+            if (lanesMsg != null && lanesMsg.isEnabled() != link.isRxLanes()) {
+                links.setRxLanes(link, lanesMsg.isEnabled());
+            }
+        }
+        return seqs;
+    }
+
+    /**
+     * @return LanesMessage if the message is sent by the previous BMC to switch the lanes, otherwise null
+     */
+    private LanesMessage toLanesMessage(Link link, BTPMessage msg) {
+        if (!INTERNAL_SERVICE.equals(msg.getSvc()) ||
+                !btpAddr.net().equals(msg.getDst()) || !link.getAddr().net().equals(msg.getSrc())) {
+            return null;
+        }
+        BMCMessage bmcMsg = BMCMessage.fromBytes(msg.getPayload());
+        if (!Internal.Lanes.name().equals(bmcMsg.getType())) {
+            return null;
+        }
+        return LanesMessage.fromBytes(bmcMsg.getPayload());
+    }
+
+    /**
+     * @param seqs lane-tagged sequence of each message
+     * @param relays address of the relay to be rewarded for each message
+     */
+    private void dispatchMessages(BTPAddress prev, BigInteger[] seqs, BTPMessage[] msgs, Address[] relays) {
+        List<BTPMessage> batch = new ArrayList<>();
+        List<BigInteger> batchSeqs = new ArrayList<>();
+        for (int i = 0; i < msgs.length; i++) {
+            BTPMessage msg = msgs[i];
+            BigInteger rxSeq = seqs[i];
             //TODO [TBD] needs nsn validation?
 //                int snCompare = msg.getSn().compareTo(BigInteger.ZERO);
 //                if (isInvalidSn(snCompare, msg.getNsn().compareTo(BigInteger.ZERO))) {
 //                    throw BMCException.invalidSn();
 //                }
 
-            accumulateFee(caller, msg.getFeeInfo());
-            try {
-                if (btpAddr.net().equals(msg.getDst())) {
-                    handleMessage(msg);
-                    emitBTPEvent(msg,
-                            msg.getSn().compareTo(BigInteger.ZERO) > 0 ? msg.getSrc() : null,
-                            Event.RECEIVE);
-                } else {
-                    BTPAddress next = resolveNext(msg.getDst());
-                    sendMessage(next, msg.toBytes());
-                    emitBTPEvent(msg, next.net(), Event.ROUTE);
+            accumulateFee(relays[i], msg.getFeeInfo());
+            if (isBatchable(msg)) {
+                if (!batch.isEmpty() && !isSameBatch(batch.get(0), msg)) {
+                    dispatchBatch(prev, batchSeqs, batch);
                 }
-            } catch (BTPException e) {
-                if (msg.getSn().compareTo(BigInteger.ZERO) > 0) {
-                    try {
-                        sendError(prev, msg, e);
-                    } catch (BTPException e2) {
-                        //abnormal case, if ChainScore.sendBTPMessage revert
-                        collectRemainFee(msg.getFeeInfo());
-                        emitMessageDropped(prev, rxSeq, msg, e2);
+                batch.add(msg);
+                batchSeqs.add(rxSeq);
+            } else {
+                dispatchBatch(prev, batchSeqs, batch);
+                dispatchMessage(prev, rxSeq, msg);
+            }
+        }
+        dispatchBatch(prev, batchSeqs, batch);
+    }
+
+    @EventLog(indexed = 1)
+    public void MessageBuffered(String _prev, BigInteger _from, BigInteger _to) {
+    }
+
+    @EventLog(indexed = 1)
+    public void MessageDrained(String _prev, BigInteger _from, BigInteger _to) {
+    }
+
+    private void dispatchMessage(BTPAddress prev, BigInteger rxSeq, BTPMessage msg) {
+        try {
+            if (btpAddr.net().equals(msg.getDst())) {
+                ackByResponse(prev, msg);
+                handleMessage(msg);
+                emitBTPEvent(msg,
+                        msg.getSn().compareTo(BigInteger.ZERO) > 0 ? msg.getSrc() : null,
+                        Event.RECEIVE);
+            } else {
+                BTPAddress next = resolveNext(msg.getDst());
+                sendMessage(next, msg);
+                emitBTPEvent(msg, next.net(), Event.ROUTE);
+            }
+        } catch (BTPException e) {
+            handleDispatchError(prev, rxSeq, msg, e);
+        }
+    }
+
+    /**
+     * Learns the acknowledged sequence of the link if the message is the response.
+     */
+    private void ackByResponse(BTPAddress prev, BTPMessage msg) {
+        if (msg.getNsn().compareTo(BigInteger.ZERO) < 0 && congestion.isEnabled(prev.toString())) {
+            congestion.ackByResponse(prev.toString(), msg.getNsn().negate(), getLink(prev).getTxSeq());
+        }
+    }
+
+    private void handleDispatchError(BTPAddress prev, BigInteger rxSeq, BTPMessage msg, BTPException e) {
+        if (msg.getSn().compareTo(BigInteger.ZERO) > 0) {
+            try {
+                sendError(prev, msg, e);
+            } catch (BTPException e2) {
+                //abnormal case, if ChainScore.sendBTPMessage revert
+                collectRemainFee(msg.getFeeInfo());
+                emitMessageDropped(prev, rxSeq, msg, e2);
+            }
+        } else {
+            collectRemainFee(msg.getFeeInfo());
+            emitMessageDropped(prev, rxSeq, msg, e);
+        }
+    }
+
+    private boolean isBatchable(BTPMessage msg) {
+        return btpAddr.net().equals(msg.getDst()) &&
+                msg.getSn().compareTo(BigInteger.ZERO) >= 0 &&
+                isBatchService(msg.getSvc());
+    }
+
+    private static boolean isSameBatch(BTPMessage first, BTPMessage msg) {
+        return first.getSrc().equals(msg.getSrc()) && first.getSvc().equals(msg.getSvc());
+    }
+
+    /**
+     * Delivers consecutive messages which have the same source network and service with one call.
+     * If it fails, delivers the messages one by one, so that only the failed message is regarded as failure.
+     */
+    private void dispatchBatch(BTPAddress prev, List<BigInteger> seqs, List<BTPMessage> batch) {
+        int size = batch.size();
+        if (size == 1) {
+            dispatchMessage(prev, seqs.get(0), batch.get(0));
+        } else if (size > 1) {
+            BTPMessage first = batch.get(0);
+            String src = first.getSrc();
+            String svc = first.getSvc();
+            BigInteger[] sns = new BigInteger[size];
+            byte[][] payloads = new byte[size][];
+            boolean[] stored = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                BTPMessage msg = batch.get(i);
+                ackByResponse(prev, msg);
+                sns[i] = msg.getSn();
+                payloads[i] = msg.getPayload();
+                stored[i] = prepareMessage(msg);
+            }
+            boolean success;
+            try {
+                //BSH could call sendMessage
+                links.flush();
+                new BatchBSHScoreInterface(services.get(svc)).handleBTPMessages(src, svc, sns, payloads);
+                success = true;
+            } catch (Exception e) {
+                logger.println("dispatchBatch", "fail to handleBTPMessages", e.toString());
+                success = false;
+            }
+            for (int i = 0; i < size; i++) {
+                BTPMessage msg = batch.get(i);
+                try {
+                    if (!success) {
+                        deliverMessage(msg, stored[i]);
                     }
-                } else {
-                    collectRemainFee(msg.getFeeInfo());
-                    emitMessageDropped(prev, rxSeq, msg, e);
+                    emitBTPEvent(msg, sns[i].compareTo(BigInteger.ZERO) > 0 ? src : null, Event.RECEIVE);
+                } catch (BTPException e) {
+                    handleDispatchError(prev, seqs.get(i), msg, e);
                 }
             }
         }
+        batch.clear();
+        seqs.clear();
     }
 
-    private void handleMessage(BTPMessage msg) {
+    /**
+     * Stores ResponseInfo of the message to reply, and collects the fee if it doesn't need to reply.
+     *
+     * @return whether ResponseInfo is stored
+     */
+    private boolean prepareMessage(BTPMessage msg) {
         String src = msg.getSrc();
-        String svc = msg.getSvc();
         BigInteger sn = msg.getSn();
-        byte[] payload = msg.getPayload();
         FeeInfo feeInfo = msg.getFeeInfo();
-        int snCompare = sn.compareTo(BigInteger.ZERO);
-        if (snCompare >= 0) {
-            DictDB<BigInteger, ResponseInfo> responseInfoDictDb = null;
-            if (feeInfo != null) {
-                if (snCompare > 0) {
-                    responseInfoDictDb = responseInfos.at(src).at(msg.getSvc());
-                    ResponseInfo oldInfo = responseInfoDictDb.get(sn);
-                    if (oldInfo != null) {
-                        collectRemainFee(oldInfo.getFeeInfo());
-                    }
-                    responseInfoDictDb.set(sn, new ResponseInfo(msg.getNsn(), msg.getFeeInfo()));
-                } else {
-                    collectRemainFee(feeInfo);
+        if (feeInfo != null) {
+            if (sn.compareTo(BigInteger.ZERO) > 0) {
+                ResponseInfo oldInfo = responseInfos.get(src, msg.getSvc(), sn);
+                if (oldInfo != null) {
+                    collectRemainFee(oldInfo.getFeeInfo());
                 }
+                responseInfos.put(src, msg.getSvc(), sn, new ResponseInfo(msg.getNsn(), msg.getFeeInfo()));
+                return true;
+            } else {
+                collectRemainFee(feeInfo);
             }
+        }
+        return false;
+    }
 
-            try {
-                if (svc.equals(INTERNAL_SERVICE)) {
-                    internalHandleBTPMessage(src, msg.getNsn(), payload);
-                } else {
-                    BSHScoreInterface service = getService(svc);
-                    service.handleBTPMessage(src, svc, sn, payload);
-                }
-            } catch (Exception e) {
-                if (responseInfoDictDb != null) {
-                    responseInfoDictDb.set(sn, null);
-                }
-                throw BTPException.of(e, BTPException.Type.BSH);
+    private void deliverMessage(BTPMessage msg, boolean stored) {
+        String src = msg.getSrc();
+        String svc = msg.getSvc();
+        BigInteger sn = msg.getSn();
+        try {
+            if (svc.equals(INTERNAL_SERVICE)) {
+                internalHandleBTPMessage(src, msg.getNsn(), msg.getPayload());
+            } else {
+                BSHScoreInterface service = getService(svc);
+                //BSH could call sendMessage
+                links.flush();
+                service.handleBTPMessage(src, svc, sn, msg.getPayload());
+            }
+        } catch (Exception e) {
+            if (stored) {
+                responseInfos.remove(src, svc, sn);
             }
+            throw BTPException.of(e, BTPException.Type.BSH);
+        }
+    }
+
+    private void handleMessage(BTPMessage msg) {
+        String src = msg.getSrc();
+        String svc = msg.getSvc();
+        BigInteger sn = msg.getSn();
+        byte[] payload = msg.getPayload();
+        FeeInfo feeInfo = msg.getFeeInfo();
+        if (sn.compareTo(BigInteger.ZERO) >= 0) {
+            deliverMessage(msg, prepareMessage(msg));
         } else {
             sn = sn.negate();
             collectRemainFee(feeInfo);
@@ -630,6 +1109,8 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
                     internalHandleBTPError(src, msg.getNsn(), eCode, eMsg);
                 } else {
                     BSHScoreInterface service = getService(svc);
+                    //BSH could call sendMessage
+                    links.flush();
                     service.handleBTPError(src, svc, sn, eCode, eMsg);
                 }
             } catch (Exception e) {
@@ -671,26 +1152,32 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
                 InitMessage initMsg = InitMessage.fromBytes(payload);
                 addReachable(src, initMsg.getLinks());
                 break;
+            case Lanes:
+                //already applied by receiveMessages
+                break;
             default:
                 throw BMCException.unknown("not exists internal handler");
         }
     }
 
     private void addReachable(String net, BTPAddress... reachable) {
-        Link link = getLink(net);
-        List<BTPAddress> list = link.getReachable();
+        requireLink(net);
+        increaseConfigVersion();
         for (BTPAddress address : reachable) {
-            if (!list.contains(address)) {
-                list.add(address);
+            links.addReachable(net, address);
+            if (reachableIndex.get(address.net()) == null) {
+                reachableIndex.set(address.net(), net);
             }
         }
-        putLink(link);
     }
 
     private void removeReachable(String net, BTPAddress address) {
-        Link link = getLink(net);
-        link.getReachable().remove(address);
-        putLink(link);
+        requireLink(net);
+        increaseConfigVersion();
+        links.removeReachable(net, address);
+        if (net.equals(reachableIndex.get(address.net()))) {
+            updateReachableIndex(address.net());
+        }
     }
 
     private void handleResponse(BigInteger nsn, long result) {
@@ -744,7 +1231,129 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
             isResponse = true;
             _sn = _sn.negate();
         }
-        return sendMessageWithFee(_to, _svc, _sn, _msg, isResponse);
+        //BSH could call while handling relay message, the events are not summarized
+        //because the summary is not reverted if the BSH fails
+        EventSummary summary = eventSummary;
+        eventSummary = null;
+        try {
+            return sendMessageWithFee(_to, _svc, _sn, _msg, isResponse);
+        } finally {
+            eventSummary = summary;
+        }
+    }
+
+    @Payable
+    @External
+    public BigInteger[] sendMessages(String[] _to, String _svc, BigInteger[] _sn, byte[][] _msg) {
+        Address addr = services.get(_svc);
+        if (addr == null) {
+            throw BMCException.notExistsBSH();
+        }
+        if (!Context.getCaller().equals(addr)) {
+            throw BMCException.unauthorized();
+        }
+        int len = _to.length;
+        if (len == 0 || len != _sn.length || len != _msg.length) {
+            throw BMCException.unknown("invalid array length");
+        }
+        //BSH could call while handling relay message, then it joins the cache
+        boolean beginCache = !links.isCaching();
+        if (beginCache) {
+            links.beginCache();
+        }
+        EventSummary summary = beginEventSummary();
+        try {
+            BigInteger[] nsns = sendMessagesWithCache(_to, _svc, _sn, _msg);
+            links.flush();
+            emitEventSummary("");
+            return nsns;
+        } finally {
+            if (beginCache) {
+                links.endCache();
+            }
+            eventSummary = summary;
+        }
+    }
+
+    /**
+     * Resolves the next and the fee once for each destination, and writes networkSn once.
+     */
+    private BigInteger[] sendMessagesWithCache(String[] _to, String _svc, BigInteger[] _sn, byte[][] _msg) {
+        Map<String, BTPAddress> nexts = new HashMap<>();
+        Map<String, FeeRecord> feeRecords = new HashMap<>();
+        BigInteger remain = Context.getValue();
+        BigInteger surcharge = BigInteger.ZERO;
+        BigInteger lastNsn = getNetworkSn();
+        BigInteger[] nsns = new BigInteger[_to.length];
+        for (int i = 0; i < _to.length; i++) {
+            String to = _to[i];
+            BTPAddress next = nexts.get(to);
+            if (next == null) {
+                next = resolveNext(to);
+                nexts.put(to, next);
+            }
+            BTPMessage btpMsg = new BTPMessage();
+            btpMsg.setSrc(btpAddr.net());
+            btpMsg.setDst(to);
+            btpMsg.setSvc(_svc);
+            btpMsg.setPayload(_msg[i]);
+
+            BigInteger sn = _sn[i];
+            Event event;
+            if (sn.compareTo(BigInteger.ZERO) < 0) {
+                ResponseInfo responseInfo = responseInfos.remove(to, _svc, sn.negate());
+                if (responseInfo == null) {
+                    throw BMCException.unknown("not exists response");
+                }
+                btpMsg.setSn(BigInteger.ZERO);
+                btpMsg.setNsn(responseInfo.getNsn().negate());
+                btpMsg.setFeeInfo(responseInfo.getFeeInfo());
+                event = Event.REPLY;
+            } else {
+                lastNsn = lastNsn.add(BigInteger.ONE);
+                btpMsg.setSn(sn);
+                btpMsg.setNsn(lastNsn);
+                boolean includeBackward = sn.compareTo(BigInteger.ZERO) > 0;
+                FeeRecord fee;
+                if (feeRecords.containsKey(to)) {
+                    fee = feeRecords.get(to);
+                } else {
+                    fee = fees.get(to);
+                    feeRecords.put(to, fee);
+                }
+                BigInteger[] values;
+                if (fee == null) {
+                    values = new BigInteger[]{};
+                } else {
+                    values = fee.getValues(includeBackward);
+                    remain = remain.subtract(fee.getTotal(includeBackward));
+                }
+                btpMsg.setFeeInfo(new FeeInfo(btpAddr.net(), values));
+                event = Event.SEND;
+                String link = next.toString();
+                if (congestion.isEnabled(link)) {
+                    BigInteger txSeq = getLink(next).getTxSeq();
+                    surcharge = surcharge.add(congestion.check(link, txSeq));
+                    if (includeBackward) {
+                        congestion.track(link, lastNsn, txSeq.add(BigInteger.ONE));
+                    }
+                }
+            }
+            sendMessage(next, btpMsg);
+            emitBTPEvent(btpMsg, next.net(), event);
+            nsns[i] = btpMsg.getNsn();
+        }
+        remain = remain.subtract(surcharge);
+        if (remain.compareTo(BigInteger.ZERO) < 0) {
+            logger.println("sendMessages", "not enough fee", remain);
+            throw BMCException.unknown("not enough fee");
+        }
+        //the surcharge is not consumed by the relays, it's the reward of BMC
+        collectRemainFee(btpAddr.net(), remain.add(surcharge));
+        if (!lastNsn.equals(getNetworkSn())) {
+            networkSn.set(lastNsn);
+        }
+        return nsns;
     }
 
     private BigInteger sendMessageWithFee(String _to, String _svc, BigInteger _sn, byte[] msg, boolean isResponse) {
@@ -762,12 +1371,10 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
 
         Event event;
         if (isResponse) {
-            DictDB<BigInteger, ResponseInfo> responseInfoDictDb = responseInfos.at(_to).at(_svc);
-            ResponseInfo responseInfo = responseInfoDictDb.get(_sn);
+            ResponseInfo responseInfo = responseInfos.remove(_to, _svc, _sn);
             if (responseInfo == null) {
                 throw BMCException.unknown("not exists response");
             }
-            responseInfoDictDb.set(_sn, null);
             collectRemainFee(btpAddr.net(), Context.getValue());
             btpMsg.setNsn(responseInfo.getNsn().negate());
             btpMsg.setFeeInfo(responseInfo.getFeeInfo());
@@ -778,17 +1385,33 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
                 _sn = btpMsg.getNsn();
                 btpMsg.setSn(_sn);
             }
-            BigInteger[] values = getFeeList(_to, _sn.compareTo(BigInteger.ZERO) > 0);
-            BigInteger remain = Context.getValue().subtract(ArrayUtil.sum(values));
+            boolean includeBackward = _sn.compareTo(BigInteger.ZERO) > 0;
+            FeeRecord fee = fees.get(_to);
+            BigInteger[] values = fee == null ? new BigInteger[]{} : fee.getValues(includeBackward);
+            BigInteger remain = fee == null ? Context.getValue() :
+                    Context.getValue().subtract(fee.getTotal(includeBackward));
+            String link = next.toString();
+            boolean limited = !INTERNAL_SERVICE.equals(_svc) && congestion.isEnabled(link);
+            BigInteger txSeq = null;
+            BigInteger surcharge = BigInteger.ZERO;
+            if (limited) {
+                txSeq = getLink(next).getTxSeq();
+                surcharge = congestion.check(link, txSeq);
+                remain = remain.subtract(surcharge);
+            }
             if (remain.compareTo(BigInteger.ZERO) < 0) {
                 logger.println("sendMessage", "not enough fee", remain);
                 throw BMCException.unknown("not enough fee");
             }
-            collectRemainFee(btpAddr.net(), remain);
+            //the surcharge is not consumed by the relays, it's the reward of BMC
+            collectRemainFee(btpAddr.net(), remain.add(surcharge));
             btpMsg.setFeeInfo(new FeeInfo(btpAddr.net(), values));
             event = Event.SEND;
+            if (limited && includeBackward) {
+                congestion.track(link, btpMsg.getNsn(), txSeq.add(BigInteger.ONE));
+            }
         }
-        sendMessage(next, btpMsg.toBytes());
+        sendMessage(next, btpMsg);
         emitBTPEvent(btpMsg, next.net(), event);
         return btpMsg.getNsn();
     }
@@ -814,7 +1437,8 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
             String feeNet = feeInfo.getNetwork();
             BigInteger[] feeList = feeInfo.getValues();
             if (feeNet != null && feeList != null && feeList.length > 0) {
-                int hop = getFeeList(msg.getSrc(), false).length;
+                FeeRecord fee = fees.get(msg.getSrc());
+                int hop = fee == null ? 0 : fee.getHop();
                 if (hop > 0) {
                     if (feeList.length > hop) {
                         //swap not-consumed and to-be-consumed
@@ -835,22 +1459,39 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         btpMsg.setPayload(toResponseMessage(e).toBytes());
         btpMsg.setNsn(msg.getNsn().negate());
         btpMsg.setFeeInfo(feeInfo);
-        sendMessage(prev, btpMsg.toBytes());
+        sendMessage(prev, btpMsg);
         emitBTPEvent(msg, prev.net(), Event.ERROR);
     }
 
-    private void sendMessage(BTPAddress next, byte[] serializedMsg) {
+    private boolean isPriority(BTPMessage msg) {
+        return INTERNAL_SERVICE.equals(msg.getSvc()) || msg.getNsn().compareTo(BigInteger.ZERO) < 0;
+    }
+
+    private void sendMessage(BTPAddress next, BTPMessage msg) {
+        byte[] serializedMsg = msg.toBytes();
         Link link = getLink(next);
-        link.setTxSeq(link.getTxSeq().add(BigInteger.ONE));
+        BigInteger seq;
+        boolean priority = link.isLanes() && isPriority(msg);
+        if (priority) {
+            link.setPriorityTxSeq(link.getPriorityTxSeq().add(BigInteger.ONE));
+            seq = Lanes.tag(Lanes.PRIORITY, link.getPriorityTxSeq());
+        } else {
+            link.setTxSeq(link.getTxSeq().add(BigInteger.ONE));
+            seq = link.getTxSeq();
+        }
         putLink(link);
         BigInteger networkId = btpLinkNetworkIds.get(next.toString());
         if (networkId == null) {
-            Message(next.toString(), link.getTxSeq(), serializedMsg);
+            Message(next.toString(), seq, serializedMsg);
         } else {
             try {
                 Context.call(CHAIN_SCORE, "sendBTPMessage", networkId, serializedMsg);
             } catch (Exception e) {
-                link.setTxSeq(link.getTxSeq().subtract(BigInteger.ONE));
+                if (priority) {
+                    link.setPriorityTxSeq(link.getPriorityTxSeq().subtract(BigInteger.ONE));
+                } else {
+                    link.setTxSeq(link.getTxSeq().subtract(BigInteger.ONE));
+                }
                 putLink(link);
                 throw BMCException.unknown("fail to sendBTPMessage :" + e);
             }
@@ -873,7 +1514,7 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         btpMsg.setPayload(payload);
         btpMsg.setNsn(nextNetworkSn());
         emitBTPEvent(btpMsg, next.net(), Event.SEND);
-        sendMessage(next, btpMsg.toBytes());
+        sendMessage(next, btpMsg);
     }
 
     private BTPAddress[] propagateInternal(byte[] payload) {
@@ -894,10 +1535,15 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     private void emitBTPEvent(BTPMessage msg, String next, Event event) {
         BigInteger nsn = msg.getNsn();
         String _next = next == null ? "" : next;
+        String src = msg.getSrc();
         if (nsn.compareTo(BigInteger.ZERO) < 0) {
-            BTPEvent(msg.getDst(), nsn.negate(), _next, event.name());
+            src = msg.getDst();
+            nsn = nsn.negate();
+        }
+        if (eventSummary != null && !Event.ERROR.equals(event) && !Event.DROP.equals(event)) {
+            eventSummary.add(src, nsn, _next, event.name());
         } else {
-            BTPEvent(msg.getSrc(), nsn, _next, event.name());
+            BTPEvent(src, nsn, _next, event.name());
         }
     }
 
@@ -905,63 +1551,305 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     public void BTPEvent(String _src, BigInteger _nsn, String _next, String _event) {
     }
 
+    /**
+     * Begins to summarize BTPEvents if compact BTPEvent mode is set.
+     *
+     * @return summary of the caller to restore
+     */
+    private EventSummary beginEventSummary() {
+        EventSummary summary = eventSummary;
+        eventSummary = compactBTPEvent.getOrDefault(false) ? new EventSummary() : null;
+        return summary;
+    }
+
+    private void emitEventSummary(String prev) {
+        if (eventSummary != null && !eventSummary.isEmpty()) {
+            BTPEventSummary(prev, eventSummary.toBytes());
+        }
+    }
+
+    @EventLog(indexed = 1)
+    public void BTPEventSummary(String _prev, byte[] _events) {
+    }
+
+    @External
+    public void setCompactBTPEvent(boolean _compact) {
+        requireOwnerAccess();
+        increaseConfigVersion();
+        compactBTPEvent.set(_compact ? Boolean.TRUE : null);
+    }
+
+    @External(readonly = true)
+    public boolean isCompactBTPEvent() {
+        return compactBTPEvent.getOrDefault(false);
+    }
+
     @External
     public void handleFragment(String _prev, String _msg, int _idx) {
         logger.println("handleFragment", "_prev", _prev, "_idx:", _idx, "len(_msg):" + _msg.length());
-        requireLink(BTPAddress.valueOf(_prev));
+        handleFragment(_prev, Base64.getUrlDecoder().decode(_msg.getBytes()), _idx);
+    }
+
+    @External
+    public void handleFragmentBytes(String _prev, byte[] _msg, int _idx) {
+        logger.println("handleFragmentBytes", "_prev", _prev, "_idx:", _idx, "len(_msg):" + _msg.length);
+        handleFragment(_prev, _msg, _idx);
+    }
+
+    private void handleFragment(String _prev, byte[] fragmentBytes, int _idx) {
+        BTPAddress prev = BTPAddress.valueOf(_prev);
+        requireLink(prev);
+        requireRelay(_prev, _idx < 0);
         Address caller = Context.getCaller();
-        if (getRelayIndex(_prev, caller) < 0) {
+        if (isIncrementalVerifier(prev.net())) {
+            handleFragmentIncrementally(_prev, caller, fragmentBytes, _idx);
+            return;
+        }
+        if (_idx < 0) {
+            fragments.begin(_prev, caller, -_idx, fragmentBytes);
+        } else {
+            byte[] msgBytes = fragments.append(_prev, caller, _idx, fragmentBytes);
+            if (msgBytes != null) {
+                logger.println("handleFragment", "handleRelayMessage", "len:" + msgBytes.length);
+                handleRelayMessage(_prev, null, msgBytes, null);
+            }
+        }
+    }
+
+    @External
+    public void setFragmentExpiry(long _blocks) {
+        requireOwnerAccess();
+        increaseConfigVersion();
+        if (_blocks < 0) {
+            throw BMCException.unknown("invalid _blocks");
+        }
+        fragments.setExpiry(_blocks);
+    }
+
+    @External(readonly = true)
+    public long getFragmentExpiry() {
+        return fragments.getExpiry();
+    }
+
+    @External
+    public void reclaimFragments(int _limit) {
+        requireOwnerAccess();
+        if (_limit <= 0) {
+            throw BMCException.unknown("invalid _limit");
+        }
+        int cnt = 0;
+        //removing the buffer moves the last one to its index, which is already checked in the scan
+        int i = fragments.getCursor();
+        for (; i >= 0 && cnt < _limit; i--, cnt++) {
+            String key = fragments.getKey(i);
+            String prev = Fragments.prevOf(key);
+            Address relay = Fragments.relayOf(key);
+            if (fragments.isExpired(fragments.getValue(i)) || !relays.contains(prev, relay)) {
+                fragments.clear(prev, relay);
+            }
+        }
+        fragments.setCursor(i);
+        if (cnt < _limit && !fragments.isLegacyReclaimed()) {
+            cnt = sweepLegacyFragments(cnt, _limit);
+        }
+        logger.println("reclaimFragments", "cnt:", cnt);
+    }
+
+    /**
+     * Sweeps the buffers stored by the previous version for each relay of each link,
+     * continues from the cursor where the previous call stopped.
+     * The buffers of the relays or the links which are removed before are not reached,
+     * those could be cleared by {@link #reclaimLegacyFragments(String, Address[], int)}.
+     * Each cleared slot is charged against the limit, and each relay without slot and each link without relay
+     * are charged also. The buffer which has more slots than the remaining limit is cleared partially,
+     * and the next call continues with it, the cursor stays at the relay.
+     *
+     * @return cnt after the sweep
+     */
+    private int sweepLegacyFragments(int cnt, int limit) {
+        int[] cursor = fragments.getLegacyCursor();
+        int linkIdx = cursor[0];
+        int relayIdx = cursor[1];
+        int size = links.size();
+        while (linkIdx < size && cnt < limit) {
+            String prev = links.getAddr(linkIdx).toString();
+            int relaySize = relays.size(prev);
+            if (relaySize == 0) {
+                cnt++;
+            }
+            while (relayIdx < relaySize && cnt < limit) {
+                int remain = limit - cnt;
+                int cleared = fragments.clearLegacy(prev, relays.get(prev, relayIdx), remain);
+                if (cleared < remain) {
+                    relayIdx++;
+                }
+                cnt += Math.max(cleared, 1);
+            }
+            if (relayIdx >= relaySize) {
+                linkIdx++;
+                relayIdx = 0;
+            }
+        }
+        if (linkIdx < size) {
+            fragments.setLegacyCursor(linkIdx, relayIdx);
+        } else {
+            fragments.setLegacyReclaimed();
+        }
+        return cnt;
+    }
+
+    @External
+    public void reclaimLegacyFragments(String _link, Address[] _relays, int _limit) {
+        requireOwnerAccess();
+        int cnt = 0;
+        for (Address relay : _relays) {
+            if (cnt >= _limit) {
+                break;
+            }
+            cnt += fragments.clearLegacy(_link, relay, _limit - cnt);
+        }
+        logger.println("reclaimLegacyFragments", "cnt:", cnt);
+    }
+
+    @External
+    public void reclaimFragmentStream(String _link) {
+        requireOwnerAccess();
+        requireLink(BTPAddress.valueOf(_link));
+        streamRelays.set(_link, null);
+        streams.set(_link, null);
+    }
+
+    @External
+    public void setReorderBuffer(String _link, int _capacity, BigInteger _window, boolean _events) {
+        requireOwnerAccess();
+        requireLink(BTPAddress.valueOf(_link));
+        if (_capacity < 0 || (_capacity > 0 && _window.compareTo(BigInteger.ZERO) <= 0)) {
+            throw BMCException.unknown("invalid param");
+        }
+        Link link = getLink(BTPAddress.valueOf(_link));
+        if (_capacity > 0 && (link.isLanes() || link.isRxLanes())) {
+            throw BMCException.unknown("lanes are enabled");
+        }
+        reorderBuffer.configure(_link, _capacity, _window, _events);
+        increaseConfigVersion();
+    }
+
+    @External(readonly = true)
+    public Map getReorderBuffer(String _link) {
+        requireLink(BTPAddress.valueOf(_link));
+        return Map.of(
+                "capacity", reorderBuffer.getCapacity(_link),
+                "window", reorderBuffer.getWindow(_link),
+                "events", reorderBuffer.isEventEnabled(_link),
+                "size", reorderBuffer.size(_link));
+    }
+
+    @External
+    public void setLanes(String _link, boolean _enabled) {
+        requireOwnerAccess();
+        BTPAddress target = BTPAddress.valueOf(_link);
+        requireLink(target);
+        if (getLink(target).isLanes() == _enabled) {
+            return;
+        }
+        if (_enabled) {
+            if (btpLinkNetworkIds.get(_link) != null) {
+                throw BMCException.unknown("not supported for BTP block");
+            }
+            if (reorderBuffer.isEnabled(_link)) {
+                throw BMCException.unknown("reorder buffer is enabled");
+            }
+        }
+        increaseConfigVersion();
+        //sent in the current mode, the messages following it are sent in the new mode
+        sendInternal(target, new BMCMessage(Internal.Lanes.name(),
+                new LanesMessage(_enabled).toBytes()).toBytes());
+        links.setLanes(target.net(), _enabled);
+    }
+
+    @External(readonly = true)
+    public Map getLanes(String _link) {
+        BTPAddress target = BTPAddress.valueOf(_link);
+        requireLink(target);
+        Link link = getLink(target);
+        if (!link.isLanes() && !link.isRxLanes()) {
+            return Map.of("enabled", false, "rxEnabled", false);
+        }
+        return Map.of(
+                "enabled", link.isLanes(),
+                "rxEnabled", link.isRxLanes(),
+                "rxSeq", link.getPriorityRxSeq(),
+                "txSeq", link.getPriorityTxSeq());
+    }
+
+    @External
+    public void setCongestionWindow(String _link, BigInteger _window, BigInteger _surcharge) {
+        requireOwnerAccess();
+        requireLink(BTPAddress.valueOf(_link));
+        if (_window.compareTo(BigInteger.ZERO) < 0 || _surcharge.compareTo(BigInteger.ZERO) < 0) {
+            throw BMCException.unknown("invalid param");
+        }
+        congestion.configure(_link, _window, _surcharge);
+        increaseConfigVersion();
+    }
+
+    @External
+    public void acknowledge(String _link, BigInteger _seq) {
+        BTPAddress target = BTPAddress.valueOf(_link);
+        requireLink(target);
+        Link link = getLink(target);
+        if (!relays.contains(_link, Context.getCaller())) {
             throw BMCException.unauthorized("not registered relay");
         }
-        byte[] fragmentBytes = Base64.getUrlDecoder().decode(_msg.getBytes());
-        final int INDEX_LAST = 0;
-        final int INDEX_NEXT = 1;
-        final int INDEX_OFFSET = 2;
-        ArrayDB<byte[]> fragments = this.fragments.at(_prev).at(caller);
+        if (_seq.compareTo(BigInteger.ZERO) < 0 || _seq.compareTo(link.getTxSeq()) > 0) {
+            throw BMCException.unknown("invalid _seq");
+        }
+        congestion.ack(_link, _seq, link.getTxSeq());
+    }
+
+    @External(readonly = true)
+    public Map getLinkLag(String _link) {
+        BTPAddress target = BTPAddress.valueOf(_link);
+        requireLink(target);
+        Link link = getLink(target);
+        BigInteger ack = congestion.getAck(_link);
+        return Map.of(
+                "txSeq", link.getTxSeq(),
+                "ackSeq", ack,
+                "lag", link.getTxSeq().subtract(ack),
+                "window", congestion.getWindow(_link),
+                "surcharge", congestion.getSurcharge(_link));
+    }
+
+    private void handleFragmentIncrementally(String _prev, Address caller, byte[] fragmentBytes, int _idx) {
+        Address relay = streamRelays.get(_prev);
+        byte[] stream = streams.get(_prev);
+        int last;
         if (_idx < 0) {
-            int last = _idx * -1;
-            if (fragments.size() == 0) {
-                fragments.add(Integer.toString(last).getBytes());
-                fragments.add(Integer.toString(last - 1).getBytes());
-                fragments.add(fragmentBytes);
-            } else {
-                fragments.set(INDEX_LAST, Integer.toString(last).getBytes());
-                fragments.set(INDEX_NEXT, Integer.toString(last - 1).getBytes());
-                fragments.set(INDEX_OFFSET, fragmentBytes);
+            //verifier has only one stream, so the stream of other relay is taken over
+            //only if it's expired or the relay is removed, the turn decides it if the turn is set
+            if (stream != null && !caller.equals(relay) &&
+                    !fragments.isExpired(stream) && relays.contains(_prev, relay) &&
+                    relays.getTurnBlocks(_prev) <= 0) {
+                throw BMCException.unknown("stream of other relay is in progress");
             }
+            last = -_idx;
         } else {
-            int next = Integer.parseInt(new String(fragments.get(INDEX_NEXT)));
-            if (next != _idx) {
+            if (!caller.equals(relay) || stream == null || Fragments.nextOf(stream) != _idx) {
                 throw BMCException.unknown("invalid _idx");
             }
-            int last = Integer.parseInt(new String(fragments.get(INDEX_LAST)));
-            if (_idx == 0) {
-                int total = 0;
-                byte[][] bytesArr = new byte[last + 1][];
-                for (int i = 0; i < last; i++) {
-                    bytesArr[i] = fragments.get(i + INDEX_OFFSET);
-                    total += bytesArr[i].length;
-                }
-                bytesArr[last] = fragmentBytes;
-                total += fragmentBytes.length;
-                byte[] msgBytes = new byte[total];
-                int pos = 0;
-                for (byte[] bytes : bytesArr) {
-                    System.arraycopy(bytes, 0, msgBytes, pos, bytes.length);
-                    pos += bytes.length;
-                }
-                logger.println("handleFragment", "handleRelayMessage", "fragments:", last + 1, "len:" + total);
-                handleRelayMessage(_prev, msgBytes);
-            } else {
-                fragments.set(INDEX_NEXT, Integer.toString(_idx - 1).getBytes());
-                int INDEX_MSG = last - _idx + INDEX_OFFSET;
-                if (INDEX_MSG < fragments.size()) {
-                    fragments.set(INDEX_MSG, fragmentBytes);
-                } else {
-                    fragments.add(fragmentBytes);
-                }
+            last = Fragments.lastOf(stream);
+        }
+        if (_idx == 0) {
+            streamRelays.set(_prev, null);
+            streams.set(_prev, null);
+        } else {
+            if (!caller.equals(relay)) {
+                streamRelays.set(_prev, caller);
             }
+            streams.set(_prev, Fragments.header(last, (_idx < 0 ? -_idx : _idx) - 1, Context.getBlockHeight()));
         }
+        handleRelayMessage(_prev, null, fragmentBytes, _idx);
     }
 
     static boolean isInvalidSn(int snCompare, int nsnCompare) {
@@ -977,7 +1865,9 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         requireOwnerAccess();
         BTPAddress prev = resolveNext(_src);
         Link link = links.get(prev.net());
-        if (link.getRxSeq().add(BigInteger.ONE).compareTo(_seq) != 0) {
+        int lane = link.isRxLanes() ? Lanes.laneOf(_seq) : Lanes.NORMAL;
+        BigInteger rxSeq = lane == Lanes.PRIORITY ? link.getPriorityRxSeq() : link.getRxSeq();
+        if (lane < 0 || rxSeq.add(BigInteger.ONE).compareTo(Lanes.seqOf(_seq)) != 0) {
             throw BMCException.unknown("invalid _seq");
         }
         if (!services.containsKey(_svc)) {
@@ -987,7 +1877,12 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
         if (isInvalidSn(snCompare, _nsn.compareTo(BigInteger.ZERO))) {
             throw BMCException.invalidSn();
         }
-        link.setRxSeq(_seq);
+        if (lane == Lanes.PRIORITY) {
+            link.setPriorityRxSeq(rxSeq.add(BigInteger.ONE));
+        } else {
+            link.setRxSeq(_seq);
+            reorderBuffer.evict(link.getAddr().toString(), rxSeq, _seq);
+        }
         putLink(link);
 
         BTPMessage assumeMsg = new BTPMessage();
@@ -1022,55 +1917,108 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     public void MessageDropped(String _prev, BigInteger _seq, byte[] _msg, long _ecode, String _emsg) {
     }
 
-    private int getRelayIndex(String _link, Address _addr) {
-        ArrayDB<Address> arrayDB = relays.at(_link);
-        for (int i = 0 ; i < arrayDB.size(); i++) {
-            if (arrayDB.get(i).equals(_addr)) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
     @External
     public void addRelay(String _link, Address _addr) {
         requireOwnerAccess();
+        increaseConfigVersion();
         requireLink(BTPAddress.valueOf(_link));
-        if (getRelayIndex(_link, _addr) >= 0) {
+        if (!relays.add(_link, _addr)) {
             throw BMCException.alreadyExistsBMR();
         }
-        relays.at(_link).add(_addr);
     }
 
     @External
     public void removeRelay(String _link, Address _addr) {
         requireOwnerAccess();
+        increaseConfigVersion();
         requireLink(BTPAddress.valueOf(_link));
-        ArrayDB<Address> arrayDB = relays.at(_link);
-        if (arrayDB.size() == 0) {
-            throw BMCException.notExistsBMR();
-        }
-        Address last = arrayDB.pop();
-        if (!last.equals(_addr)) {
-            for (int i = 0 ; i < arrayDB.size(); i++) {
-                if (arrayDB.get(i).equals(_addr)) {
-                    arrayDB.set(i, last);
-                    return;
-                }
-            }
+        if (!relays.remove(_link, _addr)) {
             throw BMCException.notExistsBMR();
         }
+        fragments.clear(_link, _addr);
+        fragments.clearLegacy(_link, _addr);
     }
 
     @External(readonly = true)
     public Address[] getRelays(String _link) {
         requireLink(BTPAddress.valueOf(_link));
-        ArrayDB<Address> arrayDB = relays.at(_link);
-        Address[] arr = new Address[arrayDB.size()];
-        for (int i = 0 ; i < arrayDB.size(); i++) {
-            arr[i] = arrayDB.get(i);
+        return relays.toArray(_link);
+    }
+
+    /**
+     * Checks that the caller is a relay of the link, and the turn of the relay if it begins to relay.
+     * If the turn is set for the link, the height is recorded for the fallback of the turn,
+     * it's reverted with the transaction if the relay fails.
+     *
+     * @param begin whether the caller begins to relay, false for the following fragments
+     */
+    private void requireRelay(String _prev, boolean begin) {
+        Address caller = Context.getCaller();
+        if (!relays.contains(_prev, caller)) {
+            requireLink(BTPAddress.valueOf(_prev));
+            throw BMCException.unauthorized("not registered relay");
+        }
+        long blocks = relays.getTurnBlocks(_prev);
+        if (blocks <= 0) {
+            return;
+        }
+        long height = Context.getBlockHeight();
+        if (begin && !relays.isTurn(_prev, caller, height, blocks)) {
+            throw BMCException.unauthorized("not relay's turn");
+        }
+        relays.relayed(_prev, height);
+    }
+
+    @External
+    public void setRelayTurn(String _link, long _blocks) {
+        requireOwnerAccess();
+        requireLink(BTPAddress.valueOf(_link));
+        if (_blocks < 0) {
+            throw BMCException.unknown("invalid _blocks");
+        }
+        relays.setTurnBlocks(_link, _blocks);
+        increaseConfigVersion();
+    }
+
+    @External(readonly = true)
+    public Map getRelayTurn(String _link) {
+        requireLink(BTPAddress.valueOf(_link));
+        long blocks = relays.getTurnBlocks(_link);
+        long height = Context.getBlockHeight();
+        Address relay = relays.getTurn(_link, height);
+        if (relay == null) {
+            return Map.of("blocks", blocks);
         }
-        return arr;
+        return Map.of(
+                "blocks", blocks,
+                "relay", relay,
+                "end", height - height % blocks + blocks,
+                "fallback", relays.getFallback(_link, height));
+    }
+
+    @External(readonly = true)
+    public Map getRelayStatus(String _link, Address _addr) {
+        requireLink(BTPAddress.valueOf(_link));
+        RelayStats stats = relays.getStats(_link, _addr);
+        return Map.of(
+                "index", relays.indexOf(_link, _addr),
+                "relayMessages", stats.getRelayMessages(),
+                "messages", stats.getMessages(),
+                "empty", stats.getEmpty(),
+                "lastHeight", stats.getLastHeight(),
+                "rewards", relays.getEarned(_link, _addr));
+    }
+
+    @External
+    public void setRelayCounting(boolean _enable) {
+        requireOwnerAccess();
+        increaseConfigVersion();
+        relayCounting.set(_enable ? Boolean.TRUE : null);
+    }
+
+    @External(readonly = true)
+    public boolean isRelayCounting() {
+        return relayCounting.getOrDefault(false);
     }
 
     /* Delegate OwnerManager */
@@ -1128,8 +2076,12 @@ public class BTPMessageCenter implements BMC, ICONSpecific, OwnerManager {
     @External
     public void setBTPLinkNetworkId(String _link, long _networkId) {
         requireOwnerAccess();
+        increaseConfigVersion();
 
         Link link = getLink(BTPAddress.valueOf(_link));
+        if (link.isLanes()) {
+            throw BMCException.unknown("lanes are enabled");
+        }
         setBTPLink(_link, _networkId, link.getTxSeq());
     }
 
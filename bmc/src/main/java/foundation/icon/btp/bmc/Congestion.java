@@ -0,0 +1,206 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.util.Logger;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+
+import java.math.BigInteger;
+
+/**
+ * Congestion of the links, keyed by BTP Address of the link.
+ * The last acknowledged sequence is reported by the relay which reads the status of the remote BMC,
+ * or learned when the response of the two-way message is received.
+ * The reported sequence is not proven by the verifier, so the window is advisory and trusts the relays.
+ * If the window is set, the number of messages in flight, txSeq - acknowledged sequence, is limited to the window,
+ * and the message over the window requires the surcharge, or is rejected if the surcharge is not set.
+ * The surcharge is collected by the caller as the reward of BMC.
+ * The two-way messages are queued in order of txSeq, and the ones which are acknowledged without the response
+ * are removed when the acknowledged sequence goes forward, at most {@link #PRUNE_LIMIT} for each.
+ * The pendings and the queue are keyed by the generation of the link which is increased by {@link #clear(String)},
+ * so the ones of the removed link are never read again.
+ */
+public class Congestion {
+    private static final Logger logger = Logger.getLogger(Congestion.class);
+    static final int PRUNE_LIMIT = 16;
+
+    private final DictDB<String, BigInteger> acks;
+    private final DictDB<String, BigInteger> windows;
+    private final DictDB<String, BigInteger> surcharges;
+    //Map<Link, Map<nsn of two-way message, txSeq>>, only for the link which has the window
+    private final BranchDB<String, DictDB<BigInteger, BigInteger>> pendings;
+    //Map<Link, Map<index, nsn of two-way message>>, queue of pendings in order of txSeq
+    private final BranchDB<String, DictDB<Long, BigInteger>> queues;
+    private final DictDB<String, Long> heads;
+    private final DictDB<String, Long> tails;
+    private final DictDB<String, Long> generations;
+
+    public Congestion(String id) {
+        acks = Context.newDictDB(id, BigInteger.class);
+        windows = Context.newDictDB(id + "|window", BigInteger.class);
+        surcharges = Context.newDictDB(id + "|surcharge", BigInteger.class);
+        pendings = Context.newBranchDB(id + "|pending", BigInteger.class);
+        queues = Context.newBranchDB(id + "|queue", BigInteger.class);
+        heads = Context.newDictDB(id + "|head", Long.class);
+        tails = Context.newDictDB(id + "|tail", Long.class);
+        generations = Context.newDictDB(id + "|generation", Long.class);
+    }
+
+    /**
+     * Returns the key of the pendings and the queue for the current generation of the link.
+     */
+    private String queueKey(String link) {
+        long generation = generations.getOrDefault(link, 0L);
+        return generation == 0 ? link : link + "|" + generation;
+    }
+
+    public boolean isEnabled(String link) {
+        return getWindow(link).compareTo(BigInteger.ZERO) > 0;
+    }
+
+    public BigInteger getAck(String link) {
+        return acks.getOrDefault(link, BigInteger.ZERO);
+    }
+
+    public BigInteger getWindow(String link) {
+        return windows.getOrDefault(link, BigInteger.ZERO);
+    }
+
+    public BigInteger getSurcharge(String link) {
+        return surcharges.getOrDefault(link, BigInteger.ZERO);
+    }
+
+    public void configure(String link, BigInteger window, BigInteger surcharge) {
+        boolean enabled = window.compareTo(BigInteger.ZERO) > 0;
+        windows.set(link, enabled ? window : null);
+        surcharges.set(link, enabled && surcharge.compareTo(BigInteger.ZERO) > 0 ? surcharge : null);
+    }
+
+    /**
+     * Updates the acknowledged sequence if it's greater than before.
+     *
+     * @param seq   acknowledged sequence
+     * @param txSeq txSeq of the link, the acknowledged sequence could not exceed it
+     */
+    public void ack(String link, BigInteger seq, BigInteger txSeq) {
+        if (seq.compareTo(txSeq) > 0) {
+            seq = txSeq;
+        }
+        if (seq.compareTo(getAck(link)) > 0) {
+            acks.set(link, seq);
+            prune(queueKey(link), seq);
+        }
+    }
+
+    /**
+     * Removes the pendings which are acknowledged from the head of the queue.
+     */
+    private void prune(String key, BigInteger ack) {
+        long head = heads.getOrDefault(key, 0L);
+        long tail = tails.getOrDefault(key, 0L);
+        if (head >= tail) {
+            return;
+        }
+        DictDB<Long, BigInteger> queue = queues.at(key);
+        DictDB<BigInteger, BigInteger> dictDB = pendings.at(key);
+        long start = head;
+        long limit = Math.min(tail, head + PRUNE_LIMIT);
+        while (head < limit) {
+            BigInteger nsn = queue.get(head);
+            BigInteger seq = dictDB.get(nsn);
+            if (seq != null) {
+                if (seq.compareTo(ack) > 0) {
+                    break;
+                }
+                dictDB.set(nsn, null);
+            }
+            queue.set(head, null);
+            head++;
+        }
+        if (head == tail) {
+            heads.set(key, null);
+            tails.set(key, null);
+        } else if (head > start) {
+            heads.set(key, head);
+        }
+    }
+
+    /**
+     * Keeps txSeq of the two-way message to learn the acknowledged sequence from the response.
+     * Called only for the link which has the window.
+     */
+    public void track(String link, BigInteger nsn, BigInteger txSeq) {
+        String key = queueKey(link);
+        pendings.at(key).set(nsn, txSeq);
+        long tail = tails.getOrDefault(key, 0L);
+        queues.at(key).set(tail, nsn);
+        tails.set(key, tail + 1);
+    }
+
+    /**
+     * Learns the acknowledged sequence from the response of the two-way message.
+     *
+     * @param nsn   network serial number of the two-way message
+     * @param txSeq txSeq of the link
+     */
+    public void ackByResponse(String link, BigInteger nsn, BigInteger txSeq) {
+        DictDB<BigInteger, BigInteger> dictDB = pendings.at(queueKey(link));
+        BigInteger seq = dictDB.get(nsn);
+        if (seq != null) {
+            dictDB.set(nsn, null);
+            ack(link, seq, txSeq);
+        }
+    }
+
+    /**
+     * Checks whether the link could accept one more message.
+     *
+     * @param txSeq txSeq of the link before sending
+     * @return surcharge which is required, zero if the link is not congested
+     */
+    public BigInteger check(String link, BigInteger txSeq) {
+        BigInteger window = getWindow(link);
+        if (window.compareTo(BigInteger.ZERO) <= 0 ||
+                txSeq.subtract(getAck(link)).compareTo(window) < 0) {
+            return BigInteger.ZERO;
+        }
+        BigInteger surcharge = getSurcharge(link);
+        if (surcharge.compareTo(BigInteger.ZERO) <= 0) {
+            logger.println("check", "congested", link, txSeq);
+            throw BMCException.unknown("congested link");
+        }
+        return surcharge;
+    }
+
+    /**
+     * Removes the acknowledged sequence and the configuration of the link,
+     * and increases the generation of the link to drop the pendings and the queue.
+     */
+    public void clear(String link) {
+        acks.set(link, null);
+        windows.set(link, null);
+        surcharges.set(link, null);
+        String key = queueKey(link);
+        if (heads.get(key) != null || tails.get(key) != null) {
+            heads.set(key, null);
+            tails.set(key, null);
+            generations.set(link, generations.getOrDefault(link, 0L) + 1);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import score.ByteArrayObjectWriter;
+import score.Context;
+import scorex.util.ArrayList;
+import scorex.util.HashMap;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of BTPEvents, which is serialized as
+ * [[event, src, next, [start, count, start, count, ...]], ...].
+ * Each group is expanded to BTPEvent(src, nsn, next, event) for nsn in [start, start + count)
+ * of each range in order, and groups are in the order of their first event.
+ */
+public class EventSummary {
+    static class Group {
+        private final String event;
+        private final String src;
+        private final String next;
+        private final List<BigInteger> starts = new ArrayList<>();
+        private final List<Integer> counts = new ArrayList<>();
+
+        Group(String event, String src, String next) {
+            this.event = event;
+            this.src = src;
+            this.next = next;
+        }
+
+        void add(BigInteger nsn) {
+            int last = starts.size() - 1;
+            if (last >= 0 && starts.get(last).add(BigInteger.valueOf(counts.get(last))).equals(nsn)) {
+                counts.set(last, counts.get(last) + 1);
+            } else {
+                starts.add(nsn);
+                counts.add(1);
+            }
+        }
+    }
+
+    private final Map<String, Group> groups = new HashMap<>();
+    private final List<Group> orders = new ArrayList<>();
+
+    public void add(String src, BigInteger nsn, String next, String event) {
+        String key = event + "|" + src + "|" + next;
+        Group group = groups.get(key);
+        if (group == null) {
+            group = new Group(event, src, next);
+            groups.put(key, group);
+            orders.add(group);
+        }
+        group.add(nsn);
+    }
+
+    public boolean isEmpty() {
+        return orders.isEmpty();
+    }
+
+    public byte[] toBytes() {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(orders.size());
+        for (Group group : orders) {
+            writer.beginList(4);
+            writer.write(group.event);
+            writer.write(group.src);
+            writer.write(group.next);
+            int size = group.starts.size();
+            writer.beginList(size * 2);
+            for (int i = 0; i < size; i++) {
+                writer.write(group.starts.get(i));
+                writer.write(group.counts.get(i));
+            }
+            writer.end();
+            writer.end();
+        }
+        writer.end();
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.util.ArrayUtil;
+import foundation.icon.score.util.StringUtil;
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.ObjectReader;
+import score.ObjectWriter;
+import scorex.util.ArrayList;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Fee to the destination network, which is computed when the fee table is set.
+ * It's serialized as [network, [forward..., backward...], forwardTotal, total],
+ * the first two items are same as {@link FeeInfo} of the previous version,
+ * so the totals are computed on reading if they are not stored.
+ */
+public class FeeRecord {
+    private String network;
+    private BigInteger[] forward;
+    private BigInteger[] backward;
+    private BigInteger forwardTotal;
+    private BigInteger total;
+
+    public FeeRecord() {
+    }
+
+    public FeeRecord(String network, BigInteger[] values) {
+        this.network = network;
+        setValues(values);
+        computeTotal();
+    }
+
+    private void setValues(BigInteger[] values) {
+        int hop = values.length / 2;
+        forward = new BigInteger[hop];
+        backward = new BigInteger[values.length - hop];
+        System.arraycopy(values, 0, forward, 0, forward.length);
+        System.arraycopy(values, hop, backward, 0, backward.length);
+    }
+
+    private void computeTotal() {
+        forwardTotal = ArrayUtil.sum(forward);
+        total = forwardTotal.add(ArrayUtil.sum(backward));
+    }
+
+    public String getNetwork() {
+        return network;
+    }
+
+    public BigInteger[] getForward() {
+        return forward;
+    }
+
+    public BigInteger[] getBackward() {
+        return backward;
+    }
+
+    public int getHop() {
+        return forward.length;
+    }
+
+    /**
+     * Returns fee values
+     *
+     * @param includeBackward whether it includes the fee for the response
+     * @return forward values, and backward values if includeBackward is true
+     */
+    public BigInteger[] getValues(boolean includeBackward) {
+        if (!includeBackward) {
+            return forward;
+        }
+        BigInteger[] values = new BigInteger[forward.length + backward.length];
+        System.arraycopy(forward, 0, values, 0, forward.length);
+        System.arraycopy(backward, 0, values, forward.length, backward.length);
+        return values;
+    }
+
+    public BigInteger getTotal(boolean includeBackward) {
+        return includeBackward ? total : forwardTotal;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FeeRecord{");
+        sb.append("network='").append(network).append('\'');
+        sb.append(", forward=").append(StringUtil.toString(forward));
+        sb.append(", backward=").append(StringUtil.toString(backward));
+        sb.append(", forwardTotal=").append(forwardTotal);
+        sb.append(", total=").append(total);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    public static void writeObject(ObjectWriter writer, FeeRecord obj) {
+        obj.writeObject(writer);
+    }
+
+    public static FeeRecord readObject(ObjectReader reader) {
+        FeeRecord obj = new FeeRecord();
+        reader.beginList();
+        obj.network = reader.readString();
+        reader.beginList();
+        List<BigInteger> valuesList = new ArrayList<>();
+        while(reader.hasNext()) {
+            valuesList.add(reader.readBigInteger());
+        }
+        BigInteger[] values = new BigInteger[valuesList.size()];
+        for(int i=0; i<valuesList.size(); i++) {
+            values[i] = valuesList.get(i);
+        }
+        obj.setValues(values);
+        reader.end();
+        if (reader.hasNext()) {
+            obj.forwardTotal = reader.readBigInteger();
+            obj.total = reader.readBigInteger();
+        } else {
+            obj.computeTotal();
+        }
+        reader.end();
+        return obj;
+    }
+
+    public void writeObject(ObjectWriter writer) {
+        writer.beginList(4);
+        writer.write(network);
+        writer.beginList(forward.length + backward.length);
+        for(BigInteger v : forward) {
+            writer.write(v);
+        }
+        for(BigInteger v : backward) {
+            writer.write(v);
+        }
+        writer.end();
+        writer.write(forwardTotal);
+        writer.write(total);
+        writer.end();
+    }
+
+    public static FeeRecord fromBytes(byte[] bytes) {
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        return FeeRecord.readObject(reader);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        FeeRecord.writeObject(writer, this);
+        return writer.toByteArray();
+    }
+}
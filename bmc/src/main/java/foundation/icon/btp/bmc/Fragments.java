@@ -0,0 +1,289 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.data.EnumerableDictDB;
+import foundation.icon.score.util.Logger;
+import score.Address;
+import score.ArrayDB;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+import score.VarDB;
+
+/**
+ * Buffer of fragments of Relay Message, a session is identified by the link and the relay.
+ * Each session is stored with a fixed length binary header(last index, next index, updated height)
+ * and the fragments are stored in slots, the slots are cleared when the session is completed or restarted.
+ * The session which is not updated for the expiry blocks, is regarded as abandoned.
+ */
+public class Fragments extends EnumerableDictDB<String, byte[]> {
+    private static final Logger logger = Logger.getLogger(Fragments.class);
+    static final int HEADER_LEN = 16;
+
+    //Map<Session, Map<SlotIndex, Fragment>>
+    private final BranchDB<String, DictDB<Integer, byte[]>> slots;
+    private final VarDB<Long> expiry;
+    //index where the scan of reclaimFragments continues downward
+    private final VarDB<Integer> cursor;
+    //Map<Link, Map<Relay, [last, next, fragment...]>>, stored by the previous version
+    private final BranchDB<String, BranchDB<Address, ArrayDB<byte[]>>> legacy;
+    //[link index, relay index] where the sweep of the buffers stored by the previous version continues
+    private final VarDB<Integer> legacyLinkIdx;
+    private final VarDB<Integer> legacyRelayIdx;
+    private final VarDB<Boolean> legacyReclaimed;
+
+    public Fragments(String id, String legacyId) {
+        super(id, String.class, byte[].class);
+        slots = Context.newBranchDB(concatId("slots"), byte[].class);
+        expiry = Context.newVarDB(concatId("expiry"), Long.class);
+        cursor = Context.newVarDB(concatId("cursor"), Integer.class);
+        legacy = Context.newBranchDB(legacyId, byte[].class);
+        legacyLinkIdx = Context.newVarDB(concatId("legacyLinkIdx"), Integer.class);
+        legacyRelayIdx = Context.newVarDB(concatId("legacyRelayIdx"), Integer.class);
+        legacyReclaimed = Context.newVarDB(concatId("legacyReclaimed"), Boolean.class);
+    }
+
+    static String sessionKey(String prev, Address relay) {
+        return concatId(prev, relay);
+    }
+
+    static String prevOf(String sessionKey) {
+        return sessionKey.substring(0, sessionKey.lastIndexOf('|'));
+    }
+
+    static Address relayOf(String sessionKey) {
+        return Address.fromString(sessionKey.substring(sessionKey.lastIndexOf('|') + 1));
+    }
+
+    static byte[] header(int last, int next, long height) {
+        byte[] b = new byte[HEADER_LEN];
+        putInt(b, 0, last);
+        putInt(b, 4, next);
+        putInt(b, 8, (int) (height >>> 32));
+        putInt(b, 12, (int) height);
+        return b;
+    }
+
+    private static void putInt(byte[] b, int off, int v) {
+        b[off] = (byte) (v >>> 24);
+        b[off + 1] = (byte) (v >>> 16);
+        b[off + 2] = (byte) (v >>> 8);
+        b[off + 3] = (byte) v;
+    }
+
+    private static int getInt(byte[] b, int off) {
+        return ((b[off] & 0xff) << 24) | ((b[off + 1] & 0xff) << 16) |
+                ((b[off + 2] & 0xff) << 8) | (b[off + 3] & 0xff);
+    }
+
+    static int lastOf(byte[] header) {
+        return getInt(header, 0);
+    }
+
+    static int nextOf(byte[] header) {
+        return getInt(header, 4);
+    }
+
+    static long heightOf(byte[] header) {
+        return ((long) getInt(header, 8) << 32) | (getInt(header, 12) & 0xffffffffL);
+    }
+
+    //number of stored slots
+    private static int sizeOf(byte[] header) {
+        return lastOf(header) - nextOf(header);
+    }
+
+    public long getExpiry() {
+        return expiry.getOrDefault(0L);
+    }
+
+    public void setExpiry(long blocks) {
+        expiry.set(blocks > 0 ? blocks : null);
+    }
+
+    public boolean isExpired(byte[] header) {
+        long blocks = getExpiry();
+        return blocks > 0 && heightOf(header) + blocks < Context.getBlockHeight();
+    }
+
+    private void clearSlots(String key, int from, int to) {
+        DictDB<Integer, byte[]> dictDB = slots.at(key);
+        for (int i = from; i < to; i++) {
+            dictDB.set(i, null);
+        }
+    }
+
+    /**
+     * Begins the session with the first fragment, the previous session is discarded.
+     *
+     * @param prev     BTP Address of the previous BMC
+     * @param relay    Address of the relay
+     * @param last     index of the last fragment
+     * @param fragment the first fragment
+     */
+    public void begin(String prev, Address relay, int last, byte[] fragment) {
+        String key = sessionKey(prev, relay);
+        byte[] old = get(key);
+        if (old != null) {
+            clearSlots(key, 1, sizeOf(old));
+        }
+        slots.at(key).set(0, fragment);
+        put(key, header(last, last - 1, Context.getBlockHeight()));
+    }
+
+    /**
+     * Appends the fragment to the session.
+     * If the fragment is the last one, the session is cleared and the assembled bytes is returned.
+     *
+     * @param prev     BTP Address of the previous BMC
+     * @param relay    Address of the relay
+     * @param idx      index of the fragment
+     * @param fragment the fragment
+     * @return assembled bytes if the fragment is the last one, otherwise null
+     */
+    public byte[] append(String prev, Address relay, int idx, byte[] fragment) {
+        String key = sessionKey(prev, relay);
+        byte[] header = get(key);
+        if (header == null || nextOf(header) != idx) {
+            throw BMCException.unknown("invalid _idx");
+        }
+        if (isExpired(header)) {
+            throw BMCException.unknown("expired fragments");
+        }
+        int last = lastOf(header);
+        DictDB<Integer, byte[]> dictDB = slots.at(key);
+        if (idx > 0) {
+            dictDB.set(last - idx, fragment);
+            put(key, header(last, idx - 1, Context.getBlockHeight()));
+            return null;
+        }
+        byte[][] bytesArr = new byte[last + 1][];
+        int total = 0;
+        for (int i = 0; i < last; i++) {
+            bytesArr[i] = dictDB.get(i);
+            dictDB.set(i, null);
+            total += bytesArr[i].length;
+        }
+        bytesArr[last] = fragment;
+        total += fragment.length;
+        remove(key);
+        byte[] msgBytes = new byte[total];
+        int pos = 0;
+        for (byte[] bytes : bytesArr) {
+            System.arraycopy(bytes, 0, msgBytes, pos, bytes.length);
+            pos += bytes.length;
+        }
+        return msgBytes;
+    }
+
+    /**
+     * Clears the session.
+     *
+     * @param prev  BTP Address of the previous BMC
+     * @param relay Address of the relay
+     * @return whether the session existed
+     */
+    public boolean clear(String prev, Address relay) {
+        String key = sessionKey(prev, relay);
+        byte[] header = remove(key);
+        if (header == null) {
+            return false;
+        }
+        clearSlots(key, 0, sizeOf(header));
+        logger.println("clear", prev, relay);
+        return true;
+    }
+
+    /**
+     * Returns the index where the scan for reclaiming continues downward,
+     * the last index if the scan is not started or the index is not valid.
+     */
+    public int getCursor() {
+        int idx = cursor.getOrDefault(-1);
+        int size = size();
+        return idx >= 0 && idx < size ? idx : size - 1;
+    }
+
+    /**
+     * Sets the index where the scan for reclaiming continues, negative means the scan is finished.
+     */
+    public void setCursor(int idx) {
+        cursor.set(idx >= 0 ? idx : null);
+    }
+
+    /**
+     * Returns whether the sweep of the buffers stored by the previous version is finished.
+     */
+    public boolean isLegacyReclaimed() {
+        return legacyReclaimed.getOrDefault(false);
+    }
+
+    /**
+     * Returns [link index, relay index] where the sweep of the buffers stored by the previous version continues.
+     */
+    public int[] getLegacyCursor() {
+        return new int[]{legacyLinkIdx.getOrDefault(0), legacyRelayIdx.getOrDefault(0)};
+    }
+
+    public void setLegacyCursor(int linkIdx, int relayIdx) {
+        legacyLinkIdx.set(linkIdx);
+        legacyRelayIdx.set(relayIdx);
+    }
+
+    /**
+     * Records that the sweep of the buffers stored by the previous version is finished.
+     */
+    public void setLegacyReclaimed() {
+        legacyReclaimed.set(true);
+        legacyLinkIdx.set(null);
+        legacyRelayIdx.set(null);
+    }
+
+    /**
+     * Clears the buffer which is stored by the previous version.
+     *
+     * @param prev  BTP Address of the previous BMC
+     * @param relay Address of the relay
+     * @return whether the buffer existed
+     */
+    public boolean clearLegacy(String prev, Address relay) {
+        return clearLegacy(prev, relay, Integer.MAX_VALUE) > 0;
+    }
+
+    /**
+     * Clears the slots of the buffer which is stored by the previous version from the end,
+     * the buffer is cleared partially if it has more slots than the limit,
+     * so that the next call continues with the remaining slots.
+     *
+     * @param prev  BTP Address of the previous BMC
+     * @param relay Address of the relay
+     * @param limit maximum number of slots to clear
+     * @return number of cleared slots, less than the limit if the buffer is cleared completely
+     */
+    public int clearLegacy(String prev, Address relay, int limit) {
+        ArrayDB<byte[]> arrayDB = legacy.at(prev).at(relay);
+        int size = Math.min(arrayDB.size(), limit);
+        for (int i = 0; i < size; i++) {
+            arrayDB.removeLast();
+        }
+        if (size > 0) {
+            logger.println("clearLegacy", prev, relay, "size:", size);
+        }
+        return size;
+    }
+}
@@ -23,6 +23,7 @@ import score.annotation.EventLog;
 import score.annotation.External;
 
 import java.math.BigInteger;
+import java.util.Map;
 
 @ScoreClient
 public interface ICONSpecific {
@@ -39,6 +40,256 @@ public interface ICONSpecific {
     @External
     void handleFragment(String _prev, String _msg, int _idx);
 
+    /**
+     * Same as {@link #handleFragment} except that the fragment is given as bytes instead of base64 encoded string.
+     *
+     * @param _prev String ( BTP Address of the previous BMC )
+     * @param _msg  Bytes ( Fragmented serialized bytes of Relay Message )
+     * @param _idx  Integer ( Index of fragment )
+     */
+    @External
+    void handleFragmentBytes(String _prev, byte[] _msg, int _idx);
+
+    /**
+     * Same as {@link BMC#handleRelayMessage} except that the Relay Message is given as bytes
+     * instead of base64 encoded string.
+     * It's allowed to be called by registered Relay.
+     *
+     * @param _prev String ( BTP Address of the previous BMC )
+     * @param _msg  Bytes ( serialized bytes of Relay Message )
+     */
+    @External
+    void handleRelayMessageBytes(String _prev, byte[] _msg);
+
+    /**
+     * Sets the number of blocks to expire the fragments which are not updated.
+     * The expired fragments are not reassembled and could be reclaimed by {@link #reclaimFragments}.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _blocks Integer ( number of blocks, zero means no expiry )
+     */
+    @External
+    void setFragmentExpiry(long _blocks);
+
+    /**
+     * Returns the number of blocks to expire the fragments.
+     *
+     * @return Integer ( number of blocks, zero means no expiry )
+     */
+    @External(readonly = true)
+    long getFragmentExpiry();
+
+    /**
+     * Clears the fragments which are expired or sent by unregistered relay,
+     * and the fragments stored by the previous version.
+     * Each buffer which is checked is charged against _limit, whether it's cleared or not,
+     * and the next call continues from the buffer where the previous call stopped.
+     * The fragments stored by the previous version are swept once over the calls for the current relays
+     * of the current links, each cleared fragment is charged against _limit, and each relay without them also.
+     * A relay which has more of them than the remaining _limit is cleared partially, and continued by the next call.
+     * The ones of the relays or the links which are removed before are not swept,
+     * use {@link #reclaimLegacyFragments} for them.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _limit Integer ( maximum number of buffers, relays or fragments to check )
+     */
+    @External
+    void reclaimFragments(int _limit);
+
+    /**
+     * Clears the fragments stored by the previous version for the given relays of the link,
+     * even if the relays or the link are removed.
+     * At most _limit fragments are cleared from the end, call it again with the same relays
+     * until the fragments are cleared.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _link   String ( BTP Address of the previous BMC )
+     * @param _relays Address[] ( addresses of the relays )
+     * @param _limit  Integer ( maximum number of fragments to clear )
+     */
+    @External
+    void reclaimLegacyFragments(String _link, Address[] _relays, int _limit);
+
+    /**
+     * Clears the unfinished stream of the incremental verifier for the link,
+     * so that any relay of the link could begin the fragments.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _link String ( BTP Address of the previous BMC )
+     */
+    @External
+    void reclaimFragmentStream(String _link);
+
+    /**
+     * Same as {@link #handleRelayMessageBytes} except that the Relay Message follows the given sequence.
+     * If _seq is ahead of rxSeq of the link, the verified messages are parked in the reorder buffer of the link,
+     * and dispatched when the messages before them are received.
+     * It's allowed only if the reorder buffer of the link is enabled by {@link #setReorderBuffer},
+     * and the verifier of the network accepts _seq ahead, such as the bridge BMV deployed with _reorder.
+     * It's allowed to be called by registered Relay.
+     *
+     * @param _prev String ( BTP Address of the previous BMC )
+     * @param _seq  Integer ( sequence which the Relay Message follows )
+     * @param _msg  Bytes ( serialized bytes of Relay Message )
+     */
+    @External
+    void handleRelayMessageWithSeq(String _prev, BigInteger _seq, byte[] _msg);
+
+    /**
+     * Sets the reorder buffer of the link.
+     * The message is rejected if the buffer is full or its sequence is greater than rxSeq + _window.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _link     String ( BTP Address of the link )
+     * @param _capacity Integer ( maximum number of parked messages, zero means disabled )
+     * @param _window   Integer ( maximum distance from rxSeq of the link )
+     * @param _events   Boolean ( whether it emits MessageBuffered and MessageDrained )
+     */
+    @External
+    void setReorderBuffer(String _link, int _capacity, BigInteger _window, boolean _events);
+
+    /**
+     * Returns the configuration and the number of parked messages of the reorder buffer of the link.
+     *
+     * @param _link String ( BTP Address of the link )
+     * @return Map ( capacity, window, events, size )
+     */
+    @External(readonly = true)
+    Map getReorderBuffer(String _link);
+
+    /**
+     * (EventLog) Sends the event when the messages are parked in the reorder buffer.
+     * It's sent for each continuous range of the parked messages,
+     * the messages which are already received or parked are not included.
+     *
+     * @param _prev String ( BTP Address of the previous BMC )
+     * @param _from Integer ( sequence of the first message )
+     * @param _to   Integer ( sequence of the last message )
+     */
+    @EventLog(indexed = 1)
+    void MessageBuffered(String _prev, BigInteger _from, BigInteger _to);
+
+    /**
+     * (EventLog) Sends the event when the parked messages are dispatched
+     *
+     * @param _prev String ( BTP Address of the previous BMC )
+     * @param _from Integer ( sequence of the first message )
+     * @param _to   Integer ( sequence of the last message )
+     */
+    @EventLog(indexed = 1)
+    void MessageDrained(String _prev, BigInteger _from, BigInteger _to);
+
+    /**
+     * Sets whether the link has the priority lane for internal and response messages to send.
+     * If it's set, those messages are sent with the sequence of the priority lane
+     * which is tagged by {@link foundation.icon.btp.lib.Lanes}, so that they don't wait for the other messages.
+     * The switch is notified to the next BMC by the internal Lanes message which is sent in the current mode,
+     * and the next BMC switches the lanes for receiving when it receives the message,
+     * so that it could be set on each side of the link independently while messages are in flight.
+     * The verifier of the link must accept the lane-tagged sequences,
+     * and follow the sequence of the priority lane in _seq which restarts from zero whenever the lanes are switched.
+     * It's not supported for the link using BTP block, or with the reorder buffer.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _link    String ( BTP Address of the link )
+     * @param _enabled Boolean ( whether the priority lane is enabled )
+     */
+    @External
+    void setLanes(String _link, boolean _enabled);
+
+    /**
+     * Returns the sequences of the priority lane of the link.
+     *
+     * @param _link String ( BTP Address of the link )
+     * @return Map ( enabled for sending, rxEnabled for receiving, and if one of them is set, rxSeq, txSeq )
+     */
+    @External(readonly = true)
+    Map getLanes(String _link);
+
+    /**
+     * Sets the congestion window of the link.
+     * If the number of messages in flight, txSeq - acknowledged sequence, reaches the window,
+     * the request requires _surcharge in addition to the fee, or is rejected if _surcharge is zero.
+     * The surcharge is accumulated to the reward of BMC as the remaining fee.
+     * The responses, the internal messages and the messages routed by BMC are not limited.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _link      String ( BTP Address of the link )
+     * @param _window    Integer ( maximum number of messages in flight, zero means disabled )
+     * @param _surcharge Integer ( additional fee for the message over the window, zero means rejection )
+     */
+    @External
+    void setCongestionWindow(String _link, BigInteger _window, BigInteger _surcharge);
+
+    /**
+     * Acknowledges that the BMC of the link has received the messages until the sequence.
+     * The acknowledged sequence is also learned from the response of two-way message.
+     * The two-way messages which are acknowledged are not tracked for the response anymore.
+     * It's allowed to be called by registered Relay which reads rxSeq of the BMC of the link.
+     * The sequence is not proven by the verifier, so the window is advisory and trusts the relays,
+     * a relay could release the window early, but could not make it go backward or exceed txSeq.
+     *
+     * @param _link String ( BTP Address of the link )
+     * @param _seq  Integer ( rxSeq of the BMC of the link )
+     */
+    @External
+    void acknowledge(String _link, BigInteger _seq);
+
+    /**
+     * Returns the congestion status of the link.
+     *
+     * @param _link String ( BTP Address of the link )
+     * @return Map ( txSeq, ackSeq, lag, window, surcharge )
+     */
+    @External(readonly = true)
+    Map getLinkLag(String _link);
+
+    /**
+     * Sets whether the verifier of the network handles fragments incrementally.
+     * If it's set, {@link #handleFragment} passes each fragment to {@link foundation.icon.btp.lib.IncrementalBMV}
+     * instead of storing fragments, and dispatches the BTP Messages which are verified with the fragment.
+     * The verifier has only one stream for the link, so other relay is not allowed to begin the fragments
+     * until the stream is completed, expired by {@link #setFragmentExpiry}, its relay is removed
+     * or it's cleared by {@link #reclaimFragmentStream}. If the turn is set by {@link #setRelayTurn},
+     * the relay allowed by the turn takes over the stream.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _net         String ( Network Address of the verifier )
+     * @param _incremental Boolean ( whether the verifier implements IncrementalBMV )
+     */
+    @External
+    void setIncrementalVerifier(String _net, boolean _incremental);
+
+    /**
+     * Returns whether the verifier of the network handles fragments incrementally.
+     *
+     * @param _net String ( Network Address of the verifier )
+     * @return Boolean
+     */
+    @External(readonly = true)
+    boolean isIncrementalVerifier(String _net);
+
+    /**
+     * Sets whether the service handles consecutive BTP Messages at once.
+     * If it's set, consecutive BTP Messages from the same source network to the service
+     * are delivered with {@link foundation.icon.btp.lib.BatchBSH#handleBTPMessages}.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _svc   String ( name of the service )
+     * @param _batch Boolean ( whether the service implements BatchBSH )
+     */
+    @External
+    void setBatchService(String _svc, boolean _batch);
+
+    /**
+     * Returns whether the service handles consecutive BTP Messages at once.
+     *
+     * @param _svc String ( name of the service )
+     * @return Boolean
+     */
+    @External(readonly = true)
+    boolean isBatchService(String _svc);
+
     /**
      * TODO [TBD] add 'addRelay' to IIP-25.BMC.Writable methods
      * Registers relay for the network.
@@ -71,6 +322,135 @@ public interface ICONSpecific {
     @External(readonly = true)
     Address[] getRelays(String _link);
 
+    /**
+     * Sets the turn of the relays for the link.
+     * If it's set, relays take turns in the order of {@link #getRelays}, each turn lasts for _blocks,
+     * and only the relay of the turn is allowed to start relaying.
+     * If no Relay Message or fragment is accepted for the link since the turn begins or for half of the turn,
+     * whichever is later, any relay of the link is allowed to relay until the next one is accepted.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _link   String ( BTP Address of connected BMC )
+     * @param _blocks Integer ( number of blocks of the turn, zero means every relay is allowed at any time )
+     */
+    @External
+    void setRelayTurn(String _link, long _blocks);
+
+    /**
+     * Returns the turn of the relays for the link at the current block.
+     *
+     * @param _link String ( BTP Address of connected BMC )
+     * @return Map ( blocks, and if it's set, relay of the turn, the height where the turn ends
+     * and the height from which any relay is allowed if no Relay Message or fragment is accepted )
+     */
+    @External(readonly = true)
+    Map getRelayTurn(String _link);
+
+    /**
+     * Returns the counters of the relay for the link.
+     * Counters and rewards are summed only while relay counting mode is set.
+     *
+     * @param _link String ( BTP Address of connected BMC )
+     * @param _addr Address ( the address of Relay )
+     * @return Map ( index, relayMessages, messages, empty, lastHeight, rewards by Network Address )
+     */
+    @External(readonly = true)
+    Map getRelayStatus(String _link, Address _addr);
+
+    /**
+     * Sets relay counting mode, it's not set by default.
+     * If it's set, counters and rewards of each relay are summed for the link
+     * for each handling of the Relay Message.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _enable Boolean ( whether it counts for each relay )
+     */
+    @External
+    void setRelayCounting(boolean _enable);
+
+    /**
+     * Returns whether relay counting mode is set.
+     *
+     * @return Boolean
+     */
+    @External(readonly = true)
+    boolean isRelayCounting();
+
+    /**
+     * Returns a page of {@link BMC#getVerifiers}.
+     * Entries are in the order of enumeration, which changes only if an entry is removed.
+     *
+     * @param _offset Integer ( index of the first entry )
+     * @param _limit  Integer ( maximum number of entries )
+     * @return A dictionary with the Network Address as a key and smart contract address of the BMV as a value.
+     */
+    @External(readonly = true)
+    Map getVerifiersPage(int _offset, int _limit);
+
+    /**
+     * Returns a page of {@link BMC#getServices}.
+     *
+     * @param _offset Integer ( index of the first entry )
+     * @param _limit  Integer ( maximum number of entries )
+     * @return A dictionary with the name of the service as key and address of the BSH related to the service as value.
+     */
+    @External(readonly = true)
+    Map getServicesPage(int _offset, int _limit);
+
+    /**
+     * Returns a page of {@link BMC#getLinks}.
+     *
+     * @param _offset Integer ( index of the first entry )
+     * @param _limit  Integer ( maximum number of entries )
+     * @return A list of links ( BTP Addresses of the BMCs )
+     */
+    @External(readonly = true)
+    String[] getLinksPage(int _offset, int _limit);
+
+    /**
+     * Returns a page of the static routes registered by {@link BMC#addRoute}.
+     * Unlike {@link BMC#getRoutes}, the routes derived from the reachable networks of the links are not included.
+     *
+     * @param _offset Integer ( index of the first entry )
+     * @param _limit  Integer ( maximum number of entries )
+     * @return A dictionary with the Network Address of the destination BMC as key and the Network Address of the next as value.
+     */
+    @External(readonly = true)
+    Map getRoutesPage(int _offset, int _limit);
+
+    /**
+     * Returns a page of the fee table.
+     *
+     * @param _offset Integer ( index of the first entry )
+     * @param _limit  Integer ( maximum number of entries )
+     * @return A dictionary with the Network Address of the destination as key and the list of fees as value.
+     */
+    @External(readonly = true)
+    Map getFeeTablePage(int _offset, int _limit);
+
+    /**
+     * Returns a page of {@link #getRelays}.
+     *
+     * @param _link   String ( BTP Address of connected BMC )
+     * @param _offset Integer ( index of the first entry )
+     * @param _limit  Integer ( maximum number of entries )
+     * @return A list of address of relay
+     */
+    @External(readonly = true)
+    Address[] getRelaysPage(String _link, int _offset, int _limit);
+
+    /**
+     * Returns the version of the configuration, which is increased whenever verifiers, services,
+     * links, routes, fee table, relays or the settings of them (incremental verifier, batch service,
+     * reorder buffer, congestion window, relay turn and network id of BTP link) are changed,
+     * and whenever fee handler, response expiry, fragment expiry, compact BTP event or relay counting is set.
+     * Pollers could skip reading them if it's not changed.
+     *
+     * @return Integer ( version of the configuration )
+     */
+    @External(readonly = true)
+    long getConfigVersion();
+
     /**
      * (EventLog) Drops the next message that to be relayed from a specific network
      * Called by the operator to manage the BTP network.
@@ -100,6 +480,86 @@ public interface ICONSpecific {
     @EventLog(indexed = 2)
     void MessageDropped(String _prev, BigInteger _seq, byte[] _msg, long _ecode, String _emsg);
 
+    /**
+     * Sets compact BTPEvent mode.
+     * If it's set, BTPEvents except ERROR and DROP are summarized into one BTPEventSummary
+     * for each handling of the Relay Message and each sendMessages.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _compact Boolean ( whether it summarizes BTPEvents )
+     */
+    @External
+    void setCompactBTPEvent(boolean _compact);
+
+    /**
+     * Returns whether compact BTPEvent mode is set.
+     *
+     * @return Boolean
+     */
+    @External(readonly = true)
+    boolean isCompactBTPEvent();
+
+    /**
+     * (EventLog) Summary of BTPEvents in compact BTPEvent mode
+     * <p>
+     * indexed: 1
+     * <p>
+     * _events is RLP encoded list of [event, src, next, [start, count, start, count, ...]],
+     * each item is expanded to BTPEvent(src, nsn, next, event) for nsn from start to start + count - 1
+     * of each range in order.
+     *
+     * @param _prev   String ( BTP Address of the previous BMC, or empty if it's sent by sendMessages )
+     * @param _events Bytes ( RLP encoded summary of BTPEvents )
+     */
+    @EventLog(indexed = 1)
+    void BTPEventSummary(String _prev, byte[] _events);
+
+    /**
+     * Sets the number of blocks after which the information to reply a request could be pruned.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _blocks Integer ( number of blocks, zero means no expiry )
+     */
+    @External
+    void setResponseExpiry(long _blocks);
+
+    /**
+     * Returns the number of blocks after which the information to reply a request could be pruned.
+     *
+     * @return Integer ( number of blocks, zero means no expiry )
+     */
+    @External(readonly = true)
+    long getResponseExpiry();
+
+    /**
+     * Prunes the expired information to reply the requests, and collects the remaining fee of them.
+     * The range is limited to 128 serial numbers for each call.
+     * Called by the operator to manage the BTP network.
+     *
+     * @param _src  String ( Network Address of source network of the requests )
+     * @param _svc  String ( name of the service )
+     * @param _from Integer ( the first serial number of the requests )
+     * @param _to   Integer ( the last serial number of the requests )
+     */
+    @External
+    void pruneResponses(String _src, String _svc, BigInteger _from, BigInteger _to);
+
+    /**
+     * Stops reading the information to reply the requests which is stored by the previous version.
+     * Call it after the requests of the previous version are replied or pruned by {@link #pruneResponses}.
+     * Called by the operator to manage the BTP network.
+     */
+    @External
+    void finishLegacyResponses();
+
+    /**
+     * Returns whether reading the information stored by the previous version is finished.
+     *
+     * @return Boolean
+     */
+    @External(readonly = true)
+    boolean isLegacyResponsesFinished();
+
     /**
      * Registers the BTPLink to connect that use the BTP-Block instead of Event-Log to send message.
      * Called by the operator to manage the BTP network.
@@ -112,6 +572,7 @@ public interface ICONSpecific {
 
     /**
      * Sets to migrate the Link to the BTPLink which use the BTP-Block to send message.
+     * It's not allowed while the priority lane of the link is enabled, see {@link #setLanes(String, boolean)}.
      * Called by the operator to manage the BTP network.
      *
      * @param _link      String ( BTP Address of connected BMC )
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package foundation.icon.btp.bmc;
+
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.ObjectReader;
+import score.ObjectWriter;
+
+/**
+ * Notifies the next BMC that the lanes are switched,
+ * the messages following it are sent with the given mode.
+ */
+public class LanesMessage {
+    private boolean enabled;
+
+    public LanesMessage() {
+    }
+
+    public LanesMessage(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("LanesMessage{");
+        sb.append("enabled=").append(enabled);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    public static void writeObject(ObjectWriter writer, LanesMessage obj) {
+        obj.writeObject(writer);
+    }
+
+    public static LanesMessage readObject(ObjectReader reader) {
+        LanesMessage obj = new LanesMessage();
+        reader.beginList();
+        obj.setEnabled(reader.readBoolean());
+        reader.end();
+        return obj;
+    }
+
+    public void writeObject(ObjectWriter writer) {
+        writer.beginList(1);
+        writer.write(this.isEnabled());
+        writer.end();
+    }
+
+    public static LanesMessage fromBytes(byte[] bytes) {
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        return LanesMessage.readObject(reader);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        LanesMessage.writeObject(writer, this);
+        return writer.toByteArray();
+    }
+}
@@ -32,8 +32,15 @@ public class Link {
     private BTPAddress addr; //primary key
     private BigInteger rxSeq;
     private BigInteger txSeq;
-
-    //with suffix("reachable") ArrayDB<String>
+    //priority lane for internal and response messages, see foundation.icon.btp.lib.Lanes
+    //lanes for sending, switched by the owner
+    private boolean lanes;
+    private BigInteger priorityRxSeq;
+    private BigInteger priorityTxSeq;
+    //lanes for receiving, switched by LanesMessage from the previous BMC
+    private boolean rxLanes;
+
+    //only for migration, reachable is stored separately, see Links
     private List<BTPAddress> reachable;
 
     public BTPAddress getAddr() {
@@ -60,6 +67,38 @@ public class Link {
         this.txSeq = txSeq;
     }
 
+    public boolean isLanes() {
+        return lanes;
+    }
+
+    public void setLanes(boolean lanes) {
+        this.lanes = lanes;
+    }
+
+    public boolean isRxLanes() {
+        return rxLanes;
+    }
+
+    public void setRxLanes(boolean rxLanes) {
+        this.rxLanes = rxLanes;
+    }
+
+    public BigInteger getPriorityRxSeq() {
+        return priorityRxSeq;
+    }
+
+    public void setPriorityRxSeq(BigInteger priorityRxSeq) {
+        this.priorityRxSeq = priorityRxSeq;
+    }
+
+    public BigInteger getPriorityTxSeq() {
+        return priorityTxSeq;
+    }
+
+    public void setPriorityTxSeq(BigInteger priorityTxSeq) {
+        this.priorityTxSeq = priorityTxSeq;
+    }
+
     public List<BTPAddress> getReachable() {
         return reachable;
     }
@@ -75,6 +114,10 @@ public class Link {
         sb.append(", rxSeq=").append(rxSeq);
         sb.append(", txSeq=").append(txSeq);
         sb.append(", reachable=").append(reachable);
+        sb.append(", lanes=").append(lanes);
+        sb.append(", priorityRxSeq=").append(priorityRxSeq);
+        sb.append(", priorityTxSeq=").append(priorityTxSeq);
+        sb.append(", rxLanes=").append(rxLanes);
         sb.append('}');
         return sb.toString();
     }
@@ -97,12 +140,20 @@ public class Link {
             obj.setReachable(reachable);
             reader.end();
         }
+        if (reader.hasNext()) {
+            obj.setLanes(reader.readNullable(Boolean.class) != null);
+            obj.setPriorityRxSeq(reader.readNullable(BigInteger.class));
+            obj.setPriorityTxSeq(reader.readNullable(BigInteger.class));
+        }
+        if (reader.hasNext()) {
+            obj.setRxLanes(reader.readNullable(Boolean.class) != null);
+        }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(4);
+        writer.beginList(8);
         writer.writeNullable(this.getAddr());
         writer.writeNullable(this.getRxSeq());
         writer.writeNullable(this.getTxSeq());
@@ -116,6 +167,10 @@ public class Link {
         } else {
             writer.writeNull();
         }
+        writer.writeNullable(this.isLanes() ? Boolean.TRUE : null);
+        writer.writeNullable(this.getPriorityRxSeq());
+        writer.writeNullable(this.getPriorityTxSeq());
+        writer.writeNullable(this.isRxLanes() ? Boolean.TRUE : null);
         writer.end();
     }
 
@@ -16,15 +16,310 @@
 
 package foundation.icon.btp.bmc;
 
+import foundation.icon.btp.lib.BTPAddress;
 import foundation.icon.score.data.EnumerableDictDB;
 import foundation.icon.score.util.Logger;
+import score.ArrayDB;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+import score.VarDB;
+import scorex.util.ArrayList;
+import scorex.util.HashMap;
 
+import java.math.BigInteger;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Link is stored with only address, and the others are stored separately
+ * so that updating sequence doesn't rewrite the reachable list.
+ * Sequences of the priority lane are loaded only if the lanes of the link are enabled.
+ */
 public class Links extends EnumerableDictDB<String, Link> {
     private static final Logger logger = Logger.getLogger(Links.class);
 
+    private final DictDB<String, BigInteger> rxSeqs;
+    private final DictDB<String, BigInteger> txSeqs;
+    private final DictDB<String, BigInteger> priorityRxSeqs;
+    private final DictDB<String, BigInteger> priorityTxSeqs;
+    private final BranchDB<String, ArrayDB<BTPAddress>> reachable;
+    private final VarDB<Boolean> separated;
+
+    //write-back cache, only available between beginCache and endCache
+    private Map<String, Link> cache;
+    private List<String> dirty;
+
     public Links(String id) {
         super(id, String.class, Link.class);
+        rxSeqs = Context.newDictDB(concatId("rxSeq"), BigInteger.class);
+        txSeqs = Context.newDictDB(concatId("txSeq"), BigInteger.class);
+        priorityRxSeqs = Context.newDictDB(concatId("priorityRxSeq"), BigInteger.class);
+        priorityTxSeqs = Context.newDictDB(concatId("priorityTxSeq"), BigInteger.class);
+        reachable = Context.newBranchDB(concatId("reachable"), BTPAddress.class);
+        separated = Context.newVarDB(concatId("separated"), Boolean.class);
+    }
+
+    /**
+     * Migrates links which are stored with sequences and reachable list.
+     */
+    public void migrate() {
+        if (separated.getOrDefault(false)) {
+            return;
+        }
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            Link link = super.getValue(i);
+            String key = link.getAddr().net();
+            rxSeqs.set(key, link.getRxSeq());
+            txSeqs.set(key, link.getTxSeq());
+            if (link.getReachable() != null) {
+                ArrayDB<BTPAddress> arrayDB = reachable.at(key);
+                for (BTPAddress v : link.getReachable()) {
+                    arrayDB.add(v);
+                }
+            }
+            super.put(key, header(link));
+            logger.println("migrate", key);
+        }
+        separated.set(true);
+    }
+
+    private static Link header(Link link) {
+        Link header = new Link();
+        header.setAddr(link.getAddr());
+        header.setLanes(link.isLanes());
+        header.setRxLanes(link.isRxLanes());
+        return header;
+    }
+
+    private Link load(Link header) {
+        if (header == null) {
+            return null;
+        }
+        String key = header.getAddr().net();
+        header.setRxSeq(rxSeqs.get(key));
+        header.setTxSeq(txSeqs.get(key));
+        if (header.isLanes() || header.isRxLanes()) {
+            header.setPriorityRxSeq(priorityRxSeqs.getOrDefault(key, BigInteger.ZERO));
+            header.setPriorityTxSeq(priorityTxSeqs.getOrDefault(key, BigInteger.ZERO));
+        }
+        return header;
+    }
+
+    private void putSeq(String key, Link link, Link old) {
+        if (!link.getRxSeq().equals(old.getRxSeq())) {
+            rxSeqs.set(key, link.getRxSeq());
+        }
+        if (!link.getTxSeq().equals(old.getTxSeq())) {
+            txSeqs.set(key, link.getTxSeq());
+        }
+        putPrioritySeq(priorityRxSeqs, key, link.getPriorityRxSeq(), old.getPriorityRxSeq());
+        putPrioritySeq(priorityTxSeqs, key, link.getPriorityTxSeq(), old.getPriorityTxSeq());
+    }
+
+    private static void putPrioritySeq(DictDB<String, BigInteger> dictDB, String key, BigInteger seq, BigInteger old) {
+        if (seq != null && !seq.equals(old == null ? BigInteger.ZERO : old)) {
+            dictDB.set(key, seq.signum() == 0 ? null : seq);
+        }
+    }
+
+    private static void ensurePrioritySeqs(Link link) {
+        if (link.getPriorityRxSeq() == null) {
+            link.setPriorityRxSeq(BigInteger.ZERO);
+        }
+        if (link.getPriorityTxSeq() == null) {
+            link.setPriorityTxSeq(BigInteger.ZERO);
+        }
+    }
+
+    /**
+     * Enables or disables the priority lane of the link for sending.
+     * If it's disabled, the sending sequence of the priority lane is reset,
+     * and the next BMC resets the receiving one when it receives LanesMessage.
+     */
+    public void setLanes(String key, boolean lanes) {
+        Link link = get(key);
+        link.setLanes(lanes);
+        ensurePrioritySeqs(link);
+        if (!lanes) {
+            link.setPriorityTxSeq(BigInteger.ZERO);
+            priorityTxSeqs.set(key, null);
+        }
+        super.put(key, header(link));
+    }
+
+    /**
+     * Enables or disables the priority lane of the link for receiving, called by LanesMessage.
+     * If it's disabled, the receiving sequence of the priority lane is reset,
+     * every message of the priority lane which is sent before LanesMessage is already received.
+     */
+    public void setRxLanes(Link link, boolean rxLanes) {
+        String key = link.getAddr().net();
+        link.setRxLanes(rxLanes);
+        ensurePrioritySeqs(link);
+        if (!rxLanes) {
+            link.setPriorityRxSeq(BigInteger.ZERO);
+            priorityRxSeqs.set(key, null);
+        }
+        super.put(key, header(link));
+    }
+
+    public List<BTPAddress> getReachable(String key) {
+        ArrayDB<BTPAddress> arrayDB = reachable.at(key);
+        List<BTPAddress> list = new ArrayList<>();
+        int size = arrayDB.size();
+        for (int i = 0; i < size; i++) {
+            list.add(arrayDB.get(i));
+        }
+        return list;
+    }
+
+    public void addReachable(String key, BTPAddress address) {
+        ArrayDB<BTPAddress> arrayDB = reachable.at(key);
+        int size = arrayDB.size();
+        for (int i = 0; i < size; i++) {
+            if (arrayDB.get(i).equals(address)) {
+                return;
+            }
+        }
+        arrayDB.add(address);
+    }
+
+    public void removeReachable(String key, BTPAddress address) {
+        ArrayDB<BTPAddress> arrayDB = reachable.at(key);
+        int size = arrayDB.size();
+        for (int i = 0; i < size; i++) {
+            if (arrayDB.get(i).equals(address)) {
+                BTPAddress last = arrayDB.pop();
+                if (i < size - 1) {
+                    arrayDB.set(i, last);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Begins write-back caching.
+     * Each link is loaded once, and updates are kept in memory until {@link #flush()}.
+     */
+    public void beginCache() {
+        cache = new HashMap<>();
+        dirty = new ArrayList<>();
+    }
+
+    public boolean isCaching() {
+        return cache != null;
+    }
+
+    /**
+     * Writes updated links once and evicts all cached links,
+     * so that the changes by other contract calls could be loaded.
+     */
+    public void flush() {
+        if (cache == null) {
+            return;
+        }
+        for (String key : dirty) {
+            Link link = cache.get(key);
+            putSeq(key, link, load(header(link)));
+        }
+        dirty.clear();
+        cache.clear();
+    }
+
+    /**
+     * Ends write-back caching without writing, {@link #flush()} must be called before if it needs.
+     */
+    public void endCache() {
+        cache = null;
+        dirty = null;
+    }
+
+    /**
+     * Returns BTP Address of the link at the index without loading the sequences.
+     */
+    public BTPAddress getAddr(int i) {
+        Link link = super.getValue(i);
+        return link == null ? null : link.getAddr();
+    }
+
+    /**
+     * Returns BTP Addresses of the links in [offset, offset + limit) without loading the sequences.
+     */
+    public List<BTPAddress> getAddrs(int offset, int limit) {
+        List<BTPAddress> addrs = new ArrayList<>();
+        int end = pageEnd(offset, limit);
+        for (int i = offset; i < end; i++) {
+            addrs.add(getAddr(i));
+        }
+        return addrs;
+    }
+
+    @Override
+    public Link getValue(Integer i) {
+        Link link = super.getValue(i);
+        if (link != null && cache != null) {
+            Link cached = cache.get(link.getAddr().net());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return load(link);
+    }
+
+    @Override
+    public Link get(String key) {
+        if (cache == null) {
+            return super.get(key);
+        }
+        Link link = cache.get(key);
+        if (link == null) {
+            link = super.get(key);
+            if (link != null) {
+                cache.put(key, link);
+            }
+        }
+        return link;
+    }
+
+    @Override
+    public Link put(String key, Link value) {
+        Link old = get(key);
+        if (old == null) {
+            super.put(key, header(value));
+            rxSeqs.set(key, value.getRxSeq());
+            txSeqs.set(key, value.getTxSeq());
+        } else if (cache == null) {
+            putSeq(key, value, old);
+        } else if (!dirty.contains(key)) {
+            dirty.add(key);
+        }
+        if (cache != null) {
+            cache.put(key, value);
+        }
+        return old;
+    }
+
+    @Override
+    public Link remove(String key) {
+        if (cache != null) {
+            cache.remove(key);
+            dirty.remove(key);
+        }
+        Link old = super.remove(key);
+        if (old != null) {
+            rxSeqs.set(key, null);
+            txSeqs.set(key, null);
+            priorityRxSeqs.set(key, null);
+            priorityTxSeqs.set(key, null);
+            ArrayDB<BTPAddress> arrayDB = reachable.at(key);
+            int size = arrayDB.size();
+            for (int i = 0; i < size; i++) {
+                arrayDB.removeLast();
+            }
+        }
+        return old;
     }
 }
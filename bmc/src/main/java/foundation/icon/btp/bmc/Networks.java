@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.util.Logger;
+import score.ArrayDB;
+import score.Context;
+import score.DictDB;
+
+/**
+ * Registry of Network Address for the earnings of relays in {@link Relays},
+ * each network is assigned a small integer id which is never changed.
+ */
+public class Networks {
+    private static final Logger logger = Logger.getLogger(Networks.class);
+
+    //Map<NetworkAddress, Id>
+    private final DictDB<String, Integer> ids;
+    //List<NetworkAddress>, id is index + 1
+    private final ArrayDB<String> nets;
+
+    public Networks(String id) {
+        ids = Context.newDictDB(id, Integer.class);
+        nets = Context.newArrayDB(id, String.class);
+    }
+
+    /**
+     * Returns the id of the network
+     *
+     * @param net Network Address
+     * @return id, or null if it's not registered
+     */
+    public Integer getId(String net) {
+        return ids.get(net);
+    }
+
+    /**
+     * Returns the id of the network, registers the network if it's not registered.
+     *
+     * @param net Network Address
+     * @return id
+     */
+    public int register(String net) {
+        Integer id = ids.get(net);
+        if (id == null) {
+            nets.add(net);
+            id = nets.size();
+            ids.set(net, id);
+            logger.println("register", net, id);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the Network Address of the id
+     *
+     * @param id id of the network
+     * @return Network Address, or null if it's not registered
+     */
+    public String getNetwork(int id) {
+        return id > 0 && id <= nets.size() ? nets.get(id - 1) : null;
+    }
+
+    public int size() {
+        return nets.size();
+    }
+}
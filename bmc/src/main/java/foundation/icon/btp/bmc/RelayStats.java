@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.ObjectReader;
+import score.ObjectWriter;
+
+/**
+ * Counters of the relay for the link.
+ * Relay Message which is accepted but has no new BTP Message (empty or already parked) is counted as empty.
+ * Rejected Relay Messages are not counted, because the reverted transactions could not be recorded.
+ */
+public class RelayStats {
+    private long relayMessages;
+    private long messages;
+    private long empty;
+    private long lastHeight;
+
+    public RelayStats() {
+    }
+
+    public long getRelayMessages() {
+        return relayMessages;
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getEmpty() {
+        return empty;
+    }
+
+    public long getLastHeight() {
+        return lastHeight;
+    }
+
+    /**
+     * Counts the Relay Message which is accepted at the height
+     *
+     * @param messages number of accepted BTP Messages
+     * @param height   block height
+     */
+    public void count(long messages, long height) {
+        relayMessages++;
+        if (messages > 0) {
+            this.messages += messages;
+        } else {
+            empty++;
+        }
+        lastHeight = height;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("RelayStats{");
+        sb.append("relayMessages=").append(relayMessages);
+        sb.append(", messages=").append(messages);
+        sb.append(", empty=").append(empty);
+        sb.append(", lastHeight=").append(lastHeight);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    public static void writeObject(ObjectWriter writer, RelayStats obj) {
+        obj.writeObject(writer);
+    }
+
+    public static RelayStats readObject(ObjectReader reader) {
+        RelayStats obj = new RelayStats();
+        reader.beginList();
+        obj.relayMessages = reader.readLong();
+        obj.messages = reader.readLong();
+        obj.empty = reader.readLong();
+        obj.lastHeight = reader.readLong();
+        reader.end();
+        return obj;
+    }
+
+    public void writeObject(ObjectWriter writer) {
+        writer.beginList(4);
+        writer.write(relayMessages);
+        writer.write(messages);
+        writer.write(empty);
+        writer.write(lastHeight);
+        writer.end();
+    }
+
+    public static RelayStats fromBytes(byte[] bytes) {
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        return RelayStats.readObject(reader);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        RelayStats.writeObject(writer, this);
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.util.Logger;
+import score.Address;
+import score.ArrayDB;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+import scorex.util.ArrayList;
+import scorex.util.HashMap;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relays of the links, Map&lt;Link, List&lt;Address&gt;&gt; with the index of the list for membership check.
+ * The index of the link registered by the previous version is built by {@link #buildIndex(String)} on migration.
+ * If the turn is set for the link, relays take turns to relay in the order of the list,
+ * each turn lasts for the given number of blocks. If no Relay Message or fragment is accepted
+ * for {@link #graceBlocks(long)} in the turn, any relay of the link is allowed,
+ * so that the link doesn't stall while the relay of the turn is offline.
+ * While the ledger is opened, counters and rewards of the relays are summed in memory
+ * and written once by {@link #flush()}.
+ */
+public class Relays {
+    private static final Logger logger = Logger.getLogger(Relays.class);
+
+    //registry of the networks of the earnings
+    private final Networks networks;
+    //Map<Link, List<Address>>
+    private final BranchDB<String, ArrayDB<Address>> lists;
+    //Map<Link, Map<Address, index + 1>>
+    private final BranchDB<String, DictDB<Address, Integer>> indexes;
+    //Map<Link, number of blocks of the turn>
+    private final DictDB<String, Long> turnBlocks;
+    //Map<Link, height where the last Relay Message or fragment is accepted>, only for the link which has the turn
+    private final DictDB<String, Long> lastRelayed;
+    //Map<Link, Map<Address, RelayStats>>
+    private final BranchDB<String, DictDB<Address, RelayStats>> stats;
+    //Map<Link, Map<Address, Map<NetworkId, Amount>>>
+    private final BranchDB<String, BranchDB<Address, DictDB<Integer, BigInteger>>> earned;
+
+    //only available between beginLedger and endLedger
+    private String ledgerLink;
+    private Map<Address, RelayStats> ledgerStats;
+    private Map<Address, Map<String, BigInteger>> ledgerEarned;
+    private List<Address> addresses;
+    private Map<String, Integer> netIds;
+
+    public Relays(String id) {
+        networks = new Networks(id + "|networks");
+        lists = Context.newBranchDB(id, Address.class);
+        indexes = Context.newBranchDB(id + "|index", Integer.class);
+        turnBlocks = Context.newDictDB(id + "|turnBlocks", Long.class);
+        lastRelayed = Context.newDictDB(id + "|lastRelayed", Long.class);
+        stats = Context.newBranchDB(id + "|stats", RelayStats.class);
+        earned = Context.newBranchDB(id + "|earned", BigInteger.class);
+    }
+
+    public int size(String link) {
+        return lists.at(link).size();
+    }
+
+    public Address get(String link, int i) {
+        return lists.at(link).get(i);
+    }
+
+    public int indexOf(String link, Address addr) {
+        return indexes.at(link).getOrDefault(addr, 0) - 1;
+    }
+
+    public boolean contains(String link, Address addr) {
+        return indexOf(link, addr) >= 0;
+    }
+
+    /**
+     * Builds the index of the relays of the link, which is registered by the previous version.
+     */
+    public void buildIndex(String link) {
+        ArrayDB<Address> arrayDB = lists.at(link);
+        DictDB<Address, Integer> dictDB = indexes.at(link);
+        int size = arrayDB.size();
+        for (int i = 0; i < size; i++) {
+            dictDB.set(arrayDB.get(i), i + 1);
+        }
+        logger.println("buildIndex", link, size);
+    }
+
+    /**
+     * @return false if it already exists
+     */
+    public boolean add(String link, Address addr) {
+        DictDB<Address, Integer> dictDB = indexes.at(link);
+        if (dictDB.get(addr) != null) {
+            return false;
+        }
+        ArrayDB<Address> arrayDB = lists.at(link);
+        arrayDB.add(addr);
+        dictDB.set(addr, arrayDB.size());
+        return true;
+    }
+
+    /**
+     * @return false if it doesn't exist
+     */
+    public boolean remove(String link, Address addr) {
+        DictDB<Address, Integer> dictDB = indexes.at(link);
+        Integer idx = dictDB.get(addr);
+        if (idx == null) {
+            return false;
+        }
+        ArrayDB<Address> arrayDB = lists.at(link);
+        Address last = arrayDB.pop();
+        if (!last.equals(addr)) {
+            arrayDB.set(idx - 1, last);
+            dictDB.set(last, idx);
+        }
+        dictDB.set(addr, null);
+        return true;
+    }
+
+    /**
+     * Removes all relays and the turn of the link.
+     *
+     * @return removed relays
+     */
+    public Address[] clear(String link) {
+        ArrayDB<Address> arrayDB = lists.at(link);
+        DictDB<Address, Integer> dictDB = indexes.at(link);
+        Address[] arr = new Address[arrayDB.size()];
+        for (int i = arr.length - 1; i >= 0; i--) {
+            arr[i] = arrayDB.pop();
+            dictDB.set(arr[i], null);
+        }
+        turnBlocks.set(link, null);
+        lastRelayed.set(link, null);
+        return arr;
+    }
+
+    public Address[] toArray(String link) {
+        return toArray(link, 0, size(link));
+    }
+
+    public Address[] toArray(String link, int offset, int limit) {
+        ArrayDB<Address> arrayDB = lists.at(link);
+        int size = arrayDB.size();
+        int len = offset < size ? Math.min(limit, size - offset) : 0;
+        Address[] arr = new Address[len];
+        for (int i = 0; i < len; i++) {
+            arr[i] = arrayDB.get(offset + i);
+        }
+        return arr;
+    }
+
+    public long getTurnBlocks(String link) {
+        return turnBlocks.getOrDefault(link, 0L);
+    }
+
+    public void setTurnBlocks(String link, long blocks) {
+        turnBlocks.set(link, blocks > 0 ? blocks : null);
+        if (blocks <= 0) {
+            lastRelayed.set(link, null);
+        }
+    }
+
+    /**
+     * Returns the number of blocks without accepted Relay Message after which any relay is allowed in the turn
+     */
+    static long graceBlocks(long blocks) {
+        return Math.max(1, blocks / 2);
+    }
+
+    /**
+     * Records the height where the Relay Message or fragment is accepted, only for the link which has the turn.
+     */
+    public void relayed(String link, long height) {
+        lastRelayed.set(link, height);
+    }
+
+    /**
+     * Returns the height from which any relay is allowed in the turn at the height
+     *
+     * @return height, or zero if the turn is not set
+     */
+    public long getFallback(String link, long height) {
+        return fallback(link, height, getTurnBlocks(link));
+    }
+
+    private long fallback(String link, long height, long blocks) {
+        if (blocks <= 0) {
+            return 0;
+        }
+        return Math.max(height - height % blocks, lastRelayed.getOrDefault(link, 0L)) + graceBlocks(blocks);
+    }
+
+    /**
+     * Returns the relay whose turn is at the height
+     *
+     * @return address of the relay, or null if the turn is not set or there is no relay
+     */
+    public Address getTurn(String link, long height) {
+        return turn(link, height, getTurnBlocks(link));
+    }
+
+    private Address turn(String link, long height, long blocks) {
+        int size;
+        if (blocks <= 0 || (size = size(link)) == 0) {
+            return null;
+        }
+        return get(link, (int) ((height / blocks) % size));
+    }
+
+    /**
+     * Returns whether the relay of the link is allowed to relay at the height,
+     * the relay of the turn, or any relay of the link from the fallback height.
+     * The membership of the relay is not checked, it must be checked before.
+     *
+     * @param blocks number of blocks of the turn, it must be positive
+     */
+    public boolean isTurn(String link, Address addr, long height, long blocks) {
+        Address turn = turn(link, height, blocks);
+        return turn == null || turn.equals(addr) || height >= fallback(link, height, blocks);
+    }
+
+    public RelayStats getStats(String link, Address addr) {
+        RelayStats relayStats = stats.at(link).get(addr);
+        return relayStats == null ? new RelayStats() : relayStats;
+    }
+
+    /**
+     * Returns the earnings of the relay for each network, the network without earnings is not included.
+     */
+    public Map<String, BigInteger> getEarned(String link, Address addr) {
+        DictDB<Integer, BigInteger> dictDB = earned.at(link).at(addr);
+        Map<String, BigInteger> map = new HashMap<>();
+        for (int netId = networks.size(); netId > 0; netId--) {
+            BigInteger amount = dictDB.getOrDefault(netId, BigInteger.ZERO);
+            if (amount.compareTo(BigInteger.ZERO) > 0) {
+                map.put(networks.getNetwork(netId), amount);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Begins to sum counters and rewards of the relays for the link in memory.
+     */
+    public void beginLedger(String link) {
+        ledgerLink = link;
+        ledgerStats = new HashMap<>();
+        ledgerEarned = new HashMap<>();
+        addresses = new ArrayList<>();
+        netIds = new HashMap<>();
+    }
+
+    private RelayStats ledgerStats(Address addr) {
+        RelayStats relayStats = ledgerStats.get(addr);
+        if (relayStats == null) {
+            relayStats = getStats(ledgerLink, addr);
+            ledgerStats.put(addr, relayStats);
+            ledgerEarned.put(addr, new HashMap<>());
+            addresses.add(addr);
+        }
+        return relayStats;
+    }
+
+    /**
+     * Counts the Relay Message which is accepted, ignored if the ledger is not opened.
+     */
+    public void count(Address addr, long messages) {
+        if (ledgerLink != null) {
+            ledgerStats(addr).count(messages, Context.getBlockHeight());
+        }
+    }
+
+    /**
+     * Sums the reward of the relay, ignored if the ledger is not opened.
+     */
+    public void credit(Address addr, String net, BigInteger amount) {
+        if (ledgerLink == null || amount == null || amount.compareTo(BigInteger.ZERO) <= 0) {
+            return;
+        }
+        ledgerStats(addr);
+        Map<String, BigInteger> credits = ledgerEarned.get(addr);
+        BigInteger credit = credits.get(net);
+        credits.put(net, credit == null ? amount : credit.add(amount));
+    }
+
+    private int register(String net) {
+        Integer netId = netIds.get(net);
+        if (netId == null) {
+            netId = networks.register(net);
+            netIds.put(net, netId);
+        }
+        return netId;
+    }
+
+    /**
+     * Writes summed counters and rewards, each relay is written once.
+     */
+    public void flush() {
+        if (ledgerLink == null) {
+            return;
+        }
+        for (Address addr : addresses) {
+            stats.at(ledgerLink).set(addr, ledgerStats.get(addr));
+            DictDB<Integer, BigInteger> dictDB = earned.at(ledgerLink).at(addr);
+            for (Map.Entry<String, BigInteger> entry : ledgerEarned.get(addr).entrySet()) {
+                int netId = register(entry.getKey());
+                dictDB.set(netId, entry.getValue().add(dictDB.getOrDefault(netId, BigInteger.ZERO)));
+            }
+        }
+        ledgerStats.clear();
+        ledgerEarned.clear();
+        addresses.clear();
+    }
+
+    /**
+     * Ends the ledger without writing, {@link #flush()} must be called before if it needs.
+     */
+    public void endLedger() {
+        ledgerLink = null;
+        ledgerStats = null;
+        ledgerEarned = null;
+        addresses = null;
+        netIds = null;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.data.EnumerableDictDB;
+import foundation.icon.score.util.Logger;
+import score.Address;
+import score.Context;
+import score.DictDB;
+import scorex.util.ArrayList;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Buffer of verified BTP Messages which are ahead of the rxSeq of the link.
+ * Each message is stored as [address of relay(21 bytes), serialized BTPMessage],
+ * and dispatched when the messages before it are received.
+ * The buffer of the link is enabled by setting the capacity, and a message is rejected
+ * if the buffer is full or its sequence is out of the window from the rxSeq.
+ * The buffer is on the normal lane only, see foundation.icon.btp.lib.Lanes.
+ * The parked messages are enumerable, so that removing them is bounded by the number of them
+ * instead of the distance of the sequences.
+ */
+public class ReorderBuffer {
+    private static final Logger logger = Logger.getLogger(ReorderBuffer.class);
+    static final int ADDRESS_LEN = 21;
+
+    private final String id;
+    private final DictDB<String, Integer> capacities;
+    private final DictDB<String, BigInteger> windows;
+    private final DictDB<String, Boolean> events;
+
+    public ReorderBuffer(String id) {
+        this.id = id;
+        capacities = Context.newDictDB(id + "|capacity", Integer.class);
+        windows = Context.newDictDB(id + "|window", BigInteger.class);
+        events = Context.newDictDB(id + "|events", Boolean.class);
+    }
+
+    public static class Entry {
+        private final BigInteger seq;
+        private final Address relay;
+        private final byte[] msg;
+
+        public Entry(BigInteger seq, Address relay, byte[] msg) {
+            this.seq = seq;
+            this.relay = relay;
+            this.msg = msg;
+        }
+
+        public BigInteger getSeq() {
+            return seq;
+        }
+
+        public Address getRelay() {
+            return relay;
+        }
+
+        public byte[] getMsg() {
+            return msg;
+        }
+    }
+
+    static byte[] record(Address relay, byte[] msg) {
+        byte[] b = new byte[ADDRESS_LEN + msg.length];
+        System.arraycopy(relay.toByteArray(), 0, b, 0, ADDRESS_LEN);
+        System.arraycopy(msg, 0, b, ADDRESS_LEN, msg.length);
+        return b;
+    }
+
+    static Entry entry(BigInteger seq, byte[] record) {
+        byte[] addr = new byte[ADDRESS_LEN];
+        byte[] msg = new byte[record.length - ADDRESS_LEN];
+        System.arraycopy(record, 0, addr, 0, ADDRESS_LEN);
+        System.arraycopy(record, ADDRESS_LEN, msg, 0, msg.length);
+        return new Entry(seq, new Address(addr), msg);
+    }
+
+    //Map<Sequence, Record> of the link
+    private EnumerableDictDB<BigInteger, byte[]> records(String link) {
+        return new EnumerableDictDB<>(EnumerableDictDB.concatId(id, link), BigInteger.class, byte[].class);
+    }
+
+    public boolean isEnabled(String link) {
+        return getCapacity(link) > 0;
+    }
+
+    public int getCapacity(String link) {
+        return capacities.getOrDefault(link, 0);
+    }
+
+    public BigInteger getWindow(String link) {
+        return windows.getOrDefault(link, BigInteger.ZERO);
+    }
+
+    public boolean isEventEnabled(String link) {
+        return events.getOrDefault(link, false);
+    }
+
+    public int size(String link) {
+        return records(link).size();
+    }
+
+    public void configure(String link, int capacity, BigInteger window, boolean event) {
+        capacities.set(link, capacity > 0 ? capacity : null);
+        windows.set(link, capacity > 0 ? window : null);
+        events.set(link, capacity > 0 && event ? Boolean.TRUE : null);
+    }
+
+    /**
+     * Parks the messages which are following the seq.
+     * The messages which are not ahead of rxSeq or already parked are ignored.
+     *
+     * @param link  BTP Address of the link
+     * @param rxSeq rxSeq of the link
+     * @param seq   sequence before the first message
+     * @param relay address of the relay
+     * @param msgs  serialized BTPMessages
+     * @return list of [first, last] sequences of the parked messages, each range is continuous
+     */
+    public List<BigInteger[]> park(String link, BigInteger rxSeq, BigInteger seq, Address relay, byte[][] msgs) {
+        int capacity = getCapacity(link);
+        BigInteger limit = rxSeq.add(getWindow(link));
+        EnumerableDictDB<BigInteger, byte[]> records = records(link);
+        int size = records.size();
+        List<BigInteger[]> ranges = new ArrayList<>();
+        BigInteger[] range = null;
+        for (byte[] msg : msgs) {
+            seq = seq.add(BigInteger.ONE);
+            if (seq.compareTo(rxSeq) <= 0 || records.containsKey(seq)) {
+                continue;
+            }
+            if (seq.compareTo(limit) > 0) {
+                throw BMCException.unknown("out of reorder window");
+            }
+            if (size >= capacity) {
+                throw BMCException.unknown("reorder buffer is full");
+            }
+            records.put(seq, record(relay, msg));
+            size++;
+            if (range != null && range[1].add(BigInteger.ONE).equals(seq)) {
+                range[1] = seq;
+            } else {
+                range = new BigInteger[]{seq, seq};
+                ranges.add(range);
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Removes the parked messages in (from, to], because they are received.
+     * It walks the sequences if they are fewer than the parked messages, otherwise the parked messages.
+     */
+    public void evict(String link, BigInteger from, BigInteger to) {
+        EnumerableDictDB<BigInteger, byte[]> records = records(link);
+        int size = records.size();
+        if (size == 0) {
+            return;
+        }
+        if (to.subtract(from).compareTo(BigInteger.valueOf(size)) <= 0) {
+            for (BigInteger seq = from.add(BigInteger.ONE); seq.compareTo(to) <= 0 && size > 0; seq = seq.add(BigInteger.ONE)) {
+                if (records.remove(seq) != null) {
+                    size--;
+                }
+            }
+            return;
+        }
+        //the last one is moved to the removed one, which is already checked
+        for (int i = size - 1; i >= 0; i--) {
+            BigInteger seq = records.getKey(i);
+            if (seq.compareTo(from) > 0 && seq.compareTo(to) <= 0) {
+                records.remove(seq);
+            }
+        }
+    }
+
+    /**
+     * Takes the parked messages following rxSeq continuously.
+     *
+     * @param link  BTP Address of the link
+     * @param rxSeq rxSeq of the link
+     * @return list of Entry
+     */
+    public List<Entry> drain(String link, BigInteger rxSeq) {
+        List<Entry> list = new ArrayList<>();
+        EnumerableDictDB<BigInteger, byte[]> records = records(link);
+        int size = records.size();
+        BigInteger seq = rxSeq.add(BigInteger.ONE);
+        byte[] record;
+        while (size > 0 && (record = records.remove(seq)) != null) {
+            list.add(entry(seq, record));
+            size--;
+            seq = seq.add(BigInteger.ONE);
+        }
+        return list;
+    }
+
+    /**
+     * Removes all parked messages of the link.
+     */
+    public void reset(String link, BigInteger rxSeq) {
+        EnumerableDictDB<BigInteger, byte[]> records = records(link);
+        int size = records.size();
+        if (size > 0) {
+            records.clear();
+            logger.println("reset", link, "size:", size);
+        }
+    }
+
+    /**
+     * Removes all parked messages and the configuration of the link.
+     */
+    public void clear(String link, BigInteger rxSeq) {
+        reset(link, rxSeq);
+        configure(link, 0, null, false);
+        logger.println("clear", link);
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import foundation.icon.score.util.Logger;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+import score.VarDB;
+
+import java.math.BigInteger;
+
+/**
+ * ResponseInfo of the requests to reply, Map&lt;SourceNetwork, Map&lt;Service, Map&lt;SerialNumber, ResponseInfo&gt;&gt;&gt;
+ * The requests from the same source carry the same FeeInfo until the fee table of the source is changed,
+ * so FeeInfo is interned for each source network with a version which is increased when a new one is given,
+ * and FeeInfo given before reuses its version which is looked up by the hash.
+ * ResponseInfo is stored as a record of [stored height(8 bytes), version(1 byte), nsn],
+ * or [stored height(8 bytes), zero(1 byte), serialized ResponseInfo] if FeeInfo is not interned,
+ * because it's null or the versions of the source reach {@link #MAX_FEE_VERSION} before it's given.
+ * The record which is stored before the expiry blocks could be pruned.
+ * ResponseInfo stored by the previous version is read until {@link #finishLegacy()} is called.
+ */
+public class ResponseInfos {
+    private static final Logger logger = Logger.getLogger(ResponseInfos.class);
+    static final int HEIGHT_LEN = 8;
+    static final int HEADER_LEN = HEIGHT_LEN + 1;
+    static final int MAX_FEE_VERSION = 0xff;
+    static final int PRUNE_LIMIT = 128;
+
+    //Map<SourceNetwork, Map<Service, Map<SerialNumber, Record>>>
+    private final BranchDB<String, BranchDB<String, DictDB<BigInteger, byte[]>>> records;
+    //Map<SourceNetwork, Map<Version, serialized FeeInfo>>
+    private final BranchDB<String, DictDB<Integer, byte[]>> feeInfos;
+    //Map<SourceNetwork, Map<hash of serialized FeeInfo, Version>>
+    private final BranchDB<String, DictDB<byte[], Integer>> feeVersions;
+    //Map<SourceNetwork, number of versions>
+    private final DictDB<String, Integer> feeVersionCounts;
+    //Map<SourceNetwork, [version(1 byte), serialized FeeInfo]>, the latest one
+    private final DictDB<String, byte[]> latestFeeInfos;
+    private final VarDB<Long> expiry;
+    //stored by the previous version
+    private final BranchDB<String, BranchDB<String, DictDB<BigInteger, ResponseInfo>>> legacy;
+    private final VarDB<Boolean> legacyFinished;
+
+    public ResponseInfos(String id, String legacyId) {
+        records = Context.newBranchDB(id, byte[].class);
+        feeInfos = Context.newBranchDB(id + "|feeInfos", byte[].class);
+        feeVersions = Context.newBranchDB(id + "|feeVersions", Integer.class);
+        feeVersionCounts = Context.newDictDB(id + "|feeVersionCounts", Integer.class);
+        latestFeeInfos = Context.newDictDB(id + "|latestFeeInfo", byte[].class);
+        expiry = Context.newVarDB(id + "|expiry", Long.class);
+        legacy = Context.newBranchDB(legacyId, ResponseInfo.class);
+        legacyFinished = Context.newVarDB(id + "|legacyFinished", Boolean.class);
+    }
+
+    /**
+     * Stops reading ResponseInfo stored by the previous version,
+     * call it after all of them are handled or pruned.
+     */
+    public void finishLegacy() {
+        legacyFinished.set(true);
+    }
+
+    public boolean isLegacyFinished() {
+        return legacyFinished.getOrDefault(false);
+    }
+
+    public long getExpiry() {
+        return expiry.getOrDefault(0L);
+    }
+
+    public void setExpiry(long blocks) {
+        expiry.set(blocks > 0 ? blocks : null);
+    }
+
+    /**
+     * @param version version of FeeInfo, zero if the body is serialized ResponseInfo
+     */
+    static byte[] record(long height, int version, byte[] body) {
+        byte[] b = new byte[HEADER_LEN + body.length];
+        for (int i = HEIGHT_LEN - 1; i >= 0; i--, height >>>= 8) {
+            b[i] = (byte) height;
+        }
+        b[HEIGHT_LEN] = (byte) version;
+        System.arraycopy(body, 0, b, HEADER_LEN, body.length);
+        return b;
+    }
+
+    static byte[] record(long height, int version, BigInteger nsn) {
+        return record(height, version, nsn.toByteArray());
+    }
+
+    static byte[] record(long height, ResponseInfo responseInfo) {
+        return record(height, 0, responseInfo.toBytes());
+    }
+
+    static long heightOf(byte[] record) {
+        long height = 0;
+        for (int i = 0; i < HEIGHT_LEN; i++) {
+            height = (height << 8) | (record[i] & 0xff);
+        }
+        return height;
+    }
+
+    static int versionOf(byte[] record) {
+        return record[HEIGHT_LEN] & 0xff;
+    }
+
+    static byte[] bodyOf(byte[] record) {
+        byte[] body = new byte[record.length - HEADER_LEN];
+        System.arraycopy(record, HEADER_LEN, body, 0, body.length);
+        return body;
+    }
+
+    private ResponseInfo toResponseInfo(String src, byte[] record) {
+        int version = versionOf(record);
+        byte[] body = bodyOf(record);
+        if (version == 0) {
+            return ResponseInfo.fromBytes(body);
+        }
+        return new ResponseInfo(new BigInteger(body), FeeInfo.fromBytes(feeInfos.at(src).get(version)));
+    }
+
+    private static boolean isLatest(byte[] latest, byte[] info) {
+        if (latest.length != info.length + 1) {
+            return false;
+        }
+        for (int i = 0; i < info.length; i++) {
+            if (latest[i + 1] != info[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setLatest(String src, int version, byte[] info) {
+        byte[] b = new byte[info.length + 1];
+        b[0] = (byte) version;
+        System.arraycopy(info, 0, b, 1, info.length);
+        latestFeeInfos.set(src, b);
+    }
+
+    /**
+     * Returns the version of FeeInfo, registers it as the latest one if it's changed.
+     * The latest one is compared without hashing, because most of the requests carry it.
+     *
+     * @return version, or zero if the versions of the source reach {@link #MAX_FEE_VERSION}
+     */
+    private int intern(String src, FeeInfo feeInfo) {
+        byte[] info = feeInfo.toBytes();
+        byte[] latest = latestFeeInfos.get(src);
+        int count = 0;
+        if (latest != null) {
+            if (isLatest(latest, info)) {
+                return latest[0] & 0xff;
+            }
+            //the latest one was always the last version before the versions are looked up by the hash
+            count = feeVersionCounts.getOrDefault(src, latest[0] & 0xff);
+        }
+        byte[] hash = Context.hash("sha3-256", info);
+        DictDB<byte[], Integer> versions = feeVersions.at(src);
+        Integer version = versions.get(hash);
+        if (version != null) {
+            setLatest(src, version, info);
+            return version;
+        }
+        if (count >= MAX_FEE_VERSION) {
+            return 0;
+        }
+        count++;
+        feeInfos.at(src).set(count, info);
+        versions.set(hash, count);
+        feeVersionCounts.set(src, count);
+        setLatest(src, count, info);
+        logger.println("intern", src, count, feeInfo);
+        return count;
+    }
+
+    /**
+     * Removes ResponseInfo stored by the previous version.
+     *
+     * @return removed ResponseInfo, or null if it doesn't exist or reading it is finished
+     */
+    private ResponseInfo removeLegacy(String src, String svc, BigInteger sn) {
+        if (isLegacyFinished()) {
+            return null;
+        }
+        DictDB<BigInteger, ResponseInfo> legacyDictDB = legacy.at(src).at(svc);
+        ResponseInfo old = legacyDictDB.get(sn);
+        if (old != null) {
+            legacyDictDB.set(sn, null);
+        }
+        return old;
+    }
+
+    public ResponseInfo get(String src, String svc, BigInteger sn) {
+        byte[] record = records.at(src).at(svc).get(sn);
+        if (record != null) {
+            return toResponseInfo(src, record);
+        }
+        return isLegacyFinished() ? null : legacy.at(src).at(svc).get(sn);
+    }
+
+    public void put(String src, String svc, BigInteger sn, ResponseInfo responseInfo) {
+        long height = Context.getBlockHeight();
+        FeeInfo feeInfo = responseInfo.getFeeInfo();
+        int version = feeInfo == null ? 0 : intern(src, feeInfo);
+        records.at(src).at(svc).set(sn, version == 0 ?
+                record(height, responseInfo) : record(height, version, responseInfo.getNsn()));
+    }
+
+    public ResponseInfo remove(String src, String svc, BigInteger sn) {
+        DictDB<BigInteger, byte[]> dictDB = records.at(src).at(svc);
+        byte[] record = dictDB.get(sn);
+        if (record != null) {
+            dictDB.set(sn, null);
+            return toResponseInfo(src, record);
+        }
+        return removeLegacy(src, svc, sn);
+    }
+
+    /**
+     * Removes ResponseInfo if it's expired.
+     * ResponseInfo stored by the previous version is regarded as expired.
+     *
+     * @return removed ResponseInfo, or null if it doesn't exist or not expired
+     */
+    public ResponseInfo prune(String src, String svc, BigInteger sn) {
+        long blocks = getExpiry();
+        if (blocks <= 0) {
+            return null;
+        }
+        DictDB<BigInteger, byte[]> dictDB = records.at(src).at(svc);
+        byte[] record = dictDB.get(sn);
+        if (record != null) {
+            if (heightOf(record) + blocks >= Context.getBlockHeight()) {
+                return null;
+            }
+            dictDB.set(sn, null);
+            logger.println("prune", src, svc, sn);
+            return toResponseInfo(src, record);
+        }
+        ResponseInfo old = removeLegacy(src, svc, sn);
+        if (old != null) {
+            logger.println("prune", src, svc, sn, "legacy");
+        }
+        return old;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import score.Address;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+import scorex.util.ArrayList;
+import scorex.util.HashMap;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewards of relays and BMC, Map&lt;Address, Map&lt;Network, Amount&gt;&gt;
+ * While the ledger is opened, credits are summed in memory by (address, network)
+ * and each of them is written once by {@link #flush()}.
+ */
+public class Rewards {
+    private final BranchDB<Address, DictDB<String, BigInteger>> rewards;
+
+    //credits not yet written, only available between beginLedger and endLedger
+    private Map<Address, Map<String, BigInteger>> ledger;
+    private List<Address> addresses;
+
+    public Rewards(String id) {
+        rewards = Context.newBranchDB(id, BigInteger.class);
+    }
+
+    public BigInteger get(Address addr, String net) {
+        BigInteger reward = rewards.at(addr).getOrDefault(net, BigInteger.ZERO);
+        if (ledger != null) {
+            Map<String, BigInteger> credits = ledger.get(addr);
+            if (credits != null) {
+                BigInteger credit = credits.get(net);
+                if (credit != null) {
+                    reward = reward.add(credit);
+                }
+            }
+        }
+        return reward;
+    }
+
+    public void add(Address addr, String net, BigInteger amount) {
+        if (amount == null || amount.compareTo(BigInteger.ZERO) <= 0) {
+            return;
+        }
+        if (ledger == null) {
+            DictDB<String, BigInteger> dictDB = rewards.at(addr);
+            dictDB.set(net, amount.add(dictDB.getOrDefault(net, BigInteger.ZERO)));
+            return;
+        }
+        Map<String, BigInteger> credits = ledger.get(addr);
+        if (credits == null) {
+            credits = new HashMap<>();
+            ledger.put(addr, credits);
+            addresses.add(addr);
+        }
+        BigInteger credit = credits.get(net);
+        credits.put(net, credit == null ? amount : credit.add(amount));
+    }
+
+    /**
+     * Clears the reward including credits not yet written.
+     */
+    public void clear(Address addr, String net) {
+        rewards.at(addr).set(net, BigInteger.ZERO);
+        if (ledger != null) {
+            Map<String, BigInteger> credits = ledger.get(addr);
+            if (credits != null) {
+                credits.remove(net);
+            }
+        }
+    }
+
+    /**
+     * Begins to sum credits in memory.
+     */
+    public void beginLedger() {
+        ledger = new HashMap<>();
+        addresses = new ArrayList<>();
+    }
+
+    /**
+     * Writes summed credits, each (address, network) is written once.
+     */
+    public void flush() {
+        if (ledger == null) {
+            return;
+        }
+        for (Address addr : addresses) {
+            DictDB<String, BigInteger> dictDB = rewards.at(addr);
+            for (Map.Entry<String, BigInteger> entry : ledger.get(addr).entrySet()) {
+                String net = entry.getKey();
+                dictDB.set(net, entry.getValue().add(dictDB.getOrDefault(net, BigInteger.ZERO)));
+            }
+        }
+        ledger.clear();
+        addresses.clear();
+    }
+
+    /**
+     * Ends the ledger without writing, {@link #flush()} must be called before if it needs.
+     */
+    public void endLedger() {
+        ledger = null;
+        addresses = null;
+    }
+}
@@ -187,6 +187,42 @@ public class EnumerableDictDB<K, V> {
         return values;
     }
 
+    protected int pageEnd(int offset, int limit) {
+        return pageEnd(size(), offset, limit);
+    }
+
+    /**
+     * Returns the end of the page [offset, offset + limit) in the enumeration of the size.
+     */
+    static int pageEnd(int size, int offset, int limit) {
+        return offset < size ? offset + Math.min(limit, size - offset) : offset;
+    }
+
+    /**
+     * Returns the values in [offset, offset + limit) of the enumeration.
+     */
+    public List<V> values(int offset, int limit) {
+        ArrayList<V> values = new ArrayList<>();
+        int end = pageEnd(offset, limit);
+        for (int i = offset; i < end; i++) {
+            values.add(getValue(i));
+        }
+        return values;
+    }
+
+    /**
+     * Returns the entries in [offset, offset + limit) of the enumeration.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Map<K, V> toMap(int offset, int limit) {
+        int end = pageEnd(offset, limit);
+        Map.Entry[] entries = new Map.Entry[end - offset];
+        for (int i = offset; i < end; i++) {
+            entries[i - offset] = Map.entry(getKey(i), getValue(i));
+        }
+        return Map.ofEntries(entries);
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     public Map<K, V> toMap() {
         int size = size();
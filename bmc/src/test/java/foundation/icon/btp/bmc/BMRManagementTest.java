@@ -119,6 +119,17 @@ public class BMRManagementTest implements BMCIntegrationTest {
                 BTPIntegrationTest.Faker.btpLink().toString(), address));
     }
 
+    @Test
+    void setRelayTurnShouldRevertNotExistsLink() {
+        AssertBMCException.assertNotExistsLink(() -> iconSpecific.setRelayTurn(
+                BTPIntegrationTest.Faker.btpLink().toString(), 1));
+    }
+
+    @Test
+    void setRelayTurnShouldRevertInvalidBlocks() {
+        AssertBMCException.assertUnknown(() -> iconSpecific.setRelayTurn(link, -1));
+    }
+
     @Disabled("readonly call revert test")
     @Test
     void getRelaysShouldRevertNotExistsLink() {
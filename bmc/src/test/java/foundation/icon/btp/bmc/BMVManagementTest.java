@@ -74,6 +74,16 @@ public class BMVManagementTest implements BMCIntegrationTest {
         AssertBMCException.assertAlreadyExistsBMV(() -> addVerifier(net, address));
     }
 
+    @Test
+    void addVerifierShouldIncreaseConfigVersion() {
+        long version = iconSpecific.getConfigVersion();
+        addVerifier(net, address);
+        assertTrue(iconSpecific.getConfigVersion() > version);
+        assertTrue(ScoreIntegrationTest.contains(
+                iconSpecific.getVerifiersPage(0, bmc.getVerifiers().size()),
+                net, (o) -> address.toString().equals(o)));
+    }
+
     @Test
     void removeVerifierShouldSuccess() {
         addVerifier(net, address);
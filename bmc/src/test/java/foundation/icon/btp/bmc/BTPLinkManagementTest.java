@@ -110,6 +110,16 @@ public class BTPLinkManagementTest implements BMCIntegrationTest {
         AssertBMCException.assertUnknown(() -> iconSpecific.setBTPLinkNetworkId(link, 0));
     }
 
+    @Test
+    void setBTPLinkNetworkIdShouldRevertIfLanesEnabled() {
+        LinkManagementTest.addLink(link);
+        iconSpecific.setLanes(link, true);
+
+        long networkId = MockGovIntegrationTest.openBTPNetwork(networkTypeName, link, bmc._address());
+        AssertBMCException.assertUnknown(() -> iconSpecific.setBTPLinkNetworkId(link, networkId));
+        assertEquals(0, iconSpecific.getBTPLinkNetworkId(link));
+    }
+
     @Test
     void setBTPLinkNetworkIdShouldRevertDuplicatedNetworkId() {
         long networkId = MockGovIntegrationTest.openBTPNetwork(networkTypeName, link, bmc._address());
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import com.iconloop.score.test.TestBase;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BTPMessageTest extends TestBase {
+
+    static BTPMessage btpMessage(int payloadLen, FeeInfo feeInfo) {
+        BTPMessage msg = new BTPMessage();
+        msg.setSrc("0x1.icon");
+        msg.setDst("0x2.eth2");
+        msg.setSvc("svc");
+        msg.setSn(BigInteger.ONE);
+        msg.setPayload(new byte[payloadLen]);
+        msg.setNsn(BigInteger.TEN);
+        msg.setFeeInfo(feeInfo);
+        return msg;
+    }
+
+    static FeeInfo feeInfo(int len) {
+        BigInteger[] values = new BigInteger[len];
+        for (int i = 0; i < len; i++) {
+            values[i] = BigInteger.valueOf(1000L * (i + 1));
+        }
+        return new FeeInfo("0x1.icon", values);
+    }
+
+    static void assertView(byte[] bytes) {
+        byte[] expected = BTPMessage.fromBytes(bytes).toBytes();
+        assertArrayEquals(expected, BTPMessage.view(bytes).toBytes());
+        assertArrayEquals(bytes, expected);
+    }
+
+    @Test
+    void viewShouldKeepShortList() {
+        byte[] bytes = btpMessage(0, feeInfo(1)).toBytes();
+        assertTrue(bytes.length <= 55);
+        assertView(bytes);
+    }
+
+    @Test
+    void viewShouldKeepLongList() {
+        byte[] bytes = btpMessage(100, feeInfo(2)).toBytes();
+        assertTrue(bytes.length > 55);
+        assertView(bytes);
+        //payload longer than 55 bytes
+        assertView(btpMessage(300, feeInfo(2)).toBytes());
+    }
+
+    @Test
+    void viewShouldKeepNullFeeInfo() {
+        assertView(btpMessage(0, null).toBytes());
+        assertView(btpMessage(100, null).toBytes());
+    }
+
+    static void accumulateFee(FeeInfo feeInfo) {
+        BigInteger[] values = feeInfo.getValues();
+        BigInteger[] next = new BigInteger[values.length - 1];
+        System.arraycopy(values, 1, next, 0, next.length);
+        feeInfo.setValues(next);
+    }
+
+    @Test
+    void viewShouldWriteAccumulatedFee() {
+        for (int payloadLen : new int[]{0, 100}) {
+            byte[] bytes = btpMessage(payloadLen, feeInfo(3)).toBytes();
+            BTPMessage expected = BTPMessage.fromBytes(bytes);
+            accumulateFee(expected.getFeeInfo());
+            BTPMessage view = BTPMessage.view(bytes);
+            accumulateFee(view.getFeeInfo());
+            assertArrayEquals(expected.toBytes(), view.toBytes());
+
+            //fee list becomes shorter than the list header of the original
+            accumulateFee(expected.getFeeInfo());
+            accumulateFee(view.getFeeInfo());
+            accumulateFee(expected.getFeeInfo());
+            accumulateFee(view.getFeeInfo());
+            assertArrayEquals(expected.toBytes(), view.toBytes());
+        }
+    }
+
+    @Test
+    void viewShouldWriteAfterDetached() {
+        byte[] bytes = btpMessage(100, feeInfo(2)).toBytes();
+        BTPMessage expected = BTPMessage.fromBytes(bytes);
+        expected.setSn(BigInteger.TWO);
+        BTPMessage view = BTPMessage.view(bytes);
+        view.setSn(BigInteger.TWO);
+        assertArrayEquals(expected.toBytes(), view.toBytes());
+
+        expected = BTPMessage.fromBytes(bytes);
+        expected.setPayload(new byte[10]);
+        view = BTPMessage.view(bytes);
+        view.setPayload(new byte[10]);
+        assertArrayEquals(expected.toBytes(), view.toBytes());
+    }
+}
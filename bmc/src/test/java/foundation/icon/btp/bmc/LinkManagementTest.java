@@ -27,6 +27,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInfo;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -166,6 +167,14 @@ public class LinkManagementTest implements BMCIntegrationTest {
                 () -> removeLink(link));
     }
 
+    @Test
+    void setLanesShouldRevertIfReorderBufferEnabled() {
+        addLink(link);
+        iconSpecific.setReorderBuffer(link, 1, BigInteger.ONE, false);
+
+        AssertBMCException.assertUnknown(() -> iconSpecific.setLanes(link, true));
+    }
+
     @Test
     void removeLinkShouldClearRelays() {
         addLink(link);
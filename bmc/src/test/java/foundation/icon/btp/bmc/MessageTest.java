@@ -16,14 +16,19 @@
 
 package foundation.icon.btp.bmc;
 
+import foundation.icon.btp.lib.BMCScoreClient;
 import foundation.icon.btp.lib.BTPAddress;
 import foundation.icon.btp.lib.BTPException;
+import foundation.icon.btp.lib.Lanes;
+import foundation.icon.btp.mock.MockBSHScoreClient;
 import foundation.icon.btp.mock.MockRelayMessage;
 import foundation.icon.btp.test.AssertBTPException;
 import foundation.icon.btp.test.MockBMVIntegrationTest;
 import foundation.icon.btp.test.MockBSHIntegrationTest;
 import foundation.icon.jsonrpc.Address;
+import foundation.icon.jsonrpc.IconStringConverter;
 import foundation.icon.jsonrpc.model.TransactionResult;
+import foundation.icon.score.test.ScoreIntegrationTest;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -35,6 +40,7 @@ import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -191,6 +197,198 @@ public class MessageTest implements BMCIntegrationTest {
                 dst.net(), svc, sn, payload);
     }
 
+    @Test
+    void sendMessagesShouldSuccess() {
+        String[] to = new String[]{link.net(), reachable.net(), link.net()};
+        BigInteger[] sn = new BigInteger[]{BigInteger.ZERO, BigInteger.ONE, BigInteger.TWO};
+        byte[][] payloads = new byte[to.length][];
+        for (int i = 0; i < to.length; i++) {
+            payloads[i] = Faker.btpLink().toBytes();
+        }
+        BigInteger nsn = bmc.getNetworkSn();
+        BigInteger txSeq = bmc.getStatus(link.toString()).getTx_seq();
+        MockBSHIntegrationTest.mockBSH.sendMessages(
+                BMCIntegrationTest.eventLogsChecker(
+                        BMCScoreClient.Message::eventLogs,
+                        (l) -> {
+                            assertEquals(to.length, l.size());
+                            for (int i = 0; i < to.length; i++) {
+                                assertEquals(link.toString(), l.get(i).get_next());
+                                assertEquals(txSeq.add(BigInteger.valueOf(i + 1)), l.get(i).get_seq());
+                                BTPMessage btpMessage = BTPMessage.fromBytes(l.get(i).get_msg());
+                                assertEquals(to[i], btpMessage.getDst());
+                                assertEquals(sn[i], btpMessage.getSn());
+                                assertArrayEquals(payloads[i], btpMessage.getPayload());
+                                assertEquals(nsn.add(BigInteger.valueOf(i + 1)), btpMessage.getNsn());
+                            }
+                        }, null),
+                bmc._address(),
+                to, svc, sn, payloads);
+        assertEquals(nsn.add(BigInteger.valueOf(to.length)), bmc.getNetworkSn());
+    }
+
+    @Test
+    void sendMessageShouldRevertCongestedLink() {
+        iconSpecific.acknowledge(link.toString(), bmc.getStatus(link.toString()).getTx_seq());
+        iconSpecific.setCongestionWindow(link.toString(), BigInteger.ONE, BigInteger.ZERO);
+        try {
+            MockBSHIntegrationTest.mockBSH.sendMessage(
+                    bmc._address(),
+                    link.net(), svc, BigInteger.ZERO, Faker.btpLink().toBytes());
+            AssertBMCException.assertUnknown(() ->
+                    MockBSHIntegrationTest.mockBSH.sendMessage(
+                            bmc._address(),
+                            link.net(), svc, BigInteger.ZERO, Faker.btpLink().toBytes()));
+            BigInteger txSeq = bmc.getStatus(link.toString()).getTx_seq();
+            iconSpecific.acknowledge(link.toString(), txSeq);
+            MockBSHIntegrationTest.mockBSH.sendMessage(
+                    bmc._address(),
+                    link.net(), svc, BigInteger.ZERO, Faker.btpLink().toBytes());
+            assertEquals(txSeq.add(BigInteger.ONE), bmc.getStatus(link.toString()).getTx_seq());
+        } finally {
+            iconSpecific.setCongestionWindow(link.toString(), BigInteger.ZERO, BigInteger.ZERO);
+        }
+    }
+
+    @Test
+    void sendMessageShouldAccumulateSurchargeOfCongestedLink() {
+        BigInteger surcharge = BigInteger.TEN;
+        iconSpecific.acknowledge(link.toString(), bmc.getStatus(link.toString()).getTx_seq());
+        iconSpecific.setCongestionWindow(link.toString(), BigInteger.ONE, surcharge);
+        try {
+            BigInteger fee = bmc.getFee(link.net(), false);
+            MockBSHIntegrationTest.mockBSH.sendMessage(
+                    fee,
+                    bmc._address(),
+                    link.net(), svc, BigInteger.ZERO, Faker.btpLink().toBytes());
+            AssertBMCException.assertUnknown(() ->
+                    MockBSHIntegrationTest.mockBSH.sendMessage(
+                            fee,
+                            bmc._address(),
+                            link.net(), svc, BigInteger.ZERO, Faker.btpLink().toBytes()));
+            BigInteger prevReward = bmc.getReward(btpAddress.net(), bmc._address());
+            BigInteger txSeq = bmc.getStatus(link.toString()).getTx_seq();
+            MockBSHIntegrationTest.mockBSH.sendMessage(
+                    fee.add(surcharge),
+                    bmc._address(),
+                    link.net(), svc, BigInteger.ZERO, Faker.btpLink().toBytes());
+            assertEquals(txSeq.add(BigInteger.ONE), bmc.getStatus(link.toString()).getTx_seq());
+            assertEquals(prevReward.add(surcharge), bmc.getReward(btpAddress.net(), bmc._address()));
+        } finally {
+            iconSpecific.setCongestionWindow(link.toString(), BigInteger.ZERO, BigInteger.ZERO);
+        }
+    }
+
+    @Test
+    void handleRelayMessageShouldAcknowledgeByBatchedResponses() {
+        BigInteger window = BigInteger.TEN;
+        iconSpecific.acknowledge(link.toString(), bmc.getStatus(link.toString()).getTx_seq());
+        iconSpecific.setCongestionWindow(link.toString(), window, BigInteger.ZERO);
+        iconSpecific.setBatchService(svc, true);
+        try {
+            BTPMessage[] responses = new BTPMessage[2];
+            for (int i = 0; i < responses.length; i++) {
+                MockBSHIntegrationTest.mockBSH.sendMessage(
+                        bmc._address(),
+                        link.net(), svc, BigInteger.valueOf(i + 1), Faker.btpLink().toBytes());
+                responses[i] = btpMessageForSuccess(link);
+                responses[i].setSn(BigInteger.ZERO);
+                responses[i].setNsn(bmc.getNetworkSn().negate());
+            }
+            BigInteger txSeq = bmc.getStatus(link.toString()).getTx_seq();
+            Map lag = iconSpecific.getLinkLag(link.toString());
+            assertEquals(BigInteger.valueOf(responses.length),
+                    IconStringConverter.toBigInteger((String) lag.get("lag")));
+
+            bmc.handleRelayMessage(link.toString(), mockRelayMessage(responses).toBase64String());
+            lag = iconSpecific.getLinkLag(link.toString());
+            assertEquals(txSeq, IconStringConverter.toBigInteger((String) lag.get("ackSeq")));
+            assertEquals(BigInteger.ZERO, IconStringConverter.toBigInteger((String) lag.get("lag")));
+        } finally {
+            iconSpecific.setBatchService(svc, false);
+            iconSpecific.setCongestionWindow(link.toString(), BigInteger.ZERO, BigInteger.ZERO);
+        }
+    }
+
+    static BTPMessage internalMessage(
+            BTPAddress src, BigInteger nsn, BTPMessageCenter.Internal internal, byte[] payload) {
+        BTPMessage msg = new BTPMessage();
+        msg.setSrc(src.net());
+        msg.setDst(btpAddress.net());
+        msg.setSvc(BTPMessageCenter.INTERNAL_SERVICE);
+        msg.setSn(BigInteger.ZERO);
+        msg.setPayload(new BMCMessage(internal.name(), payload).toBytes());
+        msg.setNsn(nsn);
+        return msg;
+    }
+
+    static BTPMessage lanesMessage(BTPAddress src, boolean enabled) {
+        return internalMessage(src, BigInteger.ONE,
+                BTPMessageCenter.Internal.Lanes, new LanesMessage(enabled).toBytes());
+    }
+
+    static BTPMessage internalResponse(BTPAddress src) {
+        //response of the request which is not sent
+        return internalMessage(src, BigInteger.valueOf(Long.MAX_VALUE).negate(),
+                BTPMessageCenter.Internal.Response, BTPMessageCenter.toResponseMessage(null).toBytes());
+    }
+
+    static Consumer<TransactionResult> lanesMessageChecker(BigInteger seq, boolean enabled) {
+        return messageEvent((el) -> {
+            assertEquals(seq, el.get_seq());
+            BMCMessage bmcMsg = BMCMessage.fromBytes(BTPMessage.fromBytes(el.get_msg()).getPayload());
+            assertEquals(BTPMessageCenter.Internal.Lanes.name(), bmcMsg.getType());
+            assertEquals(enabled, LanesMessage.fromBytes(bmcMsg.getPayload()).isEnabled());
+        }, (el) -> el.get_next().equals(link.toString()));
+    }
+
+    @Test
+    void setLanesShouldSendLanesMessageInCurrentMode() {
+        BigInteger txSeq = bmc.getStatus(link.toString()).getTx_seq();
+        //sent in the normal lane before the lanes are enabled
+        iconSpecific.setLanes(lanesMessageChecker(txSeq.add(BigInteger.ONE), true),
+                link.toString(), true);
+        try {
+            //sent in the priority lane before the lanes are disabled
+            iconSpecific.setLanes(lanesMessageChecker(Lanes.tag(Lanes.PRIORITY, BigInteger.ONE), false),
+                    link.toString(), false);
+            assertEquals(txSeq.add(BigInteger.ONE), bmc.getStatus(link.toString()).getTx_seq());
+            assertEquals("0x0", iconSpecific.getLanes(link.toString()).get("enabled"));
+        } finally {
+            iconSpecific.setLanes(link.toString(), false);
+        }
+    }
+
+    @Test
+    void handleRelayMessageShouldSwitchLanesByLanesMessage() {
+        BigInteger rxSeq = bmc.getStatus(link.toString()).getRx_seq();
+        //the response following LanesMessage in the same relay message is in the priority lane
+        bmc.handleRelayMessage(link.toString(),
+                mockRelayMessage(lanesMessage(link, true), internalResponse(link)).toBase64String());
+        rxSeq = rxSeq.add(BigInteger.ONE);
+        assertEquals(rxSeq, bmc.getStatus(link.toString()).getRx_seq());
+        Map lanes = iconSpecific.getLanes(link.toString());
+        assertEquals("0x1", lanes.get("rxEnabled"));
+        assertEquals("0x0", lanes.get("enabled"));
+        assertEquals(BigInteger.ONE, IconStringConverter.toBigInteger((String) lanes.get("rxSeq")));
+
+        //the response in flight is in the priority lane, and the one following LanesMessage is in the normal lane
+        bmc.handleRelayMessage(link.toString(),
+                mockRelayMessage(internalResponse(link), lanesMessage(link, false), internalResponse(link))
+                        .toBase64String());
+        rxSeq = rxSeq.add(BigInteger.ONE);
+        assertEquals(rxSeq, bmc.getStatus(link.toString()).getRx_seq());
+        assertEquals("0x0", iconSpecific.getLanes(link.toString()).get("rxEnabled"));
+    }
+
+    @Test
+    void sendMessagesShouldRevertInvalidArrayLength() {
+        AssertBMCException.assertUnknown(() ->
+                MockBSHIntegrationTest.mockBSH.sendMessages(
+                        bmc._address(),
+                        new String[]{link.net()}, svc, new BigInteger[]{}, new byte[][]{}));
+    }
+
     static Stream<Arguments> sendMessageShouldSuccessArguments() {
         return Stream.of(
                 Arguments.of(
@@ -574,6 +772,340 @@ public class MessageTest implements BMCIntegrationTest {
         }
     }
 
+    @Test
+    void handleRelayMessageBytes() {
+        BTPMessage msg = btpMessageForSuccess(link);
+        iconSpecific.handleRelayMessageBytes(
+                handleBTPMessageChecker(msg),
+                link.toString(), mockRelayMessage(msg).toBytes());
+    }
+
+    @Test
+    void handleRelayMessageShouldSummarizeBTPEvent() {
+        iconSpecific.setCompactBTPEvent(true);
+        try {
+            BTPMessage[] msgs = new BTPMessage[]{btpMessageForSuccess(link), btpMessageForSuccess(link)};
+            msgs[1].setNsn(BigInteger.TWO);
+            bmc.handleRelayMessage(
+                    ScoreIntegrationTest.eventLogShouldNotExistsChecker(
+                            bmc._address(), BMCScoreClient.BTPEvent::eventLogs)
+                            .andThen(BMCIntegrationTest.eventLogChecker(
+                                    ICONSpecificScoreClient.BTPEventSummary::eventLogs,
+                                    (el) -> assertEquals(link.toString(), el.get_prev()),
+                                    null)),
+                    link.toString(),
+                    mockRelayMessage(msgs).toBase64String());
+        } finally {
+            iconSpecific.setCompactBTPEvent(false);
+        }
+    }
+
+    @Test
+    void settingsShouldIncreaseConfigVersion() {
+        long version = iconSpecific.getConfigVersion();
+        iconSpecific.setCompactBTPEvent(false);
+        assertTrue(iconSpecific.getConfigVersion() > version);
+
+        version = iconSpecific.getConfigVersion();
+        iconSpecific.setFragmentExpiry(0);
+        assertTrue(iconSpecific.getConfigVersion() > version);
+
+        version = iconSpecific.getConfigVersion();
+        iconSpecific.setResponseExpiry(iconSpecific.getResponseExpiry());
+        assertTrue(iconSpecific.getConfigVersion() > version);
+
+        version = iconSpecific.getConfigVersion();
+        iconSpecific.setRelayCounting(iconSpecific.isRelayCounting());
+        assertTrue(iconSpecific.getConfigVersion() > version);
+    }
+
+    @Test
+    void handleRelayMessageShouldSuccessInTurn() {
+        //relay is the only relay of the link, so every turn is the relay's
+        iconSpecific.setRelayTurn(link.toString(), 1);
+        try {
+            BTPMessage msg = btpMessageForSuccess(link);
+            iconSpecific.handleRelayMessageBytes(
+                    handleBTPMessageChecker(msg),
+                    link.toString(), mockRelayMessage(msg).toBytes());
+        } finally {
+            iconSpecific.setRelayTurn(link.toString(), 0);
+        }
+    }
+
+    @Test
+    void handleRelayMessageWithSeqShouldReorder() {
+        AssertBMCException.assertUnknown(() ->
+                iconSpecific.handleRelayMessageWithSeq(link.toString(),
+                        bmc.getStatus(link.toString()).getRx_seq().add(BigInteger.ONE),
+                        mockRelayMessage(btpMessageForSuccess(link)).toBytes()));
+        iconSpecific.setReorderBuffer(link.toString(), 1, BigInteger.TWO, false);
+        try {
+            BigInteger rxSeq = bmc.getStatus(link.toString()).getRx_seq();
+            BTPMessage[] msgs = new BTPMessage[]{btpMessageForSuccess(link), btpMessageForSuccess(link)};
+            msgs[1].setSn(BigInteger.TWO);
+            AssertBMCException.assertUnknown(() ->
+                    iconSpecific.handleRelayMessageWithSeq(link.toString(), rxSeq.add(BigInteger.TWO),
+                            mockRelayMessage(msgs[1]).toBytes()));
+            iconSpecific.handleRelayMessageWithSeq(
+                    ScoreIntegrationTest.eventLogShouldNotExistsChecker(
+                            MockBSHIntegrationTest.mockBSH._address(),
+                            MockBSHScoreClient.HandleBTPMessage::eventLogs),
+                    link.toString(), rxSeq.add(BigInteger.ONE), mockRelayMessage(msgs[1]).toBytes());
+            assertEquals(rxSeq, bmc.getStatus(link.toString()).getRx_seq());
+            iconSpecific.handleRelayMessageBytes(
+                    ScoreIntegrationTest.eventLogsChecker(
+                            MockBSHIntegrationTest.mockBSH._address(),
+                            MockBSHScoreClient.HandleBTPMessage::eventLogs,
+                            (l) -> {
+                                assertEquals(msgs.length, l.size());
+                                for (int i = 0; i < msgs.length; i++) {
+                                    assertEquals(msgs[i].getSn(), l.get(i).get_sn());
+                                }
+                            }),
+                    link.toString(), mockRelayMessage(msgs[0]).toBytes());
+            assertEquals(rxSeq.add(BigInteger.TWO), bmc.getStatus(link.toString()).getRx_seq());
+        } finally {
+            iconSpecific.setReorderBuffer(link.toString(), 0, BigInteger.ZERO, false);
+        }
+    }
+
+    static Consumer<TransactionResult> messageBufferedEvent(BigInteger from, BigInteger to) {
+        return BMCIntegrationTest.eventLogChecker(
+                ICONSpecificScoreClient.MessageBuffered::eventLogs,
+                (el) -> {
+                    assertEquals(from, el.get_from());
+                    assertEquals(to, el.get_to());
+                },
+                null);
+    }
+
+    @Test
+    void handleRelayMessageWithSeqShouldNotifyParkedMessagesOnly() {
+        iconSpecific.setReorderBuffer(link.toString(), 2, BigInteger.valueOf(3), true);
+        try {
+            BigInteger rxSeq = bmc.getStatus(link.toString()).getRx_seq();
+            BTPMessage[] msgs = new BTPMessage[]{
+                    btpMessageForSuccess(link), btpMessageForSuccess(link), btpMessageForSuccess(link)};
+            for (int i = 0; i < msgs.length; i++) {
+                msgs[i].setSn(BigInteger.valueOf(i + 1));
+            }
+            iconSpecific.handleRelayMessageWithSeq(
+                    messageBufferedEvent(rxSeq.add(BigInteger.TWO), rxSeq.add(BigInteger.TWO)),
+                    link.toString(), rxSeq.add(BigInteger.ONE), mockRelayMessage(msgs[1]).toBytes());
+
+            //the message which is already parked is not included
+            iconSpecific.handleRelayMessageWithSeq(
+                    messageBufferedEvent(rxSeq.add(BigInteger.valueOf(3)), rxSeq.add(BigInteger.valueOf(3))),
+                    link.toString(), rxSeq.add(BigInteger.ONE), mockRelayMessage(msgs[1], msgs[2]).toBytes());
+            assertEquals("0x2", iconSpecific.getReorderBuffer(link.toString()).get("size"));
+
+            iconSpecific.handleRelayMessageBytes(
+                    ScoreIntegrationTest.eventLogsChecker(
+                            MockBSHIntegrationTest.mockBSH._address(),
+                            MockBSHScoreClient.HandleBTPMessage::eventLogs,
+                            (l) -> assertEquals(msgs.length, l.size())),
+                    link.toString(), mockRelayMessage(msgs[0]).toBytes());
+            assertEquals(rxSeq.add(BigInteger.valueOf(3)), bmc.getStatus(link.toString()).getRx_seq());
+        } finally {
+            iconSpecific.setReorderBuffer(link.toString(), 0, BigInteger.ZERO, false);
+        }
+    }
+
+    @Test
+    void handleRelayMessageWithSeqShouldNotReorderInLanes() {
+        iconSpecific.setReorderBuffer(link.toString(), 1, BigInteger.TWO, false);
+        try {
+            BigInteger rxSeq = bmc.getStatus(link.toString()).getRx_seq();
+            BTPMessage parked = btpMessageForSuccess(link);
+            iconSpecific.handleRelayMessageWithSeq(link.toString(), rxSeq.add(BigInteger.ONE),
+                    mockRelayMessage(parked).toBytes());
+            assertEquals("0x1", iconSpecific.getReorderBuffer(link.toString()).get("size"));
+
+            //the parked message is dropped, because it could be in the priority lane
+            bmc.handleRelayMessage(
+                    ScoreIntegrationTest.eventLogShouldNotExistsChecker(
+                            MockBSHIntegrationTest.mockBSH._address(),
+                            MockBSHScoreClient.HandleBTPMessage::eventLogs),
+                    link.toString(), mockRelayMessage(lanesMessage(link, true)).toBase64String());
+            assertEquals(rxSeq.add(BigInteger.ONE), bmc.getStatus(link.toString()).getRx_seq());
+            assertEquals("0x0", iconSpecific.getReorderBuffer(link.toString()).get("size"));
+
+            AssertBMCException.assertUnknown(() ->
+                    iconSpecific.handleRelayMessageWithSeq(link.toString(), rxSeq.add(BigInteger.TWO),
+                            mockRelayMessage(btpMessageForSuccess(link)).toBytes()));
+        } finally {
+            bmc.handleRelayMessage(link.toString(),
+                    mockRelayMessage(lanesMessage(link, false)).toBase64String());
+            iconSpecific.setReorderBuffer(link.toString(), 0, BigInteger.ZERO, false);
+        }
+    }
+
+    @Test
+    void handleFragmentBytes() {
+        BTPMessage msg = btpMessageForSuccess(link);
+        byte[] bytes = mockRelayMessage(msg).toBytes();
+        int half = bytes.length / 2;
+        iconSpecific.handleFragmentBytes(link.toString(), Arrays.copyOfRange(bytes, 0, half), -1);
+        iconSpecific.handleFragmentBytes(
+                handleBTPMessageChecker(msg),
+                link.toString(), Arrays.copyOfRange(bytes, half, bytes.length), 0);
+    }
+
+    @Test
+    void handleRelayMessageShouldDeliverBatch() {
+        //BMC.handleRelayMessage -> BSHMock.handleBTPMessages
+        iconSpecific.setBatchService(svc, true);
+        try {
+            BTPMessage[] msgs = new BTPMessage[]{btpMessageForSuccess(link), btpMessageForSuccess(link)};
+            msgs[1].setSn(BigInteger.TWO);
+            bmc.handleRelayMessage(
+                    ScoreIntegrationTest.eventLogsChecker(
+                            MockBSHIntegrationTest.mockBSH._address(),
+                            MockBSHScoreClient.HandleBTPMessage::eventLogs,
+                            (l) -> {
+                                assertEquals(msgs.length, l.size());
+                                for (int i = 0; i < msgs.length; i++) {
+                                    assertEquals(msgs[i].getSn(), l.get(i).get_sn());
+                                    assertArrayEquals(msgs[i].getPayload(), l.get(i).get_msg());
+                                }
+                            }),
+                    link.toString(),
+                    mockRelayMessage(msgs).toBase64String());
+        } finally {
+            iconSpecific.setBatchService(svc, false);
+        }
+    }
+
+    @Test
+    void handleFragmentShouldClearAfterReassembled() {
+        BTPMessage msg = btpMessageForSuccess(link);
+        String[] fragments = fragments(mockRelayMessage(msg).toBytes(), 2);
+        iconSpecific.handleFragment(link.toString(), fragments[0], -1);
+        iconSpecific.handleFragment(
+                handleBTPMessageChecker(msg),
+                link.toString(), fragments[1], 0);
+        AssertBMCException.assertUnknown(() ->
+                iconSpecific.handleFragment(link.toString(), fragments[1], 0));
+    }
+
+    @Test
+    void handleFragmentShouldRevertExpired() {
+        BTPMessage msg = btpMessageForSuccess(link);
+        String[] fragments = fragments(mockRelayMessage(msg).toBytes(), 2);
+        iconSpecific.setFragmentExpiry(1);
+        try {
+            iconSpecific.handleFragment(link.toString(), fragments[0], -1);
+            //wait for expiry
+            iconSpecific.setFragmentExpiry(1);
+            iconSpecific.setFragmentExpiry(1);
+            AssertBMCException.assertUnknown(() ->
+                    iconSpecific.handleFragment(link.toString(), fragments[1], 0));
+            iconSpecific.reclaimFragments(1);
+            iconSpecific.setFragmentExpiry(0);
+            AssertBMCException.assertUnknown(() ->
+                    iconSpecific.handleFragment(link.toString(), fragments[1], 0));
+        } finally {
+            iconSpecific.setFragmentExpiry(0);
+        }
+    }
+
+    @Test
+    void reclaimFragmentsShouldContinueFromCursor() {
+        BTPMessage msg = btpMessageForSuccess(link);
+        String[] fragments = fragments(mockRelayMessage(msg).toBytes(), 2);
+        BTPMessage secondMsg = btpMessageForSuccess(secondLink);
+        String[] secondFragments = fragments(mockRelayMessage(secondMsg).toBytes(), 2);
+        //finish the scan left by others
+        iconSpecific.reclaimFragments(100);
+        iconSpecific.setFragmentExpiry(1);
+        try {
+            iconSpecific.handleFragment(link.toString(), fragments[0], -1);
+            //wait for expiry
+            iconSpecific.setFragmentExpiry(1);
+            iconSpecific.setFragmentExpiry(1);
+            iconSpecific.handleFragment(secondLink.toString(), secondFragments[0], -1);
+            //the buffer of secondLink is not expired yet, the next call continues to the buffer of link
+            iconSpecific.reclaimFragments(1);
+            iconSpecific.reclaimFragments(1);
+            iconSpecific.setFragmentExpiry(0);
+            AssertBMCException.assertUnknown(() ->
+                    iconSpecific.handleFragment(link.toString(), fragments[1], 0));
+            iconSpecific.handleFragment(
+                    handleBTPMessageChecker(secondMsg),
+                    secondLink.toString(), secondFragments[1], 0);
+        } finally {
+            iconSpecific.setFragmentExpiry(0);
+        }
+    }
+
+    @Test
+    void handleFragmentIncrementally() {
+        //BMC.handleFragment -> MockBMV.handleFragment -> BSHMock.HandleBTPMessage for each fragment
+        iconSpecific.setIncrementalVerifier(link.net(), true);
+        try {
+            int count = 3;
+            int last = count - 1;
+            for (int i = 0; i < count; i++) {
+                BTPMessage msg = btpMessageForSuccess(link);
+                String fragment = mockRelayMessage(msg).toBase64String();
+                int idx = i == 0 ? -1 * last : last - i;
+                iconSpecific.handleFragment(
+                        handleBTPMessageChecker(msg),
+                        link.toString(), fragment, idx);
+            }
+        } finally {
+            iconSpecific.setIncrementalVerifier(link.net(), false);
+        }
+    }
+
+    @Test
+    void handleFragmentIncrementallyShouldNotTakeOverStreamInProgress() {
+        iconSpecific.setIncrementalVerifier(link.net(), true);
+        BMRManagementTest.addRelay(link.toString(), tester.getAddress());
+        try {
+            BTPMessage[] msgs = new BTPMessage[]{btpMessageForSuccess(link), btpMessageForSuccess(link)};
+            iconSpecific.handleFragment(
+                    handleBTPMessageChecker(msgs[0]),
+                    link.toString(), mockRelayMessage(msgs[0]).toBase64String(), -1);
+            AssertBMCException.assertUnknown(() ->
+                    iconSpecificWithTester.handleFragment(link.toString(),
+                            mockRelayMessage(btpMessageForSuccess(link)).toBase64String(), -1));
+            iconSpecific.handleFragment(
+                    handleBTPMessageChecker(msgs[1]),
+                    link.toString(), mockRelayMessage(msgs[1]).toBase64String(), 0);
+        } finally {
+            BMRManagementTest.clearRelay(link.toString(), tester.getAddress());
+            iconSpecific.setIncrementalVerifier(link.net(), false);
+        }
+    }
+
+    @Test
+    void reclaimFragmentStreamShouldAllowOtherRelay() {
+        iconSpecific.setIncrementalVerifier(link.net(), true);
+        BMRManagementTest.addRelay(link.toString(), tester.getAddress());
+        try {
+            BTPMessage msg = btpMessageForSuccess(link);
+            iconSpecific.handleFragment(
+                    handleBTPMessageChecker(msg),
+                    link.toString(), mockRelayMessage(msg).toBase64String(), -1);
+            iconSpecific.reclaimFragmentStream(link.toString());
+            AssertBMCException.assertUnknown(() ->
+                    iconSpecific.handleFragment(link.toString(),
+                            mockRelayMessage(btpMessageForSuccess(link)).toBase64String(), 0));
+            BTPMessage[] msgs = new BTPMessage[]{btpMessageForSuccess(link), btpMessageForSuccess(link)};
+            iconSpecificWithTester.handleFragment(
+                    handleBTPMessageChecker(msgs[0]),
+                    link.toString(), mockRelayMessage(msgs[0]).toBase64String(), -1);
+            iconSpecificWithTester.handleFragment(
+                    handleBTPMessageChecker(msgs[1]),
+                    link.toString(), mockRelayMessage(msgs[1]).toBase64String(), 0);
+        } finally {
+            BMRManagementTest.clearRelay(link.toString(), tester.getAddress());
+            iconSpecific.setIncrementalVerifier(link.net(), false);
+        }
+    }
+
     @ParameterizedTest
     @MethodSource("dropMessageShouldSuccessArguments")
     void dropMessageShouldSuccess(
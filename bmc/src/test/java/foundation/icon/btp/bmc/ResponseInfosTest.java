@@ -0,0 +1,271 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmc;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import score.BranchDB;
+import score.Context;
+import score.DictDB;
+import score.annotation.External;
+import score.annotation.Optional;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResponseInfosTest extends TestBase {
+    static final ServiceManager sm = getServiceManager();
+    static final Account owner = sm.createAccount();
+    static final String SRC = "0x1.icon";
+    static final String SVC = "svc";
+    static final long height = 1234567L;
+    static final BigInteger nsn = BigInteger.valueOf(100000);
+    static final FeeInfo feeInfo = new FeeInfo("0x1.icon", new BigInteger[]{
+            BigInteger.valueOf(1000000000000000L), BigInteger.valueOf(1000000000000000L),
+            BigInteger.valueOf(2000000000000000L), BigInteger.valueOf(2000000000000000L)});
+
+    @Test
+    void recordShouldReferFeeInfoByVersion() {
+        byte[] record = ResponseInfos.record(height, 1, nsn);
+        assertEquals(height, ResponseInfos.heightOf(record));
+        assertEquals(1, ResponseInfos.versionOf(record));
+        assertEquals(nsn, new BigInteger(ResponseInfos.bodyOf(record)));
+
+        ResponseInfo responseInfo = new ResponseInfo(nsn, feeInfo);
+        byte[] inline = ResponseInfos.record(height, responseInfo);
+        assertEquals(height, ResponseInfos.heightOf(inline));
+        assertEquals(0, ResponseInfos.versionOf(inline));
+        assertArrayEquals(responseInfo.toBytes(), ResponseInfos.bodyOf(inline));
+
+        //only the header and nsn are stored for each request
+        assertEquals(ResponseInfos.HEADER_LEN + nsn.toByteArray().length, record.length);
+        assertTrue(record.length < inline.length);
+        assertTrue(record.length < responseInfo.toBytes().length);
+    }
+
+    @Test
+    void recordShouldKeepMaxFeeVersion() {
+        byte[] record = ResponseInfos.record(Long.MAX_VALUE, ResponseInfos.MAX_FEE_VERSION, nsn);
+        assertEquals(Long.MAX_VALUE, ResponseInfos.heightOf(record));
+        assertEquals(ResponseInfos.MAX_FEE_VERSION, ResponseInfos.versionOf(record));
+    }
+
+    /**
+     * Holds ResponseInfos which is bound to the storage as BTPMessageCenter does.
+     */
+    public static class ResponseInfosScore {
+        private final ResponseInfos responseInfos = new ResponseInfos("responseInfos", "legacy");
+        private final BranchDB<String, BranchDB<String, DictDB<BigInteger, byte[]>>> records =
+                Context.newBranchDB("responseInfos", byte[].class);
+        private final BranchDB<String, BranchDB<String, DictDB<BigInteger, ResponseInfo>>> legacy =
+                Context.newBranchDB("legacy", ResponseInfo.class);
+
+        static byte[] toBytes(ResponseInfo responseInfo) {
+            return responseInfo == null ? null : responseInfo.toBytes();
+        }
+
+        static ResponseInfo responseInfo(BigInteger _nsn, byte[] _feeInfo) {
+            return new ResponseInfo(_nsn, _feeInfo == null ? null : FeeInfo.fromBytes(_feeInfo));
+        }
+
+        @External
+        public void put(BigInteger _sn, BigInteger _nsn, @Optional byte[] _feeInfo) {
+            responseInfos.put(SRC, SVC, _sn, responseInfo(_nsn, _feeInfo));
+        }
+
+        @External
+        public void putLegacy(BigInteger _sn, BigInteger _nsn, @Optional byte[] _feeInfo) {
+            legacy.at(SRC).at(SVC).set(_sn, responseInfo(_nsn, _feeInfo));
+        }
+
+        @External(readonly = true)
+        public byte[] get(BigInteger _sn) {
+            return toBytes(responseInfos.get(SRC, SVC, _sn));
+        }
+
+        @External(readonly = true)
+        public int versionOf(BigInteger _sn) {
+            return ResponseInfos.versionOf(records.at(SRC).at(SVC).get(_sn));
+        }
+
+        @External
+        public byte[] remove(BigInteger _sn) {
+            return toBytes(responseInfos.remove(SRC, SVC, _sn));
+        }
+
+        @External
+        public byte[] prune(BigInteger _sn) {
+            return toBytes(responseInfos.prune(SRC, SVC, _sn));
+        }
+
+        @External
+        public void setExpiry(BigInteger _blocks) {
+            responseInfos.setExpiry(_blocks.longValue());
+        }
+
+        @External
+        public void finishLegacy() {
+            responseInfos.finishLegacy();
+        }
+    }
+
+    Score score;
+
+    @BeforeEach
+    void deploy() throws Exception {
+        score = sm.deploy(owner, ResponseInfosScore.class);
+    }
+
+    static FeeInfo feeInfo(long value) {
+        return new FeeInfo(SRC, new BigInteger[]{BigInteger.valueOf(value), BigInteger.valueOf(value)});
+    }
+
+    void put(long sn, FeeInfo feeInfo) {
+        score.invoke(owner, "put", BigInteger.valueOf(sn), nsn, feeInfo == null ? null : feeInfo.toBytes());
+    }
+
+    void putLegacy(long sn, FeeInfo feeInfo) {
+        score.invoke(owner, "putLegacy", BigInteger.valueOf(sn), nsn, feeInfo.toBytes());
+    }
+
+    byte[] get(long sn) {
+        return (byte[]) score.call("get", BigInteger.valueOf(sn));
+    }
+
+    int versionOf(long sn) {
+        return ((Number) score.call("versionOf", BigInteger.valueOf(sn))).intValue();
+    }
+
+    byte[] call(String method, long sn) {
+        return (byte[]) sm.call(owner, BigInteger.ZERO, score.getAddress(), method, BigInteger.valueOf(sn));
+    }
+
+    static byte[] expected(FeeInfo feeInfo) {
+        return new ResponseInfo(nsn, feeInfo).toBytes();
+    }
+
+    @Test
+    void putShouldInternFeeInfo() {
+        put(1, feeInfo);
+        assertEquals(1, versionOf(1));
+        assertArrayEquals(expected(feeInfo), get(1));
+        put(2, feeInfo);
+        assertEquals(1, versionOf(2));
+        assertArrayEquals(expected(feeInfo), get(2));
+
+        //null is stored inline
+        put(3, null);
+        assertEquals(0, versionOf(3));
+        assertArrayEquals(expected(null), get(3));
+
+        assertArrayEquals(expected(feeInfo), call("remove", 1));
+        assertNull(get(1));
+        assertNull(call("remove", 1));
+        assertArrayEquals(expected(feeInfo), get(2));
+    }
+
+    @Test
+    void internShouldReuseVersionOfFeeInfoGivenBefore() {
+        put(1, feeInfo(1));
+        put(2, feeInfo(2));
+        put(3, feeInfo(1));
+        put(4, feeInfo(2));
+        assertEquals(1, versionOf(1));
+        assertEquals(2, versionOf(2));
+        assertEquals(1, versionOf(3));
+        assertEquals(2, versionOf(4));
+        assertArrayEquals(expected(feeInfo(1)), get(3));
+        assertArrayEquals(expected(feeInfo(2)), get(4));
+    }
+
+    @Test
+    void internShouldStoreInlineAfterMaxFeeVersion() {
+        for (int i = 1; i <= ResponseInfos.MAX_FEE_VERSION; i++) {
+            put(i, feeInfo(i));
+            assertEquals(i, versionOf(i));
+        }
+        long sn = ResponseInfos.MAX_FEE_VERSION + 1;
+        put(sn, feeInfo(sn));
+        assertEquals(0, versionOf(sn));
+        assertArrayEquals(expected(feeInfo(sn)), get(sn));
+
+        //FeeInfo given before keeps its version after rollover
+        put(sn + 1, feeInfo(1));
+        assertEquals(1, versionOf(sn + 1));
+        assertArrayEquals(expected(feeInfo(1)), get(sn + 1));
+        put(sn + 2, feeInfo(ResponseInfos.MAX_FEE_VERSION));
+        assertEquals(ResponseInfos.MAX_FEE_VERSION, versionOf(sn + 2));
+
+        put(sn + 3, feeInfo(sn));
+        assertEquals(0, versionOf(sn + 3));
+        assertArrayEquals(expected(feeInfo(sn)), get(sn + 3));
+    }
+
+    @Test
+    void pruneShouldRemoveExpiredOnly() {
+        put(1, feeInfo);
+        //never expired without expiry
+        sm.getBlock().increase(100);
+        assertNull(call("prune", 1));
+
+        final long expiry = 10;
+        score.invoke(owner, "setExpiry", BigInteger.valueOf(expiry));
+        put(2, feeInfo);
+        assertNull(call("prune", 2));
+        assertArrayEquals(expected(feeInfo), call("prune", 1));
+        assertNull(get(1));
+
+        sm.getBlock().increase(expiry + 1);
+        assertArrayEquals(expected(feeInfo), call("prune", 2));
+        assertNull(get(2));
+        assertNull(call("prune", 2));
+    }
+
+    @Test
+    void legacyShouldBeReadUntilFinishLegacy() {
+        putLegacy(1, feeInfo);
+        putLegacy(2, feeInfo);
+        putLegacy(3, feeInfo);
+        assertArrayEquals(expected(feeInfo), get(1));
+
+        assertArrayEquals(expected(feeInfo), call("remove", 1));
+        assertNull(get(1));
+
+        //legacy is regarded as expired
+        score.invoke(owner, "setExpiry", BigInteger.TEN);
+        assertArrayEquals(expected(feeInfo), call("prune", 2));
+        assertNull(get(2));
+
+        //the record stored by this version is read first
+        put(3, feeInfo(1));
+        assertArrayEquals(expected(feeInfo(1)), call("remove", 3));
+        assertArrayEquals(expected(feeInfo), get(3));
+
+        score.invoke(owner, "finishLegacy");
+        assertNull(get(3));
+        assertNull(call("remove", 3));
+        assertNull(call("prune", 3));
+    }
+}
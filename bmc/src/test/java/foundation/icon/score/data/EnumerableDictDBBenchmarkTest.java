@@ -0,0 +1,244 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.score.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import score.ArrayDB;
+import score.Context;
+import score.DictDB;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts storage operations of {@link EnumerableDictDB} and {@link CompactEnumerableDictDB}
+ * with in-memory DictDB and ArrayDB instead of the storage.
+ */
+public class EnumerableDictDBBenchmarkTest {
+    static final int COUNT = 100;
+
+    static class Counter {
+        long reads;
+        long writes;
+
+        void reset() {
+            reads = 0;
+            writes = 0;
+        }
+
+        @Override
+        public String toString() {
+            return "reads=" + reads + ", writes=" + writes;
+        }
+    }
+
+    static class CountingDictDB<K, V> implements DictDB<K, V> {
+        private final Map<K, V> map = new HashMap<>();
+        private final Counter counter;
+
+        CountingDictDB(Counter counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void set(K key, V value) {
+            counter.writes++;
+            if (value == null) {
+                map.remove(key);
+            } else {
+                map.put(key, value);
+            }
+        }
+
+        @Override
+        public V get(K key) {
+            counter.reads++;
+            return map.get(key);
+        }
+
+        @Override
+        public V getOrDefault(K key, V defaultValue) {
+            counter.reads++;
+            return map.getOrDefault(key, defaultValue);
+        }
+    }
+
+    static class CountingArrayDB<E> implements ArrayDB<E> {
+        private final List<E> list = new ArrayList<>();
+        private final Counter counter;
+
+        CountingArrayDB(Counter counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void add(E value) {
+            counter.writes++;
+            list.add(value);
+        }
+
+        @Override
+        public void set(int index, E value) {
+            counter.writes++;
+            list.set(index, value);
+        }
+
+        @Override
+        public void removeLast() {
+            counter.writes++;
+            list.remove(list.size() - 1);
+        }
+
+        @Override
+        public E get(int index) {
+            counter.reads++;
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            //size is stored separately from the elements
+            counter.reads++;
+            return list.size();
+        }
+
+        @Override
+        public E pop() {
+            counter.reads++;
+            counter.writes++;
+            return list.remove(list.size() - 1);
+        }
+    }
+
+    final Counter counter = new Counter();
+    MockedStatic<Context> context;
+
+    @BeforeEach
+    void beforeEach() {
+        context = Mockito.mockStatic(Context.class, (invocation) -> {
+            switch (invocation.getMethod().getName()) {
+                case "newDictDB":
+                    return new CountingDictDB<>(counter);
+                case "newArrayDB":
+                    return new CountingArrayDB<>(counter);
+                default:
+                    return invocation.callRealMethod();
+            }
+        });
+    }
+
+    @AfterEach
+    void afterEach() {
+        context.close();
+    }
+
+    interface Operations {
+        void put(String key, String value);
+
+        String get(String key);
+
+        String remove(String key);
+    }
+
+    Map<String, Counter> run(Operations ops) {
+        Map<String, Counter> result = new HashMap<>();
+        counter.reset();
+        for (int i = 0; i < COUNT; i++) {
+            ops.put("key" + i, "value" + i);
+        }
+        result.put("put new", copy(counter));
+
+        counter.reset();
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals("value" + i, ops.get("key" + i));
+        }
+        result.put("get", copy(counter));
+
+        counter.reset();
+        for (int i = 0; i < COUNT; i++) {
+            ops.put("key" + i, "updated" + i);
+        }
+        result.put("put existing", copy(counter));
+
+        counter.reset();
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals("updated" + i, ops.remove("key" + i));
+        }
+        result.put("remove", copy(counter));
+        return result;
+    }
+
+    static Counter copy(Counter counter) {
+        Counter c = new Counter();
+        c.reads = counter.reads;
+        c.writes = counter.writes;
+        return c;
+    }
+
+    @Test
+    void compareStorageOperations() {
+        EnumerableDictDB<String, String> legacy = new EnumerableDictDB<>("legacy", String.class, String.class);
+        Map<String, Counter> legacyResult = run(new Operations() {
+            public void put(String key, String value) { legacy.put(key, value); }
+            public String get(String key) { return legacy.get(key); }
+            public String remove(String key) { return legacy.remove(key); }
+        });
+        CompactEnumerableDictDB<String, String> compact = new CompactEnumerableDictDB<>("compact", String.class, String.class);
+        Map<String, Counter> compactResult = run(new Operations() {
+            public void put(String key, String value) { compact.put(key, value); }
+            public String get(String key) { return compact.get(key); }
+            public String remove(String key) { return compact.remove(key); }
+        });
+        assertEquals(legacyResult.keySet(), compactResult.keySet());
+        for (String op : legacyResult.keySet()) {
+            Counter l = legacyResult.get(op);
+            Counter c = compactResult.get(op);
+            String message = op + " x" + COUNT + " EnumerableDictDB{" + l + "} CompactEnumerableDictDB{" + c + "}";
+            assertTrue(l.reads + l.writes > 0, message);
+            assertTrue(c.reads + c.writes <= l.reads + l.writes, message);
+        }
+        //every get reads at least once
+        assertTrue(compactResult.get("get").reads >= COUNT);
+        assertEquals(0, compactResult.get("get").writes);
+        assertTrue(compactResult.get("put new").writes < legacyResult.get("put new").writes);
+        assertTrue(compactResult.get("remove").writes < legacyResult.get("remove").writes);
+    }
+
+    @Test
+    void migrate() {
+        EnumerableDictDB<String, String> legacy = new EnumerableDictDB<>("db", String.class, String.class);
+        for (int i = 0; i < COUNT; i++) {
+            legacy.put("key" + i, "value" + i);
+        }
+        CompactEnumerableDictDB<String, String> compact = new CompactEnumerableDictDB<>("db", String.class, String.class);
+        assertEquals(COUNT / 2, compact.migrate(legacy, COUNT / 2));
+        assertEquals(0, compact.migrate(legacy, COUNT));
+        assertEquals(COUNT, compact.size());
+        for (int i = 0; i < COUNT; i++) {
+            assertEquals("value" + i, compact.get("key" + i));
+        }
+    }
+}
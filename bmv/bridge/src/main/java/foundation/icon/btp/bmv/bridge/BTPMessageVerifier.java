@@ -19,10 +19,12 @@ package foundation.icon.btp.bmv.bridge;
 import foundation.icon.btp.lib.BMV;
 import foundation.icon.btp.lib.BMVStatus;
 import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.lib.Lanes;
 import score.Address;
 import score.Context;
 import score.VarDB;
 import score.annotation.External;
+import score.annotation.Optional;
 import scorex.util.ArrayList;
 
 import java.math.BigInteger;
@@ -34,11 +36,18 @@ public class BTPMessageVerifier implements BMV {
     private final VarDB<Address> varBMCAddress = Context.newVarDB(DB_PREFIX+"bmcAddress", Address.class);
     private final VarDB<String> varNetAddress = Context.newVarDB(DB_PREFIX+"netAddress", String.class);
     private final VarDB<BigInteger> varHeight = Context.newVarDB(DB_PREFIX+"height", BigInteger.class);
+    private final VarDB<Boolean> varReorder = Context.newVarDB(DB_PREFIX+"reorder", Boolean.class);
 
-    public BTPMessageVerifier(Address _bmc, String _net, BigInteger _offset) {
+    /**
+     * @param _reorder whether _seq could be ahead of rxSeq of the link, for the reorder buffer of BMC.
+     *                 If it's true, the receipts lower than the last height are verified instead of ignored,
+     *                 because the messages skipped by the relay message following _seq ahead are relayed later.
+     */
+    public BTPMessageVerifier(Address _bmc, String _net, BigInteger _offset, @Optional boolean _reorder) {
         varBMCAddress.set(_bmc);
         varNetAddress.set(_net);
         varHeight.set(_offset);
+        varReorder.set(_reorder ? Boolean.TRUE : null);
     }
 
     @External
@@ -47,23 +56,35 @@ public class BTPMessageVerifier implements BMV {
         BTPAddress prevAddr = BTPAddress.valueOf(_prev);
         checkAccessible(curAddr, prevAddr);
         byte[] bmc = Context.hash("keccak-256", _bmc.getBytes());
-        BigInteger next_seq = _seq.add(BigInteger.ONE);
+        BigInteger[] next_seqs = Lanes.split(_seq);
+        for (int i = 0; i < next_seqs.length; i++) {
+            next_seqs[i] = next_seqs[i].add(BigInteger.ONE);
+        }
         RelayMessage rm = RelayMessage.fromBytes(_msg);
         BigInteger height = varHeight.getOrDefault(BigInteger.ZERO);
+        boolean reorder = varReorder.getOrDefault(false);
         List<byte[]> msgs = new ArrayList<>();
         for (ReceiptProof rp : rm.getReceiptProofs()) {
             if (rp.getHeight().compareTo(height) < 0) {
-                //ignore lower height
+                if (!reorder) {
+                    //ignore lower height
 //                throw BMVException.alreadyVerified(
 //                        "alreadyVerified height:"+rp.getHeight()+" expected:"+height);
-                continue;
+                    continue;
+                }
+            } else {
+                height = rp.getHeight();
             }
-            height = rp.getHeight();
             for (EventDataBTPMessage ev : rp.getEvents()) {
                 if (!Arrays.equals(bmc, ev.getNext_bmc())) {
                     continue;
                 }
-                int compare = ev.getSeq().compareTo(next_seq);
+                int lane = Lanes.laneOf(ev.getSeq());
+                if (lane < 0) {
+                    throw BMVException.unknown("invalid seq:"+ev.getSeq());
+                }
+                BigInteger next_seq = next_seqs[lane];
+                int compare = Lanes.seqOf(ev.getSeq()).compareTo(next_seq);
                 if (compare < 0) {
                     //ignore lower seq
 //                    throw BMVException.alreadyVerified(
@@ -71,17 +92,17 @@ public class BTPMessageVerifier implements BMV {
                     continue;
                 } else if (compare > 0) {//ev.seq > next
                     throw BMVException.notVerifiableYet(
-                            "notVerifiable seq:"+ev.getSeq()+" expected:"+next_seq);
+                            "notVerifiable seq:"+ev.getSeq()+" expected:"+Lanes.tag(lane, next_seq));
                 }
                 msgs.add(ev.getMsg());
-                next_seq = next_seq.add(BigInteger.ONE);
+                next_seqs[lane] = next_seq.add(BigInteger.ONE);
             }
         }
         varHeight.set(height);
         byte[][] ret = new byte[msgs.size()][];
         int i = 0;
         for (byte[] msg : msgs) {
-            ret[i] = msg;
+            ret[i++] = msg;
         }
         return ret;
     }
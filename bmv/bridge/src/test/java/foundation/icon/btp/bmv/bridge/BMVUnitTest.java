@@ -53,7 +53,8 @@ public class BMVUnitTest extends TestBase {
         score = sm.deploy(owner, BTPMessageVerifier.class,
                 bmcAccount.getAddress(),
                 prev.net(),
-                BigInteger.valueOf(0));
+                BigInteger.valueOf(0),
+                false);
     }
 
     @Test
@@ -75,6 +76,63 @@ public class BMVUnitTest extends TestBase {
         assertEquals(height.longValue(), status.getHeight());
     }
 
+    static byte[][] handleRelayMessage(Score score, BigInteger seq, ReceiptProof... rps) {
+        RelayMessage rm = new RelayMessage(new ArrayList<>(List.of(rps)));
+        return (byte[][]) sm.call(bmcAccount, BigInteger.ZERO, score.getAddress(),
+                "handleRelayMessage",
+                bmc.toString(), prev.toString(), seq, toBytes(rm));
+    }
+
+    static ReceiptProof receiptProof(long height, long... seqs) {
+        byte[] next_bmc = nextForEvent(bmc);
+        List<EventDataBTPMessage> events = new java.util.ArrayList<>();
+        for (long seq : seqs) {
+            events.add(new EventDataBTPMessage(next_bmc, BigInteger.valueOf(seq), ("msg" + seq).getBytes()));
+        }
+        return new ReceiptProof(0, events, BigInteger.valueOf(height));
+    }
+
+    static void assertMessages(byte[][] ret, long... seqs) {
+        assertEquals(seqs.length, ret.length);
+        for (int i = 0; i < seqs.length; i++) {
+            assertArrayEquals(("msg" + seqs[i]).getBytes(), ret[i]);
+        }
+    }
+
+    @Test
+    public void handleRelayMessageShouldReturnEveryMessage() throws Exception {
+        Score strictScore = sm.deploy(owner, BTPMessageVerifier.class,
+                bmcAccount.getAddress(), prev.net(), BigInteger.ZERO, false);
+        assertMessages(handleRelayMessage(strictScore, BigInteger.ZERO,
+                receiptProof(1, 1, 2), receiptProof(2, 3)), 1, 2, 3);
+    }
+
+    @Test
+    public void handleRelayMessageShouldAcceptSeqAheadWithReorder() throws Exception {
+        Score reorderScore = sm.deploy(owner, BTPMessageVerifier.class,
+                bmcAccount.getAddress(), prev.net(), BigInteger.ZERO, true);
+        //relay message following _seq ahead, the messages 1 and 2 are skipped
+        assertMessages(handleRelayMessage(reorderScore, BigInteger.TWO,
+                receiptProof(2, 3)), 3);
+        //skipped messages at the lower height are verified later
+        assertMessages(handleRelayMessage(reorderScore, BigInteger.ZERO,
+                receiptProof(1, 1)), 1);
+        assertMessages(handleRelayMessage(reorderScore, BigInteger.ONE,
+                receiptProof(1, 1, 2)), 2);
+        BMVStatus status = (BMVStatus) reorderScore.call("getStatus");
+        assertEquals(2, status.getHeight());
+    }
+
+    @Test
+    public void handleRelayMessageShouldIgnoreLowerHeightWithoutReorder() throws Exception {
+        Score strictScore = sm.deploy(owner, BTPMessageVerifier.class,
+                bmcAccount.getAddress(), prev.net(), BigInteger.ZERO, false);
+        assertMessages(handleRelayMessage(strictScore, BigInteger.TWO,
+                receiptProof(2, 3)), 3);
+        assertMessages(handleRelayMessage(strictScore, BigInteger.ZERO,
+                receiptProof(1, 1, 2)));
+    }
+
     static byte[] nextForEvent(BTPAddress next) {
         return Context.hash("keccak-256", next.toString().getBytes());
     }
@@ -18,9 +18,15 @@ package foundation.icon.btp.bmv.bsc;
 import foundation.icon.btp.lib.BMV;
 import foundation.icon.btp.lib.BMVStatus;
 import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.lib.IncrementalBMV;
+import foundation.icon.btp.lib.Lanes;
+import foundation.icon.btp.lib.MerklePatriciaTree;
+import foundation.icon.btp.lib.RelayMessageStream;
 import score.Address;
+import score.ByteArrayObjectWriter;
 import score.Context;
 import score.DictDB;
+import score.ObjectReader;
 import score.VarDB;
 import score.annotation.External;
 import scorex.util.ArrayList;
@@ -32,13 +38,17 @@ import java.util.Map;
 
 import static foundation.icon.btp.bmv.bsc.Header.*;
 
-public class BTPMessageVerifier implements BMV {
+public class BTPMessageVerifier implements BMV, IncrementalBMV {
+    private static final MerklePatriciaTree mpt = new MerklePatriciaTree("RLP", "keccak-256");
     private final VarDB<Address> bmc = Context.newVarDB("bmc", Address.class);
     private final VarDB<BigInteger> cid = Context.newVarDB("cid", BigInteger.class);
     private final VarDB<BlockTree> tree = Context.newVarDB("tree", BlockTree.class);
     private final VarDB<Snapshot> snap = Context.newVarDB("snap", Snapshot.class);
     private final VarDB<MerkleTreeAccumulator> mta = Context.newVarDB("mta", MerkleTreeAccumulator.class);
     private final DictDB<byte[], Header> heads = Context.newDictDB("heads", Header.class);
+    private final VarDB<RelayMessageStream> stream = Context.newVarDB("stream", RelayMessageStream.class);
+    // headers confirmed by the former fragments of the stream, MessageProof in the following fragments refers them
+    private final VarDB<byte[]> streamConfirmations = Context.newVarDB("streamConfirmations", byte[].class);
 
     public BTPMessageVerifier(Address bmc, BigInteger chainId, byte[] header,
                               byte[][] recents, byte[][] validators) {
@@ -88,23 +98,72 @@ public class BTPMessageVerifier implements BMV {
     public byte[][] handleRelayMessage(String _bmc, String _prev, BigInteger _seq, byte[] _msg) {
         checkAccessible();
 
+        RelayMessage rm = RelayMessage.fromBytes(_msg);
+        return handleTypePrefixedMessages(_bmc, _prev, _seq, rm.getMessages(), new ArrayList<>());
+    }
+
+    @External
+    public byte[][] handleFragment(String _bmc, String _prev, BigInteger _seq, byte[] _msg, int _idx) {
+        checkAccessible();
+
+        RelayMessageStream stream;
+        List<byte[]> messages;
+        try {
+            if (_idx < 0) {
+                stream = RelayMessageStream.begin(_msg);
+                messages = stream.read(null);
+            } else {
+                stream = this.stream.get();
+                if (stream == null) {
+                    throw BMVException.unknown("not exists stream");
+                }
+                messages = stream.read(_msg);
+            }
+        } catch (IllegalArgumentException e) {
+            throw BMVException.unknown(e.getMessage());
+        }
+
+        List<Header> confirmations = _idx < 0 ? new ArrayList<>() : readHeaders(streamConfirmations.get());
+        List<RelayMessage.TypePrefixedMessage> tpms = new ArrayList<>();
+        for (byte[] bytes : messages) {
+            tpms.add(RelayMessage.TypePrefixedMessage.fromBytes(bytes));
+        }
+        byte[][] ret = handleTypePrefixedMessages(_bmc, _prev, _seq, tpms, confirmations);
+        if (_idx == 0) {
+            if (!stream.isEnd()) {
+                throw BMVException.unknown("incomplete relay message");
+            }
+            this.stream.set(null);
+            streamConfirmations.set(null);
+        } else {
+            this.stream.set(stream);
+            streamConfirmations.set(writeHeaders(confirmations));
+        }
+        return ret;
+    }
+
+    /**
+     * @param confirmations headers confirmed before the messages, updated by the messages
+     */
+    private byte[][] handleTypePrefixedMessages(String _bmc, String _prev, BigInteger _seq,
+            List<RelayMessage.TypePrefixedMessage> tpms, List<Header> confirmations) {
         BlockTree tree = this.tree.get();
         MerkleTreeAccumulator mta = this.mta.get();
         ChainConfig config = ChainConfig.fromChainID(this.cid.get());
-        List<Header> confirmations = new ArrayList<>();
         List<MessageEvent> msgs = new ArrayList<>();
-        BigInteger seq = _seq.add(BigInteger.ONE);
+        BigInteger[] seqs = Lanes.split(_seq);
+        for (int i = 0; i < seqs.length; i++) {
+            seqs[i] = seqs[i].add(BigInteger.ONE);
+        }
 
-        RelayMessage rm = RelayMessage.fromBytes(_msg);
-        for (RelayMessage.TypePrefixedMessage tpm : rm.getMessages()) {
+        for (RelayMessage.TypePrefixedMessage tpm : tpms) {
             Object msg = tpm.getMessage();
             if (msg instanceof BlockUpdate) {
                 confirmations.addAll(handleBlockUpdate(config, (BlockUpdate) msg, tree, mta));
             } else if (msg instanceof BlockProof) {
                 confirmations.add(handleBlockProof((BlockProof) msg, mta));
             } else if (msg instanceof MessageProof) {
-                msgs.addAll(handleMessageProof((MessageProof) msg, confirmations,
-                            seq.add(BigInteger.valueOf(msgs.size())),
+                msgs.addAll(handleMessageProof((MessageProof) msg, confirmations, seqs,
                             EthAddress.of(BTPAddress.parse(_prev).account()), BTPAddress.parse(_bmc)));
             }
         }
@@ -120,6 +179,30 @@ public class BTPMessageVerifier implements BMV {
         return ret;
     }
 
+    private static byte[] writeHeaders(List<Header> headers) {
+        ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLP");
+        w.beginList(headers.size());
+        for (Header header : headers) {
+            w.write(header.toBytes());
+        }
+        w.end();
+        return w.toByteArray();
+    }
+
+    private static List<Header> readHeaders(byte[] bytes) {
+        List<Header> headers = new ArrayList<>();
+        if (bytes == null) {
+            return headers;
+        }
+        ObjectReader r = Context.newByteArrayObjectReader("RLP", bytes);
+        r.beginList();
+        while (r.hasNext()) {
+            headers.add(Header.fromBytes(r.readByteArray()));
+        }
+        r.end();
+        return headers;
+    }
+
     private List<Header> handleBlockUpdate(ChainConfig config, BlockUpdate bu, BlockTree tree, MerkleTreeAccumulator mta) {
         List<Header> newHeads = new ArrayList<>(bu.getHeaders());
         if (newHeads.isEmpty()) {
@@ -202,8 +285,11 @@ public class BTPMessageVerifier implements BMV {
         return head;
     }
 
+    /**
+     * @param seqs next sequence of each lane, updated by the verified messages
+     */
     private List<MessageEvent> handleMessageProof(MessageProof mp, List<Header> confirmations,
-            BigInteger seq, EthAddress prev, BTPAddress bmc) {
+            BigInteger[] seqs, EthAddress prev, BTPAddress bmc) {
         List<MessageEvent> msgs = new ArrayList<>();
         if (confirmations.isEmpty()) {
             return msgs;
@@ -218,17 +304,8 @@ public class BTPMessageVerifier implements BMV {
         }
 
         Context.require(head != null, "No confirmed header for message proof");
-        for (ReceiptProof rp : mp.getReceiptProofs()) {
-            Receipt receipt;
-            byte[] receiptBytes;
-            try {
-                receiptBytes = MerklePatriciaTree.prove(
-                        head.getReceiptHash().toBytes(), rp.getKey(), rp.getProof());
-            } catch (MerklePatriciaTree.MPTException e) {
-                throw BMVException.unknown(e.getMessage());
-            }
-
-            receipt = Receipt.fromBytes(receiptBytes);
+        for (byte[] receiptBytes : proveReceiptProofs(head.getReceiptHash().toBytes(), mp)) {
+            Receipt receipt = Receipt.fromBytes(receiptBytes);
             Context.require(receipt.getStatus() != Receipt.StatusFailed, "Failed receipt");
             for (EventLog log : receipt.getLogs()) {
                 if (!log.getAddress().equals(prev)) {
@@ -244,21 +321,49 @@ public class BTPMessageVerifier implements BMV {
                     continue;
                 }
 
-                if (msg.getSequence().compareTo(seq) < 0) {
+                int lane = Lanes.laneOf(msg.getSequence());
+                if (lane < 0) {
+                    throw BMVException.unknown("invalid sequence:" + msg.getSequence());
+                }
+                BigInteger seq = seqs[lane];
+                if (Lanes.seqOf(msg.getSequence()).compareTo(seq) < 0) {
                     continue;
                 }
 
-                if (msg.getSequence().compareTo(seq) > 0) {
-                    throw BMVException.notVerifiable("expected:" + seq + " actual:" + msg.getSequence());
+                if (Lanes.seqOf(msg.getSequence()).compareTo(seq) > 0) {
+                    throw BMVException.notVerifiable("expected:" + Lanes.tag(lane, seq) + " actual:" + msg.getSequence());
                 }
 
-                seq = seq.add(BigInteger.ONE);
+                seqs[lane] = seq.add(BigInteger.ONE);
                 msgs.add(msg);
             }
         }
         return msgs;
     }
 
+    /**
+     * Proves receipts, if the deduplicated nodes are given, all receipts are verified as a batch.
+     */
+    private byte[][] proveReceiptProofs(byte[] receiptHash, MessageProof mp) {
+        List<ReceiptProof> rps = mp.getReceiptProofs();
+        try {
+            if (mp.getNodes() != null) {
+                byte[][] keys = new byte[rps.size()][];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = rps.get(i).getKey();
+                }
+                return mpt.prove(receiptHash, keys, mp.getNodes());
+            }
+            byte[][] values = new byte[rps.size()][];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = mpt.prove(receiptHash, rps.get(i).getKey(), rps.get(i).getProof());
+            }
+            return values;
+        } catch (MerklePatriciaTree.MPTException e) {
+            throw BMVException.unknown(e.getMessage());
+        }
+    }
+
     private void verify(ChainConfig config, Header head) {
         Context.require(head.getNumber().compareTo(BigInteger.ZERO) >= 0, "Unknown block");
         Context.require(head.getUncleHash().equals(UNCLE_HASH), "Invalid uncle hash");
@@ -54,7 +54,9 @@ public class BlockProof {
 
     public static BlockProof fromBytes(byte[] bytes) {
         ObjectReader r = Context.newByteArrayObjectReader("RLP", bytes);
-        return BlockProof.readObject(r);
+        BlockProof blockProof = BlockProof.readObject(r);
+        blockProof.header.retain(Header.items(bytes)[0]);
+        return blockProof;
     }
 
     public Header getHeader() {
@@ -41,7 +41,15 @@ public class BlockUpdate {
 
     public static BlockUpdate fromBytes(byte[] bytes) {
         ObjectReader r = Context.newByteArrayObjectReader("RLP", bytes);
-        return BlockUpdate.readObject(r);
+        BlockUpdate blockUpdate = BlockUpdate.readObject(r);
+        byte[][] items = Header.items(bytes);
+        if (items.length != blockUpdate.headers.size()) {
+            throw BMVException.unknown("invalid block update");
+        }
+        for (int i = 0; i < items.length; i++) {
+            blockUpdate.headers.get(i).retain(items[i]);
+        }
+        return blockUpdate;
     }
 
     public List<Header> getHeaders() {
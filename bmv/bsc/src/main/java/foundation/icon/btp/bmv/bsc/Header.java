@@ -15,6 +15,7 @@
  */
 package foundation.icon.btp.bmv.bsc;
 
+import foundation.icon.score.util.RLPUtil;
 import score.ByteArrayObjectWriter;
 import score.Context;
 import score.ObjectReader;
@@ -52,6 +53,8 @@ public class Header {
     private Hash mixDigest;
     private byte[] nonce;
 
+    // original encoding, if it's decoded from bytes
+    private byte[] bytes;
     // caches
     private Hash hashCache;
 
@@ -121,15 +124,68 @@ public class Header {
 
     public static Header fromBytes(byte[] bytes) {
         ObjectReader r = Context.newByteArrayObjectReader("RLP", bytes);
-        return Header.readObject(r);
+        Header header = Header.readObject(r);
+        header.bytes = bytes;
+        return header;
+    }
+
+    /**
+     * Keeps the original encoding of the header decoded inline, so that the hash is
+     * calculated with it instead of re-encoding.
+     */
+    void retain(byte[] bytes) {
+        this.bytes = bytes;
     }
 
     public byte[] toBytes() {
+        if (bytes != null) {
+            return bytes;
+        }
         ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLP");
         writeObject(w, this);
         return w.toByteArray();
     }
 
+    /**
+     * Splits the RLP encoded list into the encodings of its items.
+     * Each item must be in the bounds of the list, and the list must end at the end of the bytes.
+     *
+     * @throws BMVException if the bytes is not a well-formed RLP encoded list
+     */
+    static byte[][] items(byte[] b) {
+        long[] h = header(b, 0, b.length);
+        if (b.length == 0 || (b[0] & 0xff) < 0xc0 || h[0] + h[1] != b.length) {
+            throw BMVException.unknown("invalid rlp list");
+        }
+        int offset = (int) h[0];
+        List<byte[]> list = new ArrayList<>();
+        while (offset < b.length) {
+            long[] ih = header(b, offset, b.length);
+            int len = (int) (ih[0] + ih[1]);
+            list.add(Arrays.copyOfRange(b, offset, offset + len));
+            offset += len;
+        }
+        byte[][] items = new byte[list.size()][];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = list.get(i);
+        }
+        return items;
+    }
+
+    /**
+     * Reads RLP header of the item at the offset, which must end before the end.
+     *
+     * @return {length of header, length of payload}
+     * @throws BMVException if the item is out of bounds
+     */
+    static long[] header(byte[] b, int offset, int end) {
+        try {
+            return RLPUtil.header(b, offset, end);
+        } catch (IllegalArgumentException e) {
+            throw BMVException.unknown(e.getMessage());
+        }
+    }
+
     public Hash getHash() {
         if (hashCache == null) {
             hashCache = Hash.of(Context.hash("keccak-256", toBytes()));
@@ -26,15 +26,23 @@ public class MessageProof {
     // block hash
     private Hash id;
     private List<ReceiptProof> proofs;
+    // deduplicated nodes for all proofs, then merkle proof of each ReceiptProof is omitted
+    private byte[][] nodes;
 
     public MessageProof(Hash id, List<ReceiptProof> proofs) {
+        this(id, proofs, null);
+    }
+
+    public MessageProof(Hash id, List<ReceiptProof> proofs, byte[][] nodes) {
         this.id = id;
         this.proofs = Collections.unmodifiableList(proofs);
+        this.nodes = nodes;
     }
 
     public static MessageProof readObject(ObjectReader r) {
         Hash id;
         List<ReceiptProof> proofs = new ArrayList<>();
+        byte[][] nodes = null;
 
         r.beginList();
         id = r.read(Hash.class);
@@ -43,8 +51,20 @@ public class MessageProof {
             proofs.add(r.read(ReceiptProof.class));
         }
         r.end();
+        if (r.hasNext()) {
+            List<byte[]> nodeList = new ArrayList<>();
+            r.beginList();
+            while (r.hasNext()) {
+                nodeList.add(r.readByteArray());
+            }
+            r.end();
+            nodes = new byte[nodeList.size()][];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = nodeList.get(i);
+            }
+        }
         r.end();
-        return new MessageProof(id, proofs);
+        return new MessageProof(id, proofs, nodes);
     }
 
     public static MessageProof fromBytes(byte[] bytes) {
@@ -60,6 +80,10 @@ public class MessageProof {
         return proofs;
     }
 
+    public byte[][] getNodes() {
+        return nodes;
+    }
+
     @Override
     public String toString() {
         return "MessageProof{" +
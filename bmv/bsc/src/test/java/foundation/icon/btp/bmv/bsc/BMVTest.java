@@ -12,6 +12,7 @@ import org.junit.jupiter.api.TestFactory;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -49,6 +50,35 @@ public class BMVTest extends TestBase {
         }
     }
 
+    public static void handleFragmentTest(DataSource.Case c, Score bmv, String prev) {
+        final int fragments = 3;
+        System.out.println("case: " + c.getDescription());
+        for (DataSource.Case.Phase p : c.getPhases()) {
+            System.out.println("phase: " + p.getDescription());
+            byte[] relayMsg = StringUtil.hexToBytes(p.getInput());
+            List<String> messages = p.getMessages();
+            List<byte[]> ret = new ArrayList<>();
+            for (int i = 0; i < fragments; i++) {
+                byte[] fragment = Arrays.copyOfRange(relayMsg,
+                        relayMsg.length * i / fragments, relayMsg.length * (i + 1) / fragments);
+                int idx = i == 0 ? -(fragments - 1) : fragments - 1 - i;
+                // messages returned by the former fragments are received by BMC
+                byte[][] msgs = (byte[][]) sm.call(BMC, BigInteger.ZERO, bmv.getAddress(), "handleFragment",
+                        BMC_BTP_ADDR.toString(), prev, BigInteger.valueOf(ret.size()), fragment, idx);
+                ret.addAll(Arrays.asList(msgs));
+            }
+
+            if (messages.size() > 0) {
+                assertEquals(messages.size(), ret.size());
+                for (int i=0; i<messages.size(); i++) {
+                    assertEquals(messages.get(i), new String(ret.get(i)));
+                }
+            }
+            BMVStatus status = bmv.call(BMVStatus.class, "getStatus");
+            assertEquals(p.getStatus().getHeight(), status.getHeight());
+        }
+    }
+
     public static class MainNetBMVTest {
         private static final DataSource data = DataSource.loadDataSource("mainnet.json");
         @TestFactory
@@ -85,5 +115,20 @@ public class BMVTest extends TestBase {
             }
             return t;
         }
+
+        @TestFactory
+        public Collection<DynamicTest> handleFragmentTests() {
+            DataSource.ConstructorParams params = data.getParams();
+            List<DynamicTest> t = new ArrayList<>();
+            for (DataSource.Case c : data.getCases()) {
+                t.add(DynamicTest.dynamicTest(c.getDescription(),
+                        () -> {
+                            Score bmv = deployBmv(params);
+                            handleFragmentTest(c, bmv, PREV_BMC.toString());
+                        }
+                ));
+            }
+            return t;
+        }
     }
 }
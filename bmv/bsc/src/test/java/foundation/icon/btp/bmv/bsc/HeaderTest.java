@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package foundation.icon.btp.bmv.bsc;
+
+import com.iconloop.score.test.TestBase;
+import org.junit.jupiter.api.Test;
+import score.ByteArrayObjectWriter;
+import score.Context;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HeaderTest extends TestBase {
+
+    static byte[] bytes(int... values) {
+        byte[] b = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            b[i] = (byte) values[i];
+        }
+        return b;
+    }
+
+    static Header header(long number) {
+        return new Header(Hash.EMPTY, Header.UNCLE_HASH, new EthAddress(new byte[EthAddress.ADDRESS_LEN]),
+                Hash.EMPTY, Hash.EMPTY, Hash.EMPTY, new byte[256], Header.INTURN_DIFF,
+                BigInteger.valueOf(number), Header.MIN_GAS_LIMIT, BigInteger.ZERO, number,
+                new byte[Header.EXTRA_VANITY + Header.EXTRA_SEAL], Hash.EMPTY, new byte[8]);
+    }
+
+    @Test
+    void itemsShouldSplitList() {
+        byte[][] items = Header.items(bytes(0xc4, 0x01, 0x82, 0xaa, 0xbb));
+        assertEquals(2, items.length);
+        assertArrayEquals(bytes(0x01), items[0]);
+        assertArrayEquals(bytes(0x82, 0xaa, 0xbb), items[1]);
+    }
+
+    @Test
+    void itemsShouldRejectMalformed() {
+        //not a list
+        assertThrows(BMVException.class, () -> Header.items(bytes(0x82, 0xaa, 0xbb)));
+        //empty
+        assertThrows(BMVException.class, () -> Header.items(bytes()));
+        //list longer than bytes
+        assertThrows(BMVException.class, () -> Header.items(bytes(0xc5, 0x01, 0x82, 0xaa, 0xbb)));
+        //trailing bytes
+        assertThrows(BMVException.class, () -> Header.items(bytes(0xc1, 0x01, 0x02)));
+        //item over the end of list
+        assertThrows(BMVException.class, () -> Header.items(bytes(0xc2, 0x82, 0xaa)));
+        //long form with zero length
+        assertThrows(BMVException.class, () -> Header.items(bytes(0xc3, 0xb8, 0x00, 0x01)));
+        //long form with truncated length
+        assertThrows(BMVException.class, () -> Header.items(bytes(0xc2, 0x01, 0xb9)));
+        //long form with length over int
+        assertThrows(BMVException.class, () -> Header.items(
+                bytes(0xca, 0xbf, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xf0, 0x01)));
+        assertThrows(BMVException.class, () -> Header.items(bytes(0xc6, 0xbb, 0xff, 0xff, 0xff, 0xff, 0x01)));
+    }
+
+    @Test
+    void blockUpdateShouldKeepEncodingOfHeaders() {
+        Header h1 = header(1);
+        Header h2 = header(2);
+        ByteArrayObjectWriter w = Context.newByteArrayObjectWriter("RLP");
+        w.beginList(2);
+        w.write(h1);
+        w.write(h2);
+        w.end();
+        byte[] bytes = w.toByteArray();
+
+        BlockUpdate blockUpdate = BlockUpdate.fromBytes(bytes);
+        assertEquals(2, blockUpdate.getHeaders().size());
+        assertArrayEquals(h1.toBytes(), blockUpdate.getHeaders().get(0).toBytes());
+        assertEquals(h2.getHash(), blockUpdate.getHeaders().get(1).getHash());
+    }
+
+    @Test
+    void relayMessageShouldRejectMalformedBlockUpdate() {
+        byte[] truncated = bytes(0xf9, 0x01);
+        assertThrows(BMVException.class, () ->
+                new RelayMessage.TypePrefixedMessage(RelayMessage.TypePrefixedMessage.BLOCK_UPDATE, truncated)
+                        .getMessage());
+    }
+}
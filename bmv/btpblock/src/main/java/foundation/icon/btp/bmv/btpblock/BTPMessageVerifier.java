@@ -19,6 +19,8 @@ package foundation.icon.btp.bmv.btpblock;
 import foundation.icon.btp.lib.BMV;
 import foundation.icon.btp.lib.BMVStatus;
 import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.lib.IncrementalBMV;
+import foundation.icon.btp.lib.RelayMessageStream;
 import foundation.icon.score.util.Logger;
 import foundation.icon.score.util.StringUtil;
 import score.Address;
@@ -31,11 +33,12 @@ import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.List;
 
-public class BTPMessageVerifier implements BMV {
+public class BTPMessageVerifier implements BMV, IncrementalBMV {
     private static final Logger logger = Logger.getLogger(BTPMessageVerifier.class);
     private static String HASH = "keccak-256";
     private static String SIGNATURE_ALG = "ecdsa-secp256k1";
     private final VarDB<BMVProperties> propertiesDB = Context.newVarDB("properties", BMVProperties.class);
+    private final VarDB<RelayMessageStream> streamDB = Context.newVarDB("stream", RelayMessageStream.class);
 
     public BTPMessageVerifier(String srcNetworkID, int networkTypeID, Address bmc, byte[] blockHeader, BigInteger seqOffset) {
         BMVProperties bmvProperties = getProperties();
@@ -60,7 +63,46 @@ public class BTPMessageVerifier implements BMV {
         var seq = bmvProperties.getSequenceOffset().add(lastSeq);
         if (seq.compareTo(_seq) != 0) throw BMVException.unknown("invalid sequence");
         RelayMessage relayMessages = RelayMessage.fromBytes(_msg);
-        RelayMessage.TypePrefixedMessage[] typePrefixedMessages = relayMessages.getMessages();
+        return handleTypePrefixedMessages(relayMessages.getMessages());
+    }
+
+    @External
+    public byte[][] handleFragment(String _bmc, String _prev, BigInteger _seq, byte[] _msg, int _idx) {
+        BTPAddress curAddr = BTPAddress.valueOf(_bmc);
+        BTPAddress prevAddr = BTPAddress.valueOf(_prev);
+        checkAccessible(curAddr, prevAddr);
+        var bmvProperties = getProperties();
+        var lastSeq = bmvProperties.getLastSequence();
+        var seq = bmvProperties.getSequenceOffset().add(lastSeq);
+        if (seq.compareTo(_seq) != 0) throw BMVException.unknown("invalid sequence");
+        RelayMessageStream stream;
+        List<byte[]> messages;
+        try {
+            if (_idx < 0) {
+                stream = RelayMessageStream.begin(_msg);
+                messages = stream.read(null);
+            } else {
+                stream = streamDB.get();
+                if (stream == null) throw BMVException.unknown("not exists stream");
+                messages = stream.read(_msg);
+            }
+        } catch (IllegalArgumentException e) {
+            throw BMVException.unknown(e.getMessage());
+        }
+        if (_idx == 0) {
+            if (!stream.isEnd()) throw BMVException.unknown("incomplete relay message");
+            streamDB.set(null);
+        } else {
+            streamDB.set(stream);
+        }
+        var typePrefixedMessages = new RelayMessage.TypePrefixedMessage[messages.size()];
+        for (int i = 0; i < typePrefixedMessages.length; i++) {
+            typePrefixedMessages[i] = RelayMessage.TypePrefixedMessage.fromBytes(messages.get(i));
+        }
+        return handleTypePrefixedMessages(typePrefixedMessages);
+    }
+
+    private byte[][] handleTypePrefixedMessages(RelayMessage.TypePrefixedMessage[] typePrefixedMessages) {
         BlockUpdate blockUpdate = null;
         List<byte[]> msgList = new ArrayList<>();
         for (RelayMessage.TypePrefixedMessage message : typePrefixedMessages) {
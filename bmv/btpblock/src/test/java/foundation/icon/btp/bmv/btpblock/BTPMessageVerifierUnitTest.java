@@ -30,6 +30,8 @@ import score.RevertedException;
 import score.UserRevertedException;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -284,6 +286,45 @@ public class BTPMessageVerifierUnitTest extends TestBase {
 
     }
 
+    /***
+     * Scenario7 : success cases with fragments
+     */
+    @Order(7)
+    @Test
+    public void scenario7() throws Exception {
+        successCaseWithFragments(SUCCESS_RELAY_MESSAGE1, SUCCESS_MESSAGES1, 3);
+        successCaseWithFragments(SUCCESS_RELAY_MESSAGE2, SUCCESS_MESSAGES2, 7);
+    }
+
+    private void successCaseWithFragments(List<String> relayMessages, List<String[]> messages, int fragments) throws Exception {
+        score = sm.deploy(owner, BTPMessageVerifier.class,
+                SRC_NETWORK_ID,
+                2,
+                Address.fromString(bmc.account()),
+                StringUtil.hexToBytes(relayMessages.get(0)),
+                BigInteger.ZERO
+        );
+        var seq = 0;
+        for (int i = 0; i < relayMessages.size() - 1; i++) {
+            byte[] msg = StringUtil.hexToBytes(relayMessages.get(i + 1));
+            int size = msg.length / fragments + 1;
+            List<String> received = new ArrayList<>();
+            int last = (msg.length - 1) / size;
+            for (int j = 0; j <= last; j++) {
+                byte[] fragment = Arrays.copyOfRange(msg, j * size, Math.min((j + 1) * size, msg.length));
+                int idx = j == 0 ? -last : last - j;
+                byte[][] ret = (byte[][]) sm.call(bmcAccount, BigInteger.ZERO, score.getAddress(),
+                        "handleFragment",
+                        bmc.toString(), prev.toString(), BigInteger.valueOf(seq), fragment, idx);
+                seq += ret.length;
+                for (byte[] r : ret) {
+                    received.add(new String(r));
+                }
+            }
+            assertEquals(List.of(messages.get(i)), received);
+        }
+    }
+
     private void successCase(List<String> relayMessages, List<String[]> messages) throws Exception {
         score = sm.deploy(owner, BTPMessageVerifier.class,
                 SRC_NETWORK_ID,
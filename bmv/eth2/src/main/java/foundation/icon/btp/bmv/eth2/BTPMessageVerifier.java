@@ -18,6 +18,10 @@ package foundation.icon.btp.bmv.eth2;
 import foundation.icon.btp.lib.BMV;
 import foundation.icon.btp.lib.BMVStatus;
 import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.lib.IncrementalBMV;
+import foundation.icon.btp.lib.Lanes;
+import foundation.icon.btp.lib.MerklePatriciaTree;
+import foundation.icon.btp.lib.RelayMessageStream;
 import foundation.icon.score.util.Logger;
 import foundation.icon.score.util.StringUtil;
 import score.Address;
@@ -31,9 +35,13 @@ import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.List;
 
-public class BTPMessageVerifier implements BMV {
+public class BTPMessageVerifier implements BMV, IncrementalBMV {
     private static final Logger logger = Logger.getLogger(BTPMessageVerifier.class);
+    private static final MerklePatriciaTree mpt = new MerklePatriciaTree("RLPn", "keccak-256");
     private final VarDB<BMVProperties> propertiesDB = Context.newVarDB("properties", BMVProperties.class);
+    private final VarDB<RelayMessageStream> streamDB = Context.newVarDB("stream", RelayMessageStream.class);
+    // last BlockProof of the stream, MessageProof in the following fragments is proved with it
+    private final VarDB<byte[]> streamBlockProofDB = Context.newVarDB("streamBlockProof", byte[].class);
     private final String eventSignature = "Message(string,uint256,bytes)";
     private final byte[] eventSignatureTopic = Context.hash("keccak-256", eventSignature.getBytes());
 
@@ -74,10 +82,66 @@ public class BTPMessageVerifier implements BMV {
         BTPAddress curAddr = BTPAddress.valueOf(_bmc);
         BTPAddress prevAddr = BTPAddress.valueOf(_prev);
         checkAccessible(curAddr, prevAddr);
+        followPriorityLane(_seq);
         RelayMessage relayMessages = RelayMessage.fromBytes(_msg);
-        RelayMessage.TypePrefixedMessage[] typePrefixedMessages = relayMessages.getMessages();
-        BlockProof blockProof = null;
         List<byte[]> msgList = new ArrayList<>();
+        handleTypePrefixedMessages(relayMessages.getMessages(), null, msgList);
+        return toArray(msgList);
+    }
+
+    @External
+    public byte[][] handleFragment(String _bmc, String _prev, BigInteger _seq, byte[] _msg, int _idx) {
+        logger.println("handleFragment, idx : ", _idx, ", msg : ", StringUtil.toString(_msg));
+        BTPAddress curAddr = BTPAddress.valueOf(_bmc);
+        BTPAddress prevAddr = BTPAddress.valueOf(_prev);
+        checkAccessible(curAddr, prevAddr);
+        followPriorityLane(_seq);
+        RelayMessageStream stream;
+        List<byte[]> messages;
+        try {
+            if (_idx < 0) {
+                stream = RelayMessageStream.begin(_msg);
+                messages = stream.read(null);
+            } else {
+                stream = streamDB.get();
+                if (stream == null) throw BMVException.unknown("not exists stream");
+                messages = stream.read(_msg);
+            }
+        } catch (IllegalArgumentException e) {
+            throw BMVException.unknown(e.getMessage());
+        }
+        byte[] blockProofBytes = _idx < 0 ? null : streamBlockProofDB.get();
+        BlockProof blockProof = blockProofBytes == null ? null :
+                (BlockProof) RelayMessage.TypePrefixedMessage.fromBytes(blockProofBytes).getMessage();
+        var typePrefixedMessages = new RelayMessage.TypePrefixedMessage[messages.size()];
+        for (int i = 0; i < typePrefixedMessages.length; i++) {
+            typePrefixedMessages[i] = RelayMessage.TypePrefixedMessage.fromBytes(messages.get(i));
+            if (typePrefixedMessages[i].getType() == RelayMessage.TypePrefixedMessage.BLOCK_PROOF) {
+                blockProofBytes = messages.get(i);
+            }
+        }
+        List<byte[]> msgList = new ArrayList<>();
+        handleTypePrefixedMessages(typePrefixedMessages, blockProof, msgList);
+        if (_idx == 0) {
+            if (!stream.isEnd()) throw BMVException.unknown("incomplete relay message");
+            streamDB.set(null);
+            streamBlockProofDB.set(null);
+        } else {
+            streamDB.set(stream);
+            streamBlockProofDB.set(blockProofBytes);
+        }
+        return toArray(msgList);
+    }
+
+    /**
+     * Processes TypePrefixedMessages in order, MessageProof is proved with the last BlockProof.
+     *
+     * @param typePrefixedMessages messages to process
+     * @param blockProof BlockProof received before the messages, it could be null
+     * @param msgList list to add BTP Messages
+     */
+    private void handleTypePrefixedMessages(RelayMessage.TypePrefixedMessage[] typePrefixedMessages,
+                                            BlockProof blockProof, List<byte[]> msgList) {
         for (RelayMessage.TypePrefixedMessage message : typePrefixedMessages) {
             Object msg = message.getMessage();
             if (msg instanceof BlockUpdate) {
@@ -93,6 +157,9 @@ public class BTPMessageVerifier implements BMV {
                 msgList.addAll(msgs);
             }
         }
+    }
+
+    private static byte[][] toArray(List<byte[]> msgList) {
         var retSize = msgList.size();
         var ret = new byte[retSize][];
         for (int i = 0; i < retSize; i ++)
@@ -229,9 +296,27 @@ public class BTPMessageVerifier implements BMV {
         propertiesDB.set(properties);
     }
 
+    /**
+     * Takes the sequence of the priority lane from _seq, and keeps the one of the normal lane.
+     * BMC restarts the priority lane from zero whenever the lanes are switched, see Lanes,
+     * so the verifier follows it instead of its own counter.
+     */
+    private void followPriorityLane(BigInteger _seq) {
+        var properties = getProperties();
+        var seqs = Lanes.split(properties.getLastMsgSeq());
+        var prioritySeq = Lanes.split(_seq)[Lanes.PRIORITY];
+        if (seqs[Lanes.PRIORITY].compareTo(prioritySeq) != 0) {
+            logger.println("followPriorityLane, ", "from : ", seqs[Lanes.PRIORITY], ", to : ", prioritySeq);
+            seqs[Lanes.PRIORITY] = prioritySeq;
+            properties.setLastMsgSeq(Lanes.combine(seqs));
+            propertiesDB.set(properties);
+        }
+    }
+
     private List<byte[]> processMessageProof(MessageProof messageProof, BlockProof blockProof) {
         var properties = getProperties();
-        var seq = properties.getLastMsgSeq();
+        // sequences of the lanes, see Lanes
+        var seqs = Lanes.split(properties.getLastMsgSeq());
         var beaconBlockHeader = blockProof.getLightClientHeader().getBeacon();
         var stateRoot = beaconBlockHeader.getStateRoot();
         var receiptRootProof = messageProof.getReceiptRootProof();
@@ -239,9 +324,7 @@ public class BTPMessageVerifier implements BMV {
         SszUtils.verify(stateRoot, receiptRootProof);
         var receiptsRoot = receiptRootProof.getLeaf();
         var messageList = new ArrayList<byte[]>();
-        for (ReceiptProof rp : messageProof.getReceiptProofs()) {
-            logger.println("processMessageProof, ", "mpt prove", ", receiptProof key : ", StringUtil.bytesToHex(rp.getKey()));
-            var value = MerklePatriciaTree.prove(receiptsRoot, rp.getKey(), rp.getProofs());
+        for (byte[] value : proveReceiptProofs(receiptsRoot, messageProof)) {
             var receipt = Receipt.fromBytes(value);
             logger.println("processMessageProof, ", "receipt : ", receipt);
             for (Log log : receipt.getLogs()) {
@@ -249,21 +332,45 @@ public class BTPMessageVerifier implements BMV {
                 var signature = topics[0];
                 if (!Arrays.equals(signature, eventSignatureTopic)) continue;
                 var msgSeq = new BigInteger(topics[2]);
-                seq = seq.add(BigInteger.ONE);
-                if (seq.compareTo(msgSeq) != 0) throw BMVException.unknown("invalid message sequence");
+                var lane = Lanes.laneOf(msgSeq);
+                if (lane < 0) throw BMVException.unknown("invalid message sequence");
+                seqs[lane] = seqs[lane].add(BigInteger.ONE);
+                if (seqs[lane].compareTo(Lanes.seqOf(msgSeq)) != 0) throw BMVException.unknown("invalid message sequence");
                 var msg = log.getMessage();
                 messageList.add(msg);
             }
         }
         var cnt = messageList.size();
         if (cnt != 0) {
-            properties.setLastMsgSeq(seq);
+            properties.setLastMsgSeq(Lanes.combine(seqs));
             properties.setLastMsgSlot(beaconBlockHeader.getSlot());
             propertiesDB.set(properties);
         }
         return messageList;
     }
 
+    /**
+     * Proves receipts, if the deduplicated nodes are given, all receipts are verified as a batch.
+     */
+    private byte[][] proveReceiptProofs(byte[] receiptsRoot, MessageProof messageProof) {
+        var receiptProofs = messageProof.getReceiptProofs();
+        var receiptNodes = messageProof.getReceiptNodes();
+        if (receiptNodes != null) {
+            var keys = new byte[receiptProofs.length][];
+            for (int i = 0; i < receiptProofs.length; i++)
+                keys[i] = receiptProofs[i].getKey();
+            logger.println("processMessageProof, ", "mpt prove", ", receiptProofs : ", receiptProofs.length, ", nodes : ", receiptNodes.length);
+            return mpt.prove(receiptsRoot, keys, receiptNodes);
+        }
+        var values = new byte[receiptProofs.length][];
+        for (int i = 0; i < receiptProofs.length; i++) {
+            var rp = receiptProofs[i];
+            logger.println("processMessageProof, ", "mpt prove", ", receiptProof key : ", StringUtil.bytesToHex(rp.getKey()));
+            values[i] = mpt.prove(receiptsRoot, rp.getKey(), rp.getProofs());
+        }
+        return values;
+    }
+
     private void checkAccessible(BTPAddress curAddr, BTPAddress fromAddress) {
         BMVProperties properties = getProperties();
         if (!properties.getNetwork().equals(fromAddress.net())) {
@@ -26,6 +26,8 @@ public class MessageProof {
     private BigInteger slot;
     private Proof receiptRootProof;
     private ReceiptProof[] receiptProofs;
+    // deduplicated nodes for all receiptProofs, then proofs of each receiptProof are omitted
+    private byte[][] receiptNodes;
 
     public BigInteger getSlot() {
         return slot;
@@ -39,10 +41,19 @@ public class MessageProof {
         return receiptProofs;
     }
 
+    public byte[][] getReceiptNodes() {
+        return receiptNodes;
+    }
+
     public MessageProof(BigInteger slot, Proof sszProof, ReceiptProof[] receiptProofs) {
+        this(slot, sszProof, receiptProofs, null);
+    }
+
+    public MessageProof(BigInteger slot, Proof sszProof, ReceiptProof[] receiptProofs, byte[][] receiptNodes) {
         this.slot = slot;
         this.receiptRootProof = sszProof;
         this.receiptProofs = receiptProofs;
+        this.receiptNodes = receiptNodes;
     }
 
     public static MessageProof readObject(ObjectReader r) {
@@ -58,8 +69,19 @@ public class MessageProof {
         var receiptsProofs = new ReceiptProof[receiptsProofLen];
         for (int i = 0; i < receiptsProofLen; i++)
             receiptsProofs[i] = receiptsProofList.get(i);
+        byte[][] receiptNodes = null;
+        if (r.hasNext()) {
+            var nodeList = new ArrayList<byte[]>();
+            r.beginList();
+            while(r.hasNext())
+                nodeList.add(r.readByteArray());
+            r.end();
+            receiptNodes = new byte[nodeList.size()][];
+            for (int i = 0; i < receiptNodes.length; i++)
+                receiptNodes[i] = nodeList.get(i);
+        }
         r.end();
-        return new MessageProof(slot, proof, receiptsProofs);
+        return new MessageProof(slot, proof, receiptsProofs, receiptNodes);
     }
 
     public static MessageProof fromBytes(byte[] bytes) {
@@ -73,6 +95,7 @@ public class MessageProof {
                 "slot=" + slot +
                 ", receiptRootProof=" + receiptRootProof +
                 ", receiptProofs=" + StringUtil.toString(receiptProofs) +
+                ", receiptNodes=" + StringUtil.toString(receiptNodes) +
                 '}';
     }
 }
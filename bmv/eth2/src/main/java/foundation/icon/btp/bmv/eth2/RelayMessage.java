@@ -102,6 +102,10 @@ public class RelayMessage {
             this.payload = payload;
         }
 
+        public int getType() {
+            return type;
+        }
+
         public Object getMessage() {
             try {
                 logger.println("getMessage, type = " + type);
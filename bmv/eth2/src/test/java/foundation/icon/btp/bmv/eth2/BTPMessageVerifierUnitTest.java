@@ -12,6 +12,7 @@ import score.Address;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -49,6 +50,34 @@ public class BTPMessageVerifierUnitTest extends TestBase {
             assertEquals(p.getStatus().getHeight(), status.getHeight());
         }
     }
+
+    public static void handleFragmentTest(DataSource.Case c, Score bmv, String net, String bmc, String prev) {
+        final int fragments = 3;
+        BigInteger seq = BigInteger.ZERO;
+        var bmcAccount = sm.getAccount(Address.fromString(bmc));
+        BTPAddress bmcBtpAddress = new BTPAddress(net, bmc);
+        for (DataSource.Case.Phase p : c.getPhases()) {
+            byte[] relayMsg = StringUtil.hexToBytes(p.getInput());
+            List<String> messages = p.getMessages();
+            int received = 0;
+            for (int i = 0; i < fragments; i++) {
+                byte[] fragment = Arrays.copyOfRange(relayMsg,
+                        relayMsg.length * i / fragments, relayMsg.length * (i + 1) / fragments);
+                int idx = i == 0 ? -(fragments - 1) : fragments - 1 - i;
+                byte[][] ret = (byte[][]) sm.call(bmcAccount, BigInteger.ZERO, bmv.getAddress(), "handleFragment",
+                        bmcBtpAddress.toString(), prev, seq, fragment, idx);
+                received += ret.length;
+            }
+
+            if (messages.size() > 0) {
+                assertEquals(messages.size(), received);
+                seq = seq.add(BigInteger.valueOf(received));
+            }
+            BMVStatus status = bmv.call(BMVStatus.class, "getStatus");
+            assertEquals(p.getStatus().getHeight(), status.getHeight());
+        }
+    }
+
     public static class Sepolia {
         private static final DataSource sepoliaData = DataSource.loadDataSource("sepolia.json");
         private static final DataSource historicalSummaryData = DataSource.loadDataSource("historicalRoot.json");
@@ -71,5 +100,23 @@ public class BTPMessageVerifierUnitTest extends TestBase {
             }
             return t;
         }
+
+        @TestFactory
+        public Collection<DynamicTest> handleFragmentTests() {
+            DataSource[] dataSources = {sepoliaData, historicalSummaryData};
+            List<DynamicTest> t = new ArrayList<>();
+            for (DataSource d : dataSources) {
+                DataSource.ConstructorParams params = d.getParams();
+                for (DataSource.Case c : d.getCases()) {
+                    t.add(DynamicTest.dynamicTest(c.getDescription(),
+                            () -> {
+                                Score bmv = deployBmv(params);
+                                handleFragmentTest(c, bmv, NET, params.getBmc(), PREV_BMC);
+                            }
+                    ));
+                }
+            }
+            return t;
+        }
     }
 }
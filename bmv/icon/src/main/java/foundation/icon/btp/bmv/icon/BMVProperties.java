@@ -16,6 +16,7 @@
 
 package foundation.icon.btp.bmv.icon;
 
+import foundation.icon.score.util.StringUtil;
 import score.*;
 
 public class BMVProperties {
@@ -30,6 +31,8 @@ public class BMVProperties {
     private long lastHeight;
     private Validators validators;
     private MerkleTreeAccumulator mta;
+    //hash of validators, null if it's stored by the previous version
+    private byte[] validatorsHash;
 
     public Address getBmc() {
         return bmc;
@@ -71,6 +74,14 @@ public class BMVProperties {
         this.mta = mta;
     }
 
+    public byte[] getValidatorsHash() {
+        return validatorsHash;
+    }
+
+    public void setValidatorsHash(byte[] validatorsHash) {
+        this.validatorsHash = validatorsHash;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("BMVProperties{");
@@ -79,6 +90,7 @@ public class BMVProperties {
         sb.append(", lastHeight=").append(lastHeight);
         sb.append(", validators=").append(validators);
         sb.append(", mta=").append(mta);
+        sb.append(", validatorsHash=").append(StringUtil.toString(validatorsHash));
         sb.append('}');
         return sb.toString();
     }
@@ -95,12 +107,15 @@ public class BMVProperties {
         obj.setLastHeight(reader.readLong());
         obj.setValidators(reader.readNullable(Validators.class));
         obj.setMta(reader.readNullable(MerkleTreeAccumulator.class));
+        if (reader.hasNext()) {
+            obj.setValidatorsHash(reader.readNullable(byte[].class));
+        }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(5);
+        writer.beginList(6);
         writer.writeNullable(this.getBmc());
         writer.writeNullable(this.getNet());
         writer.write(this.getLastHeight());
@@ -108,6 +123,7 @@ public class BMVProperties {
         writer.writeNullable(validators);
         MerkleTreeAccumulator mta = this.getMta();
         writer.writeNullable(mta);
+        writer.writeNullable(this.getValidatorsHash());
         writer.end();
     }
 
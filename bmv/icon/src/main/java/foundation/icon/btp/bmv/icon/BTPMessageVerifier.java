@@ -19,6 +19,8 @@ package foundation.icon.btp.bmv.icon;
 import foundation.icon.btp.lib.BMV;
 import foundation.icon.btp.lib.BMVStatus;
 import foundation.icon.btp.lib.BTPAddress;
+import foundation.icon.btp.lib.Lanes;
+import foundation.icon.btp.lib.MerklePatriciaTree;
 import foundation.icon.score.util.Logger;
 import foundation.icon.score.util.StringUtil;
 import score.Address;
@@ -34,6 +36,8 @@ import java.util.List;
 public class BTPMessageVerifier implements BMV {
     private static final Logger logger = Logger.getLogger(BTPMessageVerifier.class);
 
+    private static final String MTA_ID = "mta";
+    private static final MerklePatriciaTree mpt = new MerklePatriciaTree("RLPn", "sha3-256");
     private final VarDB<BMVProperties> properties = Context.newVarDB("properties", BMVProperties.class);
 
     public BTPMessageVerifier(Address _bmc, String _net, String _validators, long _offset) {
@@ -41,7 +45,11 @@ public class BTPMessageVerifier implements BMV {
         properties.setBmc(_bmc);
         properties.setNet(_net);
         Validators validators = Validators.fromString(_validators);
+        if (validators.hasDuplicate()) {
+            throw BMVException.unknown("duplicated validator");
+        }
         properties.setValidators(validators);
+        properties.setValidatorsHash(hash(validators.toBytes()));
         if (properties.getLastHeight() == 0) {
             properties.setLastHeight(_offset);
         }
@@ -51,6 +59,8 @@ public class BTPMessageVerifier implements BMV {
             mta.setOffset(_offset);
             properties.setMta(mta);
         }
+        //migrates roots and cache which are stored in properties by the previous version
+        properties.getMta().bind(MTA_ID);
         setProperties(properties);
     }
 
@@ -84,12 +94,10 @@ public class BTPMessageVerifier implements BMV {
         BlockHeader lastBlockHeader;
         BMVProperties properties = getProperties();
         MerkleTreeAccumulator mta = properties.getMta();
+        mta.bind(MTA_ID);
         if (blockUpdates != null && blockUpdates.length > 0) {
-            Validators validators = verifyBlockUpdates(blockUpdates, mta, properties.getValidators());
+            verifyBlockUpdates(blockUpdates, mta, properties);
             properties.setMta(mta);
-            if (validators != null) {
-                properties.setValidators(validators);
-            }
             lastBlockHeader = blockUpdates[blockUpdates.length - 1].getBlockHeader();
         } else if (blockProof != null) {
             verifyBlockProof(blockProof, mta);
@@ -100,30 +108,38 @@ public class BTPMessageVerifier implements BMV {
 
         byte[][] ret = new byte[0][];
         if (receiptProofs != null && receiptProofs.length > 0) {
-            BigInteger next_seq = _seq.add(BigInteger.ONE);
+            BigInteger[] next_seqs = Lanes.split(_seq);
+            for (int i = 0; i < next_seqs.length; i++) {
+                next_seqs[i] = next_seqs[i].add(BigInteger.ONE);
+            }
             List<byte[]> msgs = new ArrayList<>();
             if (lastBlockHeader.getResult() == null) {
                 throw BMVException.unknown("invalid RelayMessage, BlockHeader has not receiptHash");
             }
             byte[] receiptHash = lastBlockHeader.getResult().getReceiptHash();
-            for(ReceiptProof receiptProof : receiptProofs) {
-                Receipt receipt = proveReceiptProof(receiptProof, receiptHash);
+            Receipt[] receipts = proveReceiptProofs(receiptProofs, relayMessage.getReceiptNodes(), receiptHash);
+            for(Receipt receipt : receipts) {
                 for(EventLog eventLog : receipt.getEventLogs()) {
                     if(!(prevAddr.account().equals(eventLog.getAddress().toString()))) {
                         continue;
                     }
                     MessageEvent msgEvent = eventLog.toMessageEvent();
                     if (msgEvent != null && msgEvent.getNext().equals(_bmc)) {
-                        int compare = msgEvent.getSeq().compareTo(next_seq);
+                        int lane = Lanes.laneOf(msgEvent.getSeq());
+                        if (lane < 0) {
+                            throw BMVException.invalidSequence("invalid sequence "+msgEvent.getSeq());
+                        }
+                        BigInteger next_seq = next_seqs[lane];
+                        int compare = Lanes.seqOf(msgEvent.getSeq()).compareTo(next_seq);
                         if (compare > 0) {
                             throw BMVException.invalidSequenceHigher(
-                                    "invalid sequence "+msgEvent.getSeq() + " expected:"+next_seq);
+                                    "invalid sequence "+msgEvent.getSeq() + " expected:"+Lanes.tag(lane, next_seq));
                         } else if (compare < 0) {
                             throw BMVException.invalidSequence(
-                                    "invalid sequence "+msgEvent.getSeq() + " expected:"+next_seq);
+                                    "invalid sequence "+msgEvent.getSeq() + " expected:"+Lanes.tag(lane, next_seq));
                         } else {
                             msgs.add(msgEvent.getMsg());
-                            next_seq = next_seq.add(BigInteger.ONE);
+                            next_seqs[lane] = next_seq.add(BigInteger.ONE);
                         }
                     }
                 }
@@ -144,37 +160,63 @@ public class BTPMessageVerifier implements BMV {
         return ret;
     }
 
-    private Receipt proveReceiptProof(ReceiptProof receiptProof, byte[] receiptHash) {
+    /**
+     * Proves receipts and their event logs, if the deduplicated nodes are given,
+     * the proofs against the same root are verified as a batch.
+     */
+    private Receipt[] proveReceiptProofs(ReceiptProof[] receiptProofs, byte[][] receiptNodes, byte[] receiptHash) {
         try {
-            byte[] serializedReceipt = MerklePatriciaTree.prove(
-                    receiptHash,
-                    MerklePatriciaTree.encodeKey(receiptProof.getIndex()),
-                    receiptProof.getProofs().getProofs());
-            Receipt receipt = Receipt.fromBytes(serializedReceipt);
-            byte[] eventLogsHash = receipt.getEventLogsHash();
-            MPTProof[] eventProofs = receiptProof.getEventProofs();
-            if (eventProofs != null) {
-                EventLog[] eventLogs = new EventLog[eventProofs.length];
-                int i=0;
-                for(MPTProof eventProof : eventProofs){
-                    byte[] serializedEventLog = MerklePatriciaTree.prove(
-                            eventLogsHash,
-                            MerklePatriciaTree.encodeKey(eventProof.getIndex()),
-                            eventProof.getProofs().getProofs());
-                    EventLog eventLog = EventLog.fromBytes(serializedEventLog);
-                    eventLogs[i++] = eventLog;
+            byte[][] serializedReceipts = proveMPTProofs(receiptHash, receiptProofs, receiptNodes);
+            Receipt[] receipts = new Receipt[receiptProofs.length];
+            for (int i = 0; i < receiptProofs.length; i++) {
+                Receipt receipt = Receipt.fromBytes(serializedReceipts[i]);
+                MPTProof[] eventProofs = receiptProofs[i].getEventProofs();
+                if (eventProofs != null) {
+                    byte[][] serializedEventLogs = proveMPTProofs(
+                            receipt.getEventLogsHash(), eventProofs, receiptProofs[i].getEventNodes());
+                    EventLog[] eventLogs = new EventLog[eventProofs.length];
+                    for (int j = 0; j < eventProofs.length; j++) {
+                        eventLogs[j] = EventLog.fromBytes(serializedEventLogs[j]);
+                    }
+                    receipt.setEventLogs(eventLogs);
                 }
-                receipt.setEventLogs(eventLogs);
+                receipts[i] = receipt;
             }
-            return receipt;
+            return receipts;
         } catch (MerklePatriciaTree.MPTException e) {
             throw BMVException.invalidMPT(e.getMessage());
         }
     }
 
-    private Validators verifyBlockUpdates(BlockUpdate[] blockUpdates, MerkleTreeAccumulator mta, Validators validators) {
-        boolean isValidatorsUpdate = false;
-        byte[] validatorHash = hash(validators.toBytes());
+    private static byte[][] proveMPTProofs(byte[] rootHash, MPTProof[] mptProofs, byte[][] nodes) {
+        if (nodes != null) {
+            byte[][] keys = new byte[mptProofs.length][];
+            for (int i = 0; i < mptProofs.length; i++) {
+                keys[i] = mpt.encodeKey(mptProofs[i].getIndex());
+            }
+            return mpt.prove(rootHash, keys, nodes);
+        }
+        byte[][] values = new byte[mptProofs.length][];
+        for (int i = 0; i < mptProofs.length; i++) {
+            values[i] = mpt.prove(
+                    rootHash,
+                    mpt.encodeKey(mptProofs[i].getIndex()),
+                    mptProofs[i].getProofs().getProofs());
+        }
+        return values;
+    }
+
+    /**
+     * Verifies blockUpdates and updates validators and its hash in properties if they are changed.
+     */
+    static void verifyBlockUpdates(BlockUpdate[] blockUpdates, MerkleTreeAccumulator mta, BMVProperties properties) {
+        Validators validators = properties.getValidators();
+        byte[] validatorHash = properties.getValidatorsHash();
+        //not stored by the previous version
+        boolean isValidatorsUpdate = validatorHash == null;
+        if (isValidatorsUpdate) {
+            validatorHash = hash(validators.toBytes());
+        }
         for(BlockUpdate blockUpdate : blockUpdates) {
             BlockHeader blockHeader = blockUpdate.getBlockHeader();
             long blockHeight = blockHeader.getHeight();
@@ -191,6 +233,9 @@ public class BTPMessageVerifier implements BMV {
                     if (!(Arrays.equals(hash(nextValidators.toBytes()), nextValidatorHash))) {
                         throw BMVException.invalidBlockUpdate("invalid next validator hash");
                     }
+                    if (nextValidators.hasDuplicate()) {
+                        throw BMVException.invalidBlockUpdate("duplicated next validator");
+                    }
                     validators = nextValidators;
                     validatorHash = nextValidatorHash;
                     isValidatorsUpdate = true;
@@ -204,7 +249,10 @@ public class BTPMessageVerifier implements BMV {
                         "invalid blockUpdate height "+blockHeight+" expected:"+nextHeight);
             }
         }
-        return isValidatorsUpdate ? validators : null;
+        if (isValidatorsUpdate) {
+            properties.setValidators(validators);
+            properties.setValidatorsHash(validatorHash);
+        }
     }
 
     private void verifyBlockProof(BlockProof blockProof, MerkleTreeAccumulator mta) {
@@ -229,7 +277,7 @@ public class BTPMessageVerifier implements BMV {
         }
     }
 
-    private void verifyVotes(Votes votes, long blockHeight, byte[] blockHash, Validators validators) {
+    static void verifyVotes(Votes votes, long blockHeight, byte[] blockHash, Validators validators) {
         if (votes == null) {
             logger.println("verifyVotes","invalidBlockUpdate", "not exists votes");
             throw BMVException.invalidBlockUpdate("not exists votes");
@@ -240,32 +288,53 @@ public class BTPMessageVerifier implements BMV {
         voteMessage.setVoteType(VoteMessage.VOTE_TYPE_PRECOMMIT);
         voteMessage.setBlockId(blockHash);
         voteMessage.setPartSetId(votes.getPartSetId());
-        List<Address> addresses = new ArrayList<>();
+        int quorum = validators.quorum();
+        //participation of each validator
+        boolean[] voted = new boolean[validators.size()];
+        int cnt = 0;
         for(Vote vote : votes.getItems()) {
             voteMessage.setTimestamp(vote.getTimestamp());
             byte[] voteMessageHash = hash(voteMessage.toBytes());
             Address address = recoverAddress(voteMessageHash, vote.getSignature(), true);
-            if (!validators.contains(address)) {
+            int idx = indexOfVoter(validators, vote, address);
+            if (idx < 0) {
                 logger.println("verifyVotes","invalidVotes", "invalid signature",
                         "messageHash:", StringUtil.toString(voteMessageHash),
                         "signature:", StringUtil.toString(vote.getSignature()),
                         "address:",  StringUtil.toString(address.toString()));
                 throw BMVException.invalidVotes("invalid signature");
             }
-            if (addresses.contains(address)) {
+            if (voted[idx]) {
                 logger.println("verifyVotes","invalidVotes", "duplicated vote");
                 throw BMVException.invalidVotes("duplicated vote");
-            } else {
-                addresses.add(address);
+            }
+            voted[idx] = true;
+            //the rest of votes are not required
+            if (++cnt >= quorum) {
+                return;
             }
         }
 
-        if (addresses.size() <= (validators.getAddresses().length * 2 / 3)) {
+        if (cnt < quorum) {
             logger.println("verifyVotes","invalidVotes", "require votes +2/3");
             throw BMVException.invalidVotes("require votes +2/3");
         }
     }
 
+    /**
+     * @return index of the validator which signed the vote, or -1 if it's not a validator
+     */
+    private static int indexOfVoter(Validators validators, Vote vote, Address address) {
+        Integer idx = vote.getIndex();
+        if (idx == null) {
+            return validators.indexOf(address);
+        }
+        if (idx < 0 || idx >= validators.size() || !validators.getAddresses()[idx].equals(address)) {
+            return -1;
+        }
+        return idx;
+    }
+
     private void checkAccessible(BTPAddress curAddr, BTPAddress fromAddr) {
         BMVProperties properties = getProperties();
         if (!properties.getNet().equals(fromAddr.net())) {
@@ -31,6 +31,8 @@ public class BlockHeader {
     private byte[] txHash;
     private byte[] logsBloom;
     private Result result;
+    //serialized bytes which are decoded from, see fromBytes
+    private byte[] bytes;
 
     public long getVersion() {
         return version;
@@ -38,6 +40,7 @@ public class BlockHeader {
 
     public void setVersion(long version) {
         this.version = version;
+        this.bytes = null;
     }
 
     public long getHeight() {
@@ -46,6 +49,7 @@ public class BlockHeader {
 
     public void setHeight(long height) {
         this.height = height;
+        this.bytes = null;
     }
 
     public long getTimestamp() {
@@ -54,6 +58,7 @@ public class BlockHeader {
 
     public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
+        this.bytes = null;
     }
 
     public Address getProposer() {
@@ -62,6 +67,7 @@ public class BlockHeader {
 
     public void setProposer(Address proposer) {
         this.proposer = proposer;
+        this.bytes = null;
     }
 
     public byte[] getPrevHash() {
@@ -70,6 +76,7 @@ public class BlockHeader {
 
     public void setPrevHash(byte[] prevHash) {
         this.prevHash = prevHash;
+        this.bytes = null;
     }
 
     public byte[] getVoteHash() {
@@ -78,6 +85,7 @@ public class BlockHeader {
 
     public void setVoteHash(byte[] voteHash) {
         this.voteHash = voteHash;
+        this.bytes = null;
     }
 
     public byte[] getNextValidatorHash() {
@@ -86,6 +94,7 @@ public class BlockHeader {
 
     public void setNextValidatorHash(byte[] nextValidatorHash) {
         this.nextValidatorHash = nextValidatorHash;
+        this.bytes = null;
     }
 
     public byte[] getPatchTxHash() {
@@ -94,6 +103,7 @@ public class BlockHeader {
 
     public void setPatchTxHash(byte[] patchTxHash) {
         this.patchTxHash = patchTxHash;
+        this.bytes = null;
     }
 
     public byte[] getTxHash() {
@@ -102,6 +112,7 @@ public class BlockHeader {
 
     public void setTxHash(byte[] txHash) {
         this.txHash = txHash;
+        this.bytes = null;
     }
 
     public byte[] getLogsBloom() {
@@ -110,6 +121,7 @@ public class BlockHeader {
 
     public void setLogsBloom(byte[] logsBloom) {
         this.logsBloom = logsBloom;
+        this.bytes = null;
     }
 
     public Result getResult() {
@@ -118,6 +130,7 @@ public class BlockHeader {
 
     public void setResult(Result result) {
         this.result = result;
+        this.bytes = null;
     }
 
     @Override
@@ -189,10 +202,19 @@ public class BlockHeader {
 
     public static BlockHeader fromBytes(byte[] bytes) {
         ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
-        return BlockHeader.readObject(reader);
+        BlockHeader obj = BlockHeader.readObject(reader);
+        obj.bytes = bytes;
+        return obj;
     }
 
+    /**
+     * Returns the bytes which are decoded from if it's created by {@link #fromBytes(byte[])},
+     * so that the block hash is computed with the original encoding of the relay message.
+     */
     public byte[] toBytes() {
+        if (bytes != null) {
+            return bytes;
+        }
         ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
         BlockHeader.writeObject(writer, this);
         return writer.toByteArray();
@@ -59,8 +59,7 @@ public class BlockProof {
         reader.beginList();
         byte[] blockHeaderBytes = reader.readNullable(byte[].class);
         if (blockHeaderBytes != null) {
-            ObjectReader blockHeaderReader = Context.newByteArrayObjectReader("RLPn",blockHeaderBytes);
-            obj.setBlockHeader(blockHeaderReader.read(BlockHeader.class));
+            obj.setBlockHeader(BlockHeader.fromBytes(blockHeaderBytes));
         }
         obj.setBlockWitness(reader.readNullable(BlockWitness.class));
         reader.end();
@@ -69,8 +69,7 @@ public class BlockUpdate {
         reader.beginList();
         byte[] blockHeaderBytes = reader.readNullable(byte[].class);
         if (blockHeaderBytes != null) {
-            ObjectReader blockHeaderReader = Context.newByteArrayObjectReader("RLPn",blockHeaderBytes);
-            obj.setBlockHeader(blockHeaderReader.read(BlockHeader.class));
+            obj.setBlockHeader(BlockHeader.fromBytes(blockHeaderBytes));
         }
         byte[] votesBytes = reader.readNullable(byte[].class);
         if (votesBytes != null) {
@@ -79,8 +78,7 @@ public class BlockUpdate {
         }
         byte[] nextValidatorsBytes = reader.readNullable(byte[].class);
         if (nextValidatorsBytes != null) {
-            ObjectReader nextValidatorsReader = Context.newByteArrayObjectReader("RLPn",nextValidatorsBytes);
-            obj.setNextValidators(nextValidatorsReader.read(Validators.class));
+            obj.setNextValidators(Validators.fromBytes(nextValidatorsBytes));
         }
         reader.end();
         return obj;
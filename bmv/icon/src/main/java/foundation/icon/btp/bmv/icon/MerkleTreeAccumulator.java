@@ -17,8 +17,10 @@
 package foundation.icon.btp.bmv.icon;
 
 import foundation.icon.score.util.StringUtil;
+import score.ArrayDB;
 import score.ByteArrayObjectWriter;
 import score.Context;
+import score.DictDB;
 import score.ObjectReader;
 import score.ObjectWriter;
 import scorex.util.ArrayList;
@@ -26,8 +28,15 @@ import scorex.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Roots and cache are stored separately after {@link #bind(String)},
+ * and the serialized bytes contain the others only.
+ * Each hash in the cache is indexed by its position, so an old witness is checked by a single read.
+ */
 public class MerkleTreeAccumulator {
     private static final int HASH_LEN = 32;
+    //null root in ArrayDB
+    private static final byte[] EMPTY_ROOT = new byte[0];
 
     private long height;
     private byte[][] roots;
@@ -39,6 +48,14 @@ public class MerkleTreeAccumulator {
     private Boolean allowNewerWitness;
     //
     private Integer cacheIdx;
+    //length of the cache ring in the storage
+    private Integer cacheLength;
+
+    //granular storage, only available after bind
+    private ArrayDB<byte[]> rootsDB;
+    private DictDB<Integer, byte[]> cacheDB;
+    //Map<hash, position in the cache ring>
+    private DictDB<byte[], Integer> cacheIndexDB;
 
     public long getOffset() {
         return offset;
@@ -115,6 +132,85 @@ public class MerkleTreeAccumulator {
         return Context.hash("sha3-256", data);
     }
 
+    /**
+     * Binds to the granular storage, each root and each slot of the cache are stored separately,
+     * so that {@link #add(byte[])} writes only the changed root and cache slot.
+     * Roots and cache which are stored by the previous version in the serialized bytes are moved to the storage,
+     * the serialized bytes must be stored after it.
+     *
+     * @param id prefix of the storage
+     */
+    public void bind(String id) {
+        rootsDB = Context.newArrayDB(id + "|roots", byte[].class);
+        cacheDB = Context.newDictDB(id + "|cache", byte[].class);
+        cacheIndexDB = Context.newDictDB(id + "|cacheIndex", Integer.class);
+        if (roots != null) {
+            byte[][] roots = this.roots;
+            this.roots = null;
+            storeRoots(roots);
+        }
+        if (cache != null) {
+            byte[][] cache = this.cache;
+            this.cache = null;
+            storeCache(cache);
+        }
+    }
+
+    private boolean isBound() {
+        return rootsDB != null;
+    }
+
+    private int rootsLength() {
+        if (isBound()) {
+            return rootsDB.size();
+        }
+        return roots == null ? 0 : roots.length;
+    }
+
+    private byte[] rootAt(int idx) {
+        if (isBound()) {
+            byte[] root = rootsDB.get(idx);
+            return root == null || root.length == 0 ? null : root;
+        }
+        return roots[idx];
+    }
+
+    private void setRootAt(int idx, byte[] root) {
+        if (isBound()) {
+            rootsDB.set(idx, root == null ? EMPTY_ROOT : root);
+        } else {
+            roots[idx] = root;
+        }
+    }
+
+    private byte[][] loadRoots() {
+        int len = rootsLength();
+        byte[][] roots = new byte[len][];
+        for (int i = 0; i < len; i++) {
+            roots[i] = rootAt(i);
+        }
+        return roots;
+    }
+
+    private void storeRoots(byte[][] roots) {
+        if (!isBound()) {
+            this.roots = roots;
+            return;
+        }
+        int size = rootsDB.size();
+        for (int i = 0; i < roots.length; i++) {
+            byte[] root = roots[i] == null ? EMPTY_ROOT : roots[i];
+            if (i < size) {
+                rootsDB.set(i, root);
+            } else {
+                rootsDB.add(root);
+            }
+        }
+        for (; size > roots.length; size--) {
+            rootsDB.removeLast();
+        }
+    }
+
     private static void verify(byte[][] witness, int witnessLen, byte[] root, byte[] hash, long idx) {
         for (int i = 0; i < witnessLen; i++) {
             if (idx % 2 == 0) {
@@ -162,9 +258,9 @@ public class MerkleTreeAccumulator {
             throw new MTAException("given height is out of range");
         }
         long idx = height - 1 - offset;
-        int rootIdx = (roots == null ? 0 : roots.length) - 1;
+        int rootIdx = rootsLength() - 1;
         while (rootIdx >= 0) {
-            if (roots[rootIdx] != null) {
+            if (rootAt(rootIdx) != null) {
                 long bitFlag = 1L << rootIdx;
                 if (idx < bitFlag) {
                     break;
@@ -180,14 +276,29 @@ public class MerkleTreeAccumulator {
     }
 
     private byte[] getRoot(int idx) {
-        if (idx < 0 || roots == null || idx >= roots.length) {
+        if (idx < 0 || idx >= rootsLength()) {
             throw new MTAException("root idx is out of range");
         } else {
-            return roots[idx];
+            return rootAt(idx);
         }
     }
 
-    private void appendRoot(byte[] hash) {
+    /**
+     * @param cleared whether the existing roots are already cleared
+     */
+    private void appendRoot(byte[] hash, boolean cleared) {
+        if (isBound()) {
+            if (!cleared) {
+                int len = rootsDB.size();
+                for (int i = 0; i < len; i++) {
+                    if (rootAt(i) != null) {
+                        setRootAt(i, null);
+                    }
+                }
+            }
+            rootsDB.add(hash);
+            return;
+        }
         int len = roots == null ? 0 : roots.length;
         byte[][] roots = new byte[len + 1][];
         roots[len] = hash;
@@ -202,49 +313,52 @@ public class MerkleTreeAccumulator {
      * call after update rootSize
      */
     public void ensureRoots() {
-        if (isRootSizeLimitEnabled() && rootSize < this.roots.length) {
+        if (isRootSizeLimitEnabled() && rootSize < rootsLength()) {
+            byte[][] oldRoots = loadRoots();
             byte[][] roots = new byte[rootSize][];
             int i = rootSize - 1;
-            int j = this.roots.length - 1;
+            int j = oldRoots.length - 1;
             while(i >= 0) {
-                roots[i--] = this.roots[j--];
+                roots[i--] = oldRoots[j--];
             }
             while(j >= 0) {
-                if (this.roots[j] != null) {
-                    addOffset(j--);
+                if (oldRoots[j] != null) {
+                    addOffset(j);
                 }
+                j--;
             }
-            this.roots = roots;
+            storeRoots(roots);
         }
     }
 
     public void add(byte[] hash) {
         putCache(hash);
         if (height == offset) {
-            appendRoot(hash);
+            appendRoot(hash, false);
         } else {
             boolean isAdded = false;
-            int len = roots == null ? 0 : roots.length;
+            int len = rootsLength();
             int pruningIdx = (isRootSizeLimitEnabled() ? rootSize : 0) - 1;
             for (int i = 0; i < len; i++) {
-                if (roots[i] == null) {
-                    roots[i] = hash;
+                byte[] root = rootAt(i);
+                if (root == null) {
+                    setRootAt(i, hash);
                     isAdded = true;
                     break;
                 } else {
                     if (i == pruningIdx) {
-                        roots[i] = hash;
+                        setRootAt(i, hash);
                         addOffset(i);
                         isAdded = true;
                         break;
                     } else {
-                        hash = concatAndHash(roots[i], hash);
-                        roots[i] = null;
+                        hash = concatAndHash(root, hash);
+                        setRootAt(i, null);
                     }
                 }
             }
             if (!isAdded) {
-                appendRoot(hash);
+                appendRoot(hash, true);
             }
         }
         height++;
@@ -259,22 +373,75 @@ public class MerkleTreeAccumulator {
         return cacheSize != null && cacheSize > 0;
     }
 
+    private int cacheLength() {
+        if (isBound()) {
+            return cacheLength == null ? 0 : cacheLength;
+        }
+        return cache == null ? 0 : cache.length;
+    }
+
+    private byte[][] loadCache() {
+        if (!isBound()) {
+            return cache;
+        }
+        int len = cacheLength();
+        byte[][] cache = new byte[len][];
+        for (int i = 0; i < len; i++) {
+            cache[i] = cacheDB.get(i);
+        }
+        return cache;
+    }
+
+    private void storeCache(byte[][] cache) {
+        if (!isBound()) {
+            this.cache = cache;
+            return;
+        }
+        int oldLen = cacheLength();
+        for (int i = 0; i < oldLen; i++) {
+            unindexCache(i, cacheDB.get(i));
+        }
+        int len = cache == null ? 0 : cache.length;
+        for (int i = 0; i < len; i++) {
+            if (cache[i] != null || i < oldLen) {
+                cacheDB.set(i, cache[i]);
+            }
+            if (cache[i] != null) {
+                cacheIndexDB.set(cache[i], i);
+            }
+        }
+        for (int i = len; i < oldLen; i++) {
+            cacheDB.set(i, null);
+        }
+        cacheLength = cache == null ? null : len;
+    }
+
+    private void unindexCache(int pos, byte[] hash) {
+        if (hash != null) {
+            Integer indexed = cacheIndexDB.get(hash);
+            if (indexed != null && indexed == pos) {
+                cacheIndexDB.set(hash, null);
+            }
+        }
+    }
+
     /**
      * call after update cacheSize
      */
     public void ensureCache() {
         if (isCacheEnabled()) {
-            if (cache == null) {
-                cache = new byte[cacheSize][];
+            int len = cacheLength();
+            if (len == 0) {
+                storeCache(new byte[cacheSize][]);
                 cacheIdx = 0;
-            } else if (cache.length != cacheSize) {
+            } else if (len != cacheSize) {
+                byte[][] oldCache = loadCache();
                 byte[][] cache = new byte[cacheSize][];
-                //copy this.cache to cache
-                int len = this.cache.length;
+                //copy oldCache to cache
                 int src = this.cacheIdx;
                 int dst = 0;
                 for (int i = 0; i < len; i++) {
-                    byte[] v = this.cache[src++];
+                    byte[] v = oldCache[src++];
                     if (src >= len) {
                         src = 0;
                     }
@@ -287,29 +454,39 @@ public class MerkleTreeAccumulator {
                         break;
                     }
                 }
-                this.cache = cache;
+                storeCache(cache);
                 this.cacheIdx = dst;
             }
         } else {
-            cache = null;
+            storeCache(null);
         }
     }
 
     private boolean hasCache(byte[] hash) {
         if (isCacheEnabled()) {
-            for (byte[] v : cache) {
-                if (Arrays.equals(v, hash)) {
-                    return true;
+            if (!isBound()) {
+                for (byte[] v : cache) {
+                    if (Arrays.equals(v, hash)) {
+                        return true;
+                    }
                 }
+                return false;
             }
+            return cacheIndexDB.get(hash) != null;
         }
         return false;
     }
 
     private void putCache(byte[] hash) {
         if (isCacheEnabled()) {
-            cache[cacheIdx++] = hash;
-            if (cacheIdx >= cache.length) {
+            if (isBound()) {
+                unindexCache(cacheIdx, cacheDB.get(cacheIdx));
+                cacheDB.set(cacheIdx, hash);
+                cacheIndexDB.set(hash, cacheIdx++);
+            } else {
+                cache[cacheIdx++] = hash;
+            }
+            if (cacheIdx >= cacheLength()) {
                 cacheIdx = 0;
             }
         }
@@ -326,6 +503,7 @@ public class MerkleTreeAccumulator {
         sb.append(", cache=").append(StringUtil.toString(cache));
         sb.append(", allowNewerWitness=").append(allowNewerWitness);
         sb.append(", cacheIdx=").append(cacheIdx);
+        sb.append(", cacheLength=").append(cacheLength);
         sb.append('}');
         return sb.toString();
     }
@@ -372,12 +550,15 @@ public class MerkleTreeAccumulator {
         if (reader.hasNext()) {
             obj.setCacheIdx(reader.readNullable(Integer.class));
         }
+        if (reader.hasNext()) {
+            obj.cacheLength = reader.readNullable(Integer.class);
+        }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(8);
+        writer.beginList(9);
         writer.write(this.getHeight());
         byte[][] roots = this.getRoots();
         if (roots != null) {
@@ -404,6 +585,7 @@ public class MerkleTreeAccumulator {
         }
         writer.writeNullable(this.getAllowNewerWitness());
         writer.writeNullable(this.getCacheIdx());
+        writer.writeNullable(this.cacheLength);
         writer.end();
     }
 
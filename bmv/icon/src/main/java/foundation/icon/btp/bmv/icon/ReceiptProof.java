@@ -27,6 +27,8 @@ import java.util.List;
 
 public class ReceiptProof extends MPTProof {
     private MPTProof[] eventProofs;
+    //deduplicated nodes for all eventProofs, then proofs of each eventProof are omitted
+    private byte[][] eventNodes;
 
     public MPTProof[] getEventProofs() {
         return eventProofs;
@@ -36,10 +38,19 @@ public class ReceiptProof extends MPTProof {
         this.eventProofs = eventProofs;
     }
 
+    public byte[][] getEventNodes() {
+        return eventNodes;
+    }
+
+    public void setEventNodes(byte[][] eventNodes) {
+        this.eventNodes = eventNodes;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("ReceiptProof{");
         sb.append("eventProofs=").append(StringUtil.toString(eventProofs));
+        sb.append(", eventNodes=").append(StringUtil.toString(eventNodes));
         sb.append('}');
         sb.append(super.toString());
         return sb.toString();
@@ -71,12 +82,16 @@ public class ReceiptProof extends MPTProof {
             obj.setEventProofs(eventProofs);
             reader.end();
         }
+        if (reader.hasNext()) {
+            obj.setEventNodes(Proofs.readObject(reader).getProofs());
+        }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(3);
+        byte[][] eventNodes = this.getEventNodes();
+        writer.beginList(eventNodes != null ? 4 : 3);
         writer.write(this.getIndex());
         Proofs proofs = this.getProofs();
         if (proofs != null) {
@@ -96,6 +111,11 @@ public class ReceiptProof extends MPTProof {
         } else {
             writer.writeNull();
         }
+        if (eventNodes != null) {
+            Proofs nodes = new Proofs();
+            nodes.setProofs(eventNodes);
+            nodes.writeObject(writer);
+        }
         writer.end();
     }
 
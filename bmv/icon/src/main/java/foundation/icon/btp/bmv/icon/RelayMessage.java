@@ -29,6 +29,8 @@ public class RelayMessage {
     private BlockUpdate[] blockUpdates;
     private BlockProof blockProof;
     private ReceiptProof[] receiptProofs;
+    //deduplicated nodes for all receiptProofs, then proofs of each receiptProof are omitted
+    private byte[][] receiptNodes;
 
     public BlockUpdate[] getBlockUpdates() {
         return blockUpdates;
@@ -54,12 +56,21 @@ public class RelayMessage {
         this.receiptProofs = receiptProofs;
     }
 
+    public byte[][] getReceiptNodes() {
+        return receiptNodes;
+    }
+
+    public void setReceiptNodes(byte[][] receiptNodes) {
+        this.receiptNodes = receiptNodes;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("RelayMessage{");
         sb.append("blockUpdates=").append(StringUtil.toString(blockUpdates));
         sb.append(", blockProof=").append(blockProof);
         sb.append(", receiptProofs=").append(StringUtil.toString(receiptProofs));
+        sb.append(", receiptNodes=").append(StringUtil.toString(receiptNodes));
         sb.append('}');
         return sb.toString();
     }
@@ -114,12 +125,16 @@ public class RelayMessage {
             obj.setReceiptProofs(receiptProofs);
             reader.end();
         }
+        if (reader.hasNext()) {
+            obj.setReceiptNodes(Proofs.readObject(reader).getProofs());
+        }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(3);
+        byte[][] receiptNodes = this.getReceiptNodes();
+        writer.beginList(receiptNodes != null ? 4 : 3);
         BlockUpdate[] blockUpdates = this.getBlockUpdates();
         if (blockUpdates != null) {
             writer.beginNullableList(blockUpdates.length);
@@ -160,6 +175,11 @@ public class RelayMessage {
         } else {
             writer.writeNull();
         }
+        if (receiptNodes != null) {
+            Proofs nodes = new Proofs();
+            nodes.setProofs(receiptNodes);
+            nodes.writeObject(writer);
+        }
         writer.end();
     }
 
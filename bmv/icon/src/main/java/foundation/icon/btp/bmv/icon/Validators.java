@@ -20,11 +20,17 @@ import foundation.icon.score.util.StringUtil;
 import score.*;
 import scorex.util.ArrayList;
 import scorex.util.Base64;
+import scorex.util.HashMap;
 
 import java.util.List;
+import java.util.Map;
 
 public class Validators {
     private Address[] addresses;
+    //index of each address, built at the first lookup
+    private Map<Address, Integer> indexes;
+    //serialized bytes which are decoded from, see fromBytes
+    private byte[] bytes;
 
     public Address[] getAddresses() {
         return addresses;
@@ -32,15 +38,49 @@ public class Validators {
 
     public void setAddresses(Address[] addresses) {
         this.addresses = addresses;
+        this.indexes = null;
+        this.bytes = null;
     }
 
-    public boolean contains(Address target) {
-        for(Address address : addresses) {
-            if (address.equals(target)){
-                return true;
+    public int size() {
+        return addresses.length;
+    }
+
+    private Map<Address, Integer> indexes() {
+        if (indexes == null) {
+            indexes = new HashMap<>();
+            for (int i = 0; i < addresses.length; i++) {
+                indexes.put(addresses[i], i);
             }
         }
-        return false;
+        return indexes;
+    }
+
+    /**
+     * @return index of the address, or -1 if it's not a validator
+     */
+    public int indexOf(Address target) {
+        Integer idx = indexes().get(target);
+        return idx == null ? -1 : idx;
+    }
+
+    public boolean contains(Address target) {
+        return indexOf(target) >= 0;
+    }
+
+    /**
+     * Returns whether any address appears more than once,
+     * votes are counted by index so that each validator must have only one index.
+     */
+    public boolean hasDuplicate() {
+        return indexes().size() != addresses.length;
+    }
+
+    /**
+     * @return minimum number of votes which is more than 2/3 of validators
+     */
+    public int quorum() {
+        return addresses.length * 2 / 3 + 1;
     }
 
     /**
@@ -112,10 +152,19 @@ public class Validators {
 
     public static Validators fromBytes(byte[] bytes) {
         ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
-        return Validators.readObject(reader);
+        Validators obj = Validators.readObject(reader);
+        obj.bytes = bytes;
+        return obj;
     }
 
+    /**
+     * Returns the bytes which are decoded from if it's created by {@link #fromBytes(byte[])},
+     * so that the hash is computed with the original encoding.
+     */
     public byte[] toBytes() {
+        if (bytes != null) {
+            return bytes;
+        }
         ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
         Validators.writeObject(writer, this);
         return writer.toByteArray();
@@ -25,6 +25,8 @@ import score.ObjectWriter;
 public class Vote {
     private long timestamp;
     private byte[] signature;
+    //optional, index of the validator which signed, given by the relay to skip the lookup
+    private Integer index;
 
     public long getTimestamp() {
         return timestamp;
@@ -42,11 +44,20 @@ public class Vote {
         this.signature = signature;
     }
 
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("Vote{");
         sb.append("timestamp=").append(timestamp);
         sb.append(", signature=").append(StringUtil.bytesToHex(signature));
+        sb.append(", index=").append(index);
         sb.append('}');
         return sb.toString();
     }
@@ -60,14 +71,21 @@ public class Vote {
         reader.beginList();
         obj.setTimestamp(reader.readLong());
         obj.setSignature(reader.readNullable(byte[].class));
+        if (reader.hasNext()) {
+            obj.setIndex(reader.readNullable(Integer.class));
+        }
         reader.end();
         return obj;
     }
 
     public void writeObject(ObjectWriter writer) {
-        writer.beginList(2);
+        Integer index = this.getIndex();
+        writer.beginList(index == null ? 2 : 3);
         writer.write(this.getTimestamp());
         writer.writeNullable(this.getSignature());
+        if (index != null) {
+            writer.write(index);
+        }
         writer.end();
     }
 
@@ -28,6 +28,7 @@ import java.util.List;
 public class Votes {
     private long round;
     private PartSetId partSetId;
+    //votes of the validators, it's enough to have +2/3 of validators, the rest are not verified
     private Vote[] items;
 
     public long getRound() {
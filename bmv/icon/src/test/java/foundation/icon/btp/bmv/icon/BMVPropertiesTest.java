@@ -0,0 +1,145 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import foundation.icon.icx.KeyWallet;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.VarDB;
+import score.annotation.External;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class BMVPropertiesTest extends TestBase {
+    static final ServiceManager sm = getServiceManager();
+    static final Account owner = sm.createAccount();
+    static final long OFFSET = 10;
+
+    /**
+     * Holds the properties which are stored by the previous version, and updates them as BTPMessageVerifier does.
+     */
+    public static class PropertiesScore {
+        private final VarDB<byte[]> properties = Context.newVarDB("properties", byte[].class);
+
+        public PropertiesScore(byte[] _properties) {
+            properties.set(_properties);
+        }
+
+        @External
+        public void update(byte[] _blockUpdate) {
+            BMVProperties properties = BMVProperties.fromBytes(this.properties.get());
+            MerkleTreeAccumulator mta = properties.getMta();
+            mta.bind("mta");
+            BTPMessageVerifier.verifyBlockUpdates(
+                    new BlockUpdate[]{BlockUpdate.fromBytes(_blockUpdate)}, mta, properties);
+            properties.setMta(mta);
+            this.properties.set(properties.toBytes());
+        }
+
+        @External(readonly = true)
+        public byte[] getProperties() {
+            return properties.get();
+        }
+    }
+
+    @BeforeAll
+    static void setup() throws Exception {
+        VotesTest.setup();
+    }
+
+    /**
+     * @return BMVProperties of 5 elements, without validatorsHash
+     */
+    static byte[] legacyProperties(Validators validators) {
+        MerkleTreeAccumulator mta = new MerkleTreeAccumulator();
+        mta.setHeight(OFFSET);
+        mta.setOffset(OFFSET);
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(5);
+        writer.writeNullable(owner.getAddress());
+        writer.writeNullable("0x1.icon");
+        writer.write(OFFSET);
+        writer.writeNullable(validators);
+        writer.writeNullable(mta);
+        writer.end();
+        return writer.toByteArray();
+    }
+
+    static byte[] blockUpdate(long height, Validators nextValidators, boolean withNextValidators) {
+        BlockHeader blockHeader = new BlockHeader();
+        blockHeader.setHeight(height);
+        blockHeader.setNextValidatorHash(BTPMessageVerifier.hash(nextValidators.toBytes()));
+        byte[] blockHash = BTPMessageVerifier.hash(blockHeader.toBytes());
+        KeyWallet[] wallets = VotesTest.wallets;
+        BlockUpdate blockUpdate = new BlockUpdate();
+        blockUpdate.setBlockHeader(blockHeader);
+        blockUpdate.setVotes(VotesTest.votes(
+                VotesTest.vote(wallets[0], 0, height, blockHash),
+                VotesTest.vote(wallets[1], 1, height, blockHash),
+                VotesTest.vote(wallets[2], 2, height, blockHash)));
+        if (withNextValidators) {
+            blockUpdate.setNextValidators(nextValidators);
+        }
+        return blockUpdate.toBytes();
+    }
+
+    static BMVProperties properties(Score score) {
+        return BMVProperties.fromBytes((byte[]) score.call("getProperties"));
+    }
+
+    @Test
+    void validatorsHashShouldBeStoredAfterBlockUpdate() throws Exception {
+        Validators validators = VotesTest.validators;
+        Score score = sm.deploy(owner, PropertiesScore.class, legacyProperties(validators));
+        assertNull(properties(score).getValidatorsHash());
+
+        //without change of validators
+        score.invoke(owner, "update", blockUpdate(OFFSET + 1, validators, false));
+        BMVProperties properties = properties(score);
+        assertArrayEquals(BTPMessageVerifier.hash(validators.toBytes()), properties.getValidatorsHash());
+        assertArrayEquals(validators.toBytes(), properties.getValidators().toBytes());
+
+        //with change of validators
+        Validators nextValidators = Validators.fromString(
+                VotesTest.wallets[1].getAddress() + "," + VotesTest.other.getAddress());
+        score.invoke(owner, "update", blockUpdate(OFFSET + 2, nextValidators, true));
+        properties = properties(score);
+        assertArrayEquals(BTPMessageVerifier.hash(nextValidators.toBytes()), properties.getValidatorsHash());
+        assertArrayEquals(nextValidators.toBytes(), properties.getValidators().toBytes());
+    }
+
+    @Test
+    void validatorsHashShouldBeStoredAfterBlockUpdateWithChange() throws Exception {
+        Validators validators = VotesTest.validators;
+        Score score = sm.deploy(owner, PropertiesScore.class, legacyProperties(validators));
+        assertNull(properties(score).getValidatorsHash());
+
+        Validators nextValidators = Validators.fromString(
+                VotesTest.wallets[0].getAddress() + "," + VotesTest.other.getAddress());
+        score.invoke(owner, "update", blockUpdate(OFFSET + 1, nextValidators, true));
+        BMVProperties properties = properties(score);
+        assertArrayEquals(BTPMessageVerifier.hash(nextValidators.toBytes()), properties.getValidatorsHash());
+        assertArrayEquals(nextValidators.toBytes(), properties.getValidators().toBytes());
+    }
+}
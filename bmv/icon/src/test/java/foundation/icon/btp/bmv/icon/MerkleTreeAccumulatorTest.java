@@ -0,0 +1,198 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package foundation.icon.btp.bmv.icon;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.Score;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import org.junit.jupiter.api.Test;
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.VarDB;
+import score.annotation.External;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MerkleTreeAccumulatorTest extends TestBase {
+    static final ServiceManager sm = getServiceManager();
+    static final Account owner = sm.createAccount();
+    static final int CACHE_SIZE = 4;
+
+    /**
+     * Holds the accumulator which is bound to the storage as BTPMessageVerifier does.
+     */
+    public static class MTAScore {
+        private final VarDB<byte[]> mta = Context.newVarDB("mta", byte[].class);
+
+        public MTAScore(byte[] _mta) {
+            MerkleTreeAccumulator mta = MerkleTreeAccumulator.fromBytes(_mta);
+            mta.bind("mta");
+            this.mta.set(mta.toBytes());
+        }
+
+        private MerkleTreeAccumulator load() {
+            MerkleTreeAccumulator mta = MerkleTreeAccumulator.fromBytes(this.mta.get());
+            mta.bind("mta");
+            return mta;
+        }
+
+        @External
+        public void add(byte[] _hash) {
+            MerkleTreeAccumulator mta = load();
+            mta.add(_hash);
+            this.mta.set(mta.toBytes());
+        }
+
+        @External(readonly = true)
+        public boolean verify(byte[][] _witness, byte[] _hash, BigInteger _height, BigInteger _at) {
+            return MerkleTreeAccumulatorTest.verify(load(), _witness, _hash, _height.longValue(), _at.longValue());
+        }
+    }
+
+    static boolean verify(MerkleTreeAccumulator mta, byte[][] witness, byte[] hash, long height, long at) {
+        try {
+            mta.verify(witness, hash, height, at);
+            return true;
+        } catch (MTAException e) {
+            return false;
+        }
+    }
+
+    static byte[] leaf(int i) {
+        return Context.hash("sha3-256", ("block" + i).getBytes());
+    }
+
+    static byte[] concatAndHash(byte[] b1, byte[] b2) {
+        byte[] data = new byte[b1.length + b2.length];
+        System.arraycopy(b1, 0, data, 0, b1.length);
+        System.arraycopy(b2, 0, data, b1.length, b2.length);
+        return Context.hash("sha3-256", data);
+    }
+
+    /**
+     * Builds the witness of the leaf from the subtree of the root which contains it.
+     */
+    static byte[][] witness(MerkleTreeAccumulator reference, List<byte[]> leaves, int leaf) {
+        byte[][] roots = reference.getRoots();
+        int start = (int) reference.getOffset();
+        for (int k = roots.length - 1; k >= 0; k--) {
+            if (roots[k] == null) {
+                continue;
+            }
+            int size = 1 << k;
+            if (leaf < start + size) {
+                List<byte[]> nodes = new ArrayList<>(leaves.subList(start, start + size));
+                int pos = leaf - start;
+                byte[][] witness = new byte[k][];
+                for (int i = 0; i < k; i++) {
+                    witness[i] = nodes.get(pos ^ 1);
+                    List<byte[]> parents = new ArrayList<>();
+                    for (int j = 0; j < nodes.size(); j += 2) {
+                        parents.add(concatAndHash(nodes.get(j), nodes.get(j + 1)));
+                    }
+                    nodes = parents;
+                    pos /= 2;
+                }
+                return witness;
+            }
+            start += size;
+        }
+        throw new IllegalArgumentException("leaf is out of range");
+    }
+
+    /**
+     * Serializes the accumulator in the format of the previous version which contains roots and cache.
+     */
+    static byte[] legacyBytes(MerkleTreeAccumulator mta) {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(8);
+        writer.write(mta.getHeight());
+        writer.beginNullableList(mta.getRoots().length);
+        for (byte[] v : mta.getRoots()) {
+            writer.writeNullable(v);
+        }
+        writer.end();
+        writer.write(mta.getOffset());
+        writer.writeNullable(mta.getRootSize());
+        writer.writeNullable(mta.getCacheSize());
+        writer.beginNullableList(mta.getCache().length);
+        for (byte[] v : mta.getCache()) {
+            writer.writeNullable(v);
+        }
+        writer.end();
+        writer.writeNullable(mta.getAllowNewerWitness());
+        writer.writeNullable(mta.getCacheIdx());
+        writer.end();
+        return writer.toByteArray();
+    }
+
+    static void assertSameVerification(MerkleTreeAccumulator reference, Score score, byte[][] witness, byte[] hash,
+                                       long height, long at) {
+        boolean expected = verify(reference, witness, hash, height, at);
+        assertEquals(expected, score.call("verify",
+                witness, hash, BigInteger.valueOf(height), BigInteger.valueOf(at)),
+                "height:" + height + " at:" + at);
+    }
+
+    @Test
+    public void bindShouldKeepBehaviorOfLegacy() throws Exception {
+        MerkleTreeAccumulator reference = new MerkleTreeAccumulator();
+        reference.setCacheSize(CACHE_SIZE);
+        reference.setAllowNewerWitness(true);
+        reference.ensureCache();
+        List<byte[]> leaves = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            leaves.add(leaf(i));
+            reference.add(leaves.get(i));
+        }
+        Score score = sm.deploy(owner, MTAScore.class, (Object) legacyBytes(reference));
+
+        for (int i = 5; i < 13; i++) {
+            leaves.add(leaf(i));
+            reference.add(leaves.get(i));
+            sm.call(owner, BigInteger.ZERO, score.getAddress(), "add", (Object) leaves.get(i));
+
+            long height = reference.getHeight();
+            //roots, by witnesses at the current height
+            for (int j = (int) reference.getOffset(); j < height; j++) {
+                byte[][] witness = witness(reference, leaves, j);
+                assertEquals(true, verify(reference, witness, leaves.get(j), j + 1, height));
+                assertSameVerification(reference, score, witness, leaves.get(j), j + 1, height);
+            }
+            //cache, by witnesses at the old height
+            assertEquals(true, verify(reference, new byte[0][], leaves.get((int) height - 2), height - 1, height - 1));
+            for (int j = Math.max(0, (int) height - CACHE_SIZE - 1); j < height - 1; j++) {
+                assertSameVerification(reference, score, new byte[0][], leaves.get(j), j + 1, height - 1);
+            }
+            byte[] unknown = leaf(-i);
+            assertEquals(false, verify(reference, new byte[0][], unknown, height - 1, height - 2));
+            assertSameVerification(reference, score, new byte[0][], unknown, height - 1, height - 2);
+        }
+        //witness at the newer height
+        long height = reference.getHeight();
+        int j = (int) height - 1;
+        byte[][] witness = witness(reference, leaves, j);
+        assertEquals(true, verify(reference, witness, leaves.get(j), j + 1, height + 1));
+        assertSameVerification(reference, score, witness, leaves.get(j), j + 1, height + 1);
+    }
+}
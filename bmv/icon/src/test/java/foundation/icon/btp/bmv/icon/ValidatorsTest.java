@@ -0,0 +1,44 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package foundation.icon.btp.bmv.icon;
+
+import com.iconloop.score.test.Account;
+import com.iconloop.score.test.ServiceManager;
+import com.iconloop.score.test.TestBase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValidatorsTest extends TestBase {
+    static final ServiceManager sm = getServiceManager();
+    static final Account v1 = sm.createAccount();
+    static final Account v2 = sm.createAccount();
+
+    @Test
+    void hasDuplicateShouldDetectSameAddress() {
+        Validators unique = Validators.fromString(v1.getAddress() + "," + v2.getAddress());
+        assertFalse(unique.hasDuplicate());
+        assertEquals(1, unique.indexOf(v2.getAddress()));
+
+        Validators duplicated = Validators.fromString(
+                v1.getAddress() + "," + v2.getAddress() + "," + v1.getAddress());
+        assertTrue(duplicated.hasDuplicate());
+    }
+}
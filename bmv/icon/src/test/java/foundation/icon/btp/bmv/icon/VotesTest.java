@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.bmv.icon;
+
+import com.iconloop.score.test.TestBase;
+import foundation.icon.icx.KeyWallet;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import score.Address;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class VotesTest extends TestBase {
+    static final int VALIDATORS = 4;
+    static final long HEIGHT = 100;
+    static final byte[] BLOCK_HASH = BTPMessageVerifier.hash("block".getBytes());
+    static KeyWallet[] wallets = new KeyWallet[VALIDATORS];
+    static KeyWallet other;
+    static Validators validators;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < VALIDATORS; i++) {
+            wallets[i] = KeyWallet.create();
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append(wallets[i].getAddress().toString());
+        }
+        other = KeyWallet.create();
+        validators = Validators.fromString(sb.toString());
+    }
+
+    static PartSetId partSetId() {
+        PartSetId partSetId = new PartSetId();
+        partSetId.setCount(1);
+        partSetId.setHash(BTPMessageVerifier.hash("partSet".getBytes()));
+        return partSetId;
+    }
+
+    static Vote vote(KeyWallet wallet, Integer index) {
+        return vote(wallet, index, HEIGHT, BLOCK_HASH);
+    }
+
+    static Vote vote(KeyWallet wallet, Integer index, long height, byte[] blockHash) {
+        long timestamp = System.currentTimeMillis();
+        VoteMessage voteMessage = new VoteMessage();
+        voteMessage.setHeight(height);
+        voteMessage.setRound(0);
+        voteMessage.setVoteType(VoteMessage.VOTE_TYPE_PRECOMMIT);
+        voteMessage.setBlockId(blockHash);
+        voteMessage.setPartSetId(partSetId());
+        voteMessage.setTimestamp(timestamp);
+        Vote vote = new Vote();
+        vote.setTimestamp(timestamp);
+        vote.setSignature(wallet.sign(BTPMessageVerifier.hash(voteMessage.toBytes())));
+        vote.setIndex(index);
+        return vote;
+    }
+
+    static Votes votes(Vote... items) {
+        Votes votes = new Votes();
+        votes.setRound(0);
+        votes.setPartSetId(partSetId());
+        votes.setItems(items);
+        return votes;
+    }
+
+    static void verifyVotes(Vote... items) {
+        BTPMessageVerifier.verifyVotes(votes(items), HEIGHT, BLOCK_HASH, validators);
+    }
+
+    @Test
+    void indexOfVoterShouldMatchValidator() {
+        assertEquals(3, validators.quorum());
+        for (int i = 0; i < VALIDATORS; i++) {
+            assertEquals(i, validators.indexOf(Address.fromString(wallets[i].getAddress().toString())));
+        }
+        assertDoesNotThrow(() -> verifyVotes(
+                vote(wallets[0], 0), vote(wallets[1], null), vote(wallets[3], 3)));
+    }
+
+    @Test
+    void verifyVotesShouldStopAtQuorum() {
+        //the votes after quorum are not verified
+        assertDoesNotThrow(() -> verifyVotes(
+                vote(wallets[0], 0), vote(wallets[1], 1), vote(wallets[2], 2),
+                vote(other, null), vote(wallets[0], 0)));
+    }
+
+    @Test
+    void verifyVotesShouldRevertLessThanQuorum() {
+        assertThrows(BMVException.class, () -> verifyVotes(
+                vote(wallets[0], 0), vote(wallets[1], 1)));
+        assertThrows(BMVException.class, () -> verifyVotes(
+                vote(wallets[0], 0), vote(wallets[1], 1), vote(other, null)));
+    }
+
+    @Test
+    void verifyVotesShouldRevertIndexOfOtherValidator() {
+        assertThrows(BMVException.class, () -> verifyVotes(
+                vote(wallets[0], 0), vote(wallets[1], 2), vote(wallets[3], 3)));
+    }
+
+    @Test
+    void verifyVotesShouldRevertIndexOutOfRange() {
+        assertThrows(BMVException.class, () -> verifyVotes(
+                vote(wallets[0], 0), vote(wallets[1], VALIDATORS), vote(wallets[3], 3)));
+        assertThrows(BMVException.class, () -> verifyVotes(
+                vote(wallets[0], 0), vote(wallets[1], -1), vote(wallets[3], 3)));
+    }
+
+    @Test
+    void verifyVotesShouldRevertDuplicatedVoter() {
+        assertThrows(BMVException.class, () -> verifyVotes(
+                vote(wallets[0], 0), vote(wallets[0], null), vote(wallets[3], 3)));
+        assertThrows(BMVException.class, () -> verifyVotes(
+                vote(wallets[0], null), vote(wallets[0], 0), vote(wallets[3], 3)));
+    }
+}
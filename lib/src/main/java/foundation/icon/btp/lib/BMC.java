@@ -186,6 +186,21 @@ public interface BMC {
     @External
     BigInteger sendMessage(String _to, String _svc, BigInteger _sn, byte[] _msg);
 
+    /**
+     * Sends the messages at once, same as calling {@link #sendMessage} for each message in order.
+     * The given value should cover the fees of all messages.
+     * Only allowed to be called by registered BSHs.
+     *
+     * @param _to  String[] ( Network Address of destination network for each message )
+     * @param _svc String ( name of the service )
+     * @param _sn  Integer[] ( serial number for each message )
+     * @param _msg Bytes[] ( serialized bytes of Service Message for each message )
+     * @return Integer[] ( network serial number for each message )
+     */
+    @Payable
+    @External
+    BigInteger[] sendMessages(String[] _to, String _svc, BigInteger[] _sn, byte[][] _msg);
+
     /**
      * It verifies and decodes the Relay Message with BMV and dispatches BTP Messages to registered BSHs.
      * It's allowed to be called by registered Relay.
@@ -327,7 +342,8 @@ public interface BMC {
      * indexed: 2
      *
      * @param _next String ( BTP Address of the BMC to handle the message )
-     * @param _seq  Integer ( sequence number of the message from current BMC to the next )
+     * @param _seq  Integer ( sequence number of the message from current BMC to the next,
+     *              tagged by {@link Lanes} if the link has lanes )
      * @param _msg  Bytes ( serialized bytes of BTP Message )
      */
     @EventLog(indexed = 2)
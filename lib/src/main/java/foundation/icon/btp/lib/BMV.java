@@ -32,7 +32,7 @@ public interface BMV {
      *
      * @param _bmc String ( BTP Address of the BMC handling the message )
      * @param _prev String ( BTP Address of the previous BMC )
-     * @param _seq Integer ( next sequence number to get a message )
+     * @param _seq Integer ( next sequence number to get a message, combined by {@link Lanes} if the link has lanes )
      * @param _msg Bytes ( serialized bytes of Relay Message )
      * @return List of serialized bytes of a BTP Message
      */
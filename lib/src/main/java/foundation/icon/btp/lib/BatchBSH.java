@@ -0,0 +1,44 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.lib;
+
+import foundation.icon.score.client.ScoreClient;
+import foundation.icon.score.client.ScoreInterface;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * Optional interface of BSH which handles consecutive BTP Messages from the same source network at once.
+ */
+@ScoreInterface
+@ScoreClient
+public interface BatchBSH {
+    /**
+     * Handles BTP Messages from other blockchains.
+     * Accepts messages only from BMC.
+     * If it fails, then BMC will deliver the messages one by one with {@link BSH#handleBTPMessage},
+     * so that only the failed message generates a BTP Message that includes error information.
+     *
+     * @param _from String ( Network Address of source network )
+     * @param _svc String ( name of the service )
+     * @param _sn Integer[] ( serial numbers of the messages )
+     * @param _msg Bytes[] ( serialized bytes of ServiceMessages )
+     */
+    @External
+    void handleBTPMessages(String _from, String _svc, BigInteger[] _sn, byte[][] _msg);
+}
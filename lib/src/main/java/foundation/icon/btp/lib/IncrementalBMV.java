@@ -0,0 +1,46 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.lib;
+
+import foundation.icon.score.client.ScoreClient;
+import foundation.icon.score.client.ScoreInterface;
+import score.annotation.External;
+
+import java.math.BigInteger;
+
+/**
+ * Optional interface of BMV which verifies the Relay Message fragment by fragment.
+ */
+@ScoreInterface
+@ScoreClient
+public interface IncrementalBMV {
+    /**
+     * Decodes a fragment of Relay Message and process BTP Messages which could be verified with received fragments.
+     * Fragments are given in order, _idx is negative for the first fragment and zero for the last fragment.
+     * The first fragment restarts the verification, and the bytes not yet processed are kept for the next fragment.
+     * BTP Messages with old sequence numbers are ignored. A BTP Message contains future sequence number will fail.
+     *
+     * @param _bmc String ( BTP Address of the BMC handling the message )
+     * @param _prev String ( BTP Address of the previous BMC )
+     * @param _seq Integer ( next sequence number to get a message )
+     * @param _msg Bytes ( fragment of serialized bytes of Relay Message )
+     * @param _idx Integer ( index of fragment )
+     * @return List of serialized bytes of a BTP Message
+     */
+    @External
+    byte[][] handleFragment(String _bmc, String _prev, BigInteger _seq, byte[] _msg, int _idx);
+}
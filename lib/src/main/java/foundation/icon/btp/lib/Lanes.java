@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.lib;
+
+import java.math.BigInteger;
+
+/**
+ * Lanes of the link, each lane has its own sequence.
+ * The sequence of the lane in Message event is tagged by shifting it left 64 bits for each lane,
+ * so that the sequence of {@link #NORMAL} lane is same as the link without lanes.
+ * The sequences of all lanes are combined into one Integer in the same way,
+ * and passed to {@link BMV#handleRelayMessage} as _seq.
+ */
+public class Lanes {
+    public static final int NORMAL = 0;
+    public static final int PRIORITY = 1;
+    public static final int SIZE = 2;
+    static final int SEQ_BITS = 64;
+    static final BigInteger SEQ_MASK = BigInteger.ONE.shiftLeft(SEQ_BITS).subtract(BigInteger.ONE);
+
+    /**
+     * @return lane-tagged sequence
+     */
+    public static BigInteger tag(int lane, BigInteger seq) {
+        return seq.shiftLeft(SEQ_BITS * lane);
+    }
+
+    /**
+     * @param tagged lane-tagged sequence
+     * @return lane of the sequence, or -1 if it's invalid
+     */
+    public static int laneOf(BigInteger tagged) {
+        if (tagged.signum() <= 0) {
+            return tagged.signum() == 0 ? NORMAL : -1;
+        }
+        int lane = (tagged.bitLength() - 1) / SEQ_BITS;
+        if (lane >= SIZE || tagged.getLowestSetBit() < SEQ_BITS * lane) {
+            return -1;
+        }
+        return lane;
+    }
+
+    /**
+     * @param tagged lane-tagged sequence
+     * @return sequence in the lane
+     */
+    public static BigInteger seqOf(BigInteger tagged) {
+        int lane = laneOf(tagged);
+        return lane > 0 ? tagged.shiftRight(SEQ_BITS * lane) : tagged;
+    }
+
+    /**
+     * @param seqs combined sequences
+     * @return sequences of all lanes
+     */
+    public static BigInteger[] split(BigInteger seqs) {
+        BigInteger[] arr = new BigInteger[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            arr[i] = seqs.shiftRight(SEQ_BITS * i).and(SEQ_MASK);
+        }
+        return arr;
+    }
+
+    /**
+     * @param seqs sequences of the lanes, sequences of the omitted lanes are zero
+     * @return combined sequences
+     */
+    public static BigInteger combine(BigInteger... seqs) {
+        BigInteger v = BigInteger.ZERO;
+        for (int i = 0; i < seqs.length; i++) {
+            v = v.or(tag(i, seqs[i]));
+        }
+        return v;
+    }
+}
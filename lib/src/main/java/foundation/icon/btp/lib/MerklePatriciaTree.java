@@ -0,0 +1,262 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package foundation.icon.btp.lib;
+
+import foundation.icon.score.util.StringUtil;
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.ObjectReader;
+import scorex.util.HashMap;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Verifier of Merkle Patricia Trie proofs, shared by BMVs with the codec and the hash function of the chain.
+ * A batch of keys is verified against one root with a deduplicated set of the nodes,
+ * each node is hashed and decoded once, and the nodes on the common path are shared by the keys.
+ * The proof of a single key, which is the list of nodes from the root, is a set of nodes as well.
+ */
+public class MerklePatriciaTree {
+    public static class MPTException extends RuntimeException {
+        public MPTException(String message) {
+            super(message);
+        }
+
+        public MPTException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private final String codec;
+    private final String hashAlgorithm;
+
+    /**
+     * @param codec         codec of the node, "RLP" or "RLPn"
+     * @param hashAlgorithm hash function of the node, such as "sha3-256" or "keccak-256"
+     */
+    public MerklePatriciaTree(String codec, String hashAlgorithm) {
+        this.codec = codec;
+        this.hashAlgorithm = hashAlgorithm;
+    }
+
+    public byte[] encodeKey(Object key) {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter(codec);
+        writer.write(key);
+        return writer.toByteArray();
+    }
+
+    public byte[] hash(byte[] bytes) {
+        return Context.hash(hashAlgorithm, bytes);
+    }
+
+    /**
+     * Proves the key with the nodes from the root.
+     *
+     * @return value of the key
+     */
+    public byte[] prove(byte[] rootHash, byte[] key, byte[][] proofs) {
+        return prove(rootHash, new byte[][]{key}, proofs)[0];
+    }
+
+    /**
+     * Proves the keys against the root with the deduplicated set of the nodes in any order.
+     *
+     * @param rootHash hash of the root node
+     * @param keys     keys to prove
+     * @param nodes    serialized nodes on the paths of the keys
+     * @return values of the keys in the same order
+     */
+    public byte[][] prove(byte[] rootHash, byte[][] keys, byte[][] nodes) {
+        Map<String, byte[]> nodeMap = new HashMap<>();
+        for (byte[] node : nodes) {
+            nodeMap.put(StringUtil.bytesToHex(hash(node)), node);
+        }
+        Node root = new Node(rootHash);
+        byte[][] values = new byte[keys.length][];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = root.prove(bytesToNibbles(keys[i]), 0, nodeMap);
+        }
+        return values;
+    }
+
+    public static byte[] bytesToNibbles(byte[] bytes) {
+        return bytesToNibbles(bytes, 0, null);
+    }
+
+    public static byte[] bytesToNibbles(byte[] bytes, int from, byte[] nibbles) {
+        int len = (bytes.length - from) * 2;
+        if (nibbles != null) {
+            len += nibbles.length;
+        }
+        byte[] ret = new byte[len];
+        int j = 0;
+        if (nibbles != null) {
+            System.arraycopy(nibbles, 0, ret, 0, nibbles.length);
+            j = nibbles.length;
+        }
+        for (int i = from; i < bytes.length; i++) {
+            ret[j++] = (byte) (bytes[i] >> 4 & 0x0F);
+            ret[j++] = (byte) (bytes[i] & 0x0F);
+        }
+        return ret;
+    }
+
+    private class Node {
+        //hash of the node which is not resolved yet, null if the node is embedded in the parent
+        private byte[] hash;
+        private byte[] nibbles;
+        private Node[] children;
+        private byte[] data;
+
+        Node() {
+        }
+
+        Node(byte[] hash) {
+            this.hash = hash;
+        }
+
+        /**
+         * Decodes the serialized node into this node.
+         */
+        private void resolve(Map<String, byte[]> nodeMap) {
+            byte[] serialized = nodeMap.get(StringUtil.bytesToHex(hash));
+            if (serialized == null) {
+                throw new MPTException("missing node " + StringUtil.bytesToHex(hash));
+            }
+            ObjectReader reader = Context.newByteArrayObjectReader(codec, serialized);
+            read(reader);
+            hash = null;
+        }
+
+        private void read(ObjectReader reader) {
+            reader.beginList();
+            Object[] arr = new Object[17];
+            int i = 0;
+            while (reader.hasNext()) {
+                if (i >= 17) {
+                    throw new MPTException("decode failure, invalid list length");
+                }
+                try {
+                    arr[i] = reader.readByteArray();
+                } catch (IllegalStateException e) {
+                    if (i < 16) {
+                        Node node = new Node();
+                        node.read(reader);
+                        arr[i] = node;
+                    } else {
+                        throw new MPTException("decode failure, branchNode.data required byte[]");
+                    }
+                }
+                i++;
+            }
+            reader.end();
+            if (i == 2) {
+                if (!(arr[0] instanceof byte[])) {
+                    throw new MPTException("decode failure, required byte[]");
+                }
+                byte[] header = (byte[]) arr[0];
+                int prefix = header[0] & 0xF0;
+                byte[] oddNibble = null;
+                if ((prefix & 0x10) != 0) {
+                    oddNibble = new byte[]{(byte) (header[0] & 0x0F)};
+                }
+                nibbles = bytesToNibbles(header, 1, oddNibble);
+                if ((prefix & 0x20) != 0) {
+                    if (!(arr[1] instanceof byte[])) {
+                        throw new MPTException("decode failure, leafNode.data required byte[]");
+                    }
+                    data = (byte[]) arr[1];
+                } else {
+                    children = new Node[]{child(arr[1])};
+                    if (children[0] == null) {
+                        throw new MPTException("decode failure, extensionNode requires child");
+                    }
+                }
+            } else if (i == 17) {
+                children = new Node[16];
+                for (int j = 0; j < 16; j++) {
+                    children[j] = child(arr[j]);
+                }
+                data = (byte[]) arr[16];
+            } else {
+                throw new MPTException("decode failure, invalid list length " + i);
+            }
+        }
+
+        private Node child(Object obj) {
+            if (obj instanceof Node) {
+                return (Node) obj;
+            }
+            byte[] bytes = (byte[]) obj;
+            return bytes.length > 0 ? new Node(bytes) : null;
+        }
+
+        /**
+         * Proves the nibbles of the key from the offset, the node is resolved only once for the keys
+         * sharing the path.
+         */
+        byte[] prove(byte[] key, int offset, Map<String, byte[]> nodeMap) {
+            if (hash != null) {
+                resolve(nodeMap);
+            }
+            if (children == null) {
+                if (!matches(key, offset) || offset + nibbles.length != key.length) {
+                    throw new MPTException("mismatch nibbles on leaf");
+                }
+                return data;
+            } else if (children.length == 1) {
+                if (!matches(key, offset)) {
+                    throw new MPTException("mismatch nibbles on extension");
+                }
+                return children[0].prove(key, offset + nibbles.length, nodeMap);
+            } else {
+                if (offset == key.length) {
+                    return data;
+                }
+                Node child = children[key[offset]];
+                if (child == null) {
+                    throw new MPTException("missing child on branch");
+                }
+                return child.prove(key, offset + 1, nodeMap);
+            }
+        }
+
+        private boolean matches(byte[] key, int offset) {
+            if (offset + nibbles.length > key.length) {
+                return false;
+            }
+            for (int i = 0; i < nibbles.length; i++) {
+                if (nibbles[i] != key[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "Node{" +
+                    "hash=" + StringUtil.toString(hash) +
+                    ", nibbles=" + StringUtil.toString(nibbles) +
+                    ", children=" + StringUtil.toString(children) +
+                    ", data=" + StringUtil.toString(data) +
+                    '}';
+        }
+    }
+}
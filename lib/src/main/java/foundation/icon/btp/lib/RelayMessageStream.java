@@ -0,0 +1,151 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.lib;
+
+import foundation.icon.score.util.RLPUtil;
+import score.ByteArrayObjectWriter;
+import score.Context;
+import score.ObjectReader;
+import score.ObjectWriter;
+import scorex.util.ArrayList;
+
+import java.util.List;
+
+/**
+ * Reads TypePrefixedMessages of RelayMessage from fragments for {@link IncrementalBMV}.
+ * RelayMessage is expected as RLP list which has the list of TypePrefixedMessage as the first item.
+ * It returns only the encoded TypePrefixedMessages which are completely received,
+ * and keeps the remaining bytes for the next fragment.
+ * Decoding TypePrefixedMessage is left to BMV, because the codec differs for each BMV.
+ */
+public class RelayMessageStream {
+    //length of bytes of the list of TypePrefixedMessage which are not read yet
+    private long remain;
+    //received bytes which are not read yet
+    private byte[] buffer;
+
+    public RelayMessageStream(long remain, byte[] buffer) {
+        this.remain = remain;
+        this.buffer = buffer;
+    }
+
+    public long getRemain() {
+        return remain;
+    }
+
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    public boolean isEnd() {
+        return remain == 0 && buffer.length == 0;
+    }
+
+    /**
+     * Begins to read RelayMessage with the first fragment,
+     * the first fragment should contain the headers of RelayMessage and the list of TypePrefixedMessage.
+     *
+     * @param fragment the first fragment of RelayMessage
+     * @return RelayMessageStream
+     * @throws IllegalArgumentException if the headers are invalid
+     */
+    public static RelayMessageStream begin(byte[] fragment) {
+        long[] outer = RLPUtil.peekHeader(fragment, 0, fragment.length);
+        if (outer == null || !RLPUtil.isList(fragment[0])) {
+            throw new IllegalArgumentException("invalid RelayMessage header");
+        }
+        int offset = (int) outer[0];
+        long[] inner = RLPUtil.peekHeader(fragment, offset, fragment.length);
+        if (inner == null || !RLPUtil.isList(fragment[offset])) {
+            throw new IllegalArgumentException("invalid RelayMessage header");
+        }
+        if (outer[1] != inner[0] + inner[1]) {
+            throw new IllegalArgumentException("invalid RelayMessage length");
+        }
+        offset += (int) inner[0];
+        byte[] buffer = new byte[fragment.length - offset];
+        System.arraycopy(fragment, offset, buffer, 0, buffer.length);
+        return new RelayMessageStream(inner[1], buffer);
+    }
+
+    /**
+     * Appends the fragment and reads TypePrefixedMessages which are completely received.
+     *
+     * @param fragment bytes to append, it could be null
+     * @return list of encoded TypePrefixedMessage
+     * @throws IllegalArgumentException if the received bytes exceed RelayMessage or TypePrefixedMessage is not a list
+     */
+    public List<byte[]> read(byte[] fragment) {
+        if (fragment != null && fragment.length > 0) {
+            byte[] appended = new byte[buffer.length + fragment.length];
+            System.arraycopy(buffer, 0, appended, 0, buffer.length);
+            System.arraycopy(fragment, 0, appended, buffer.length, fragment.length);
+            buffer = appended;
+        }
+        if (buffer.length > remain) {
+            throw new IllegalArgumentException("invalid RelayMessage length");
+        }
+        List<byte[]> messages = new ArrayList<>();
+        int offset = 0;
+        long[] header;
+        while ((header = RLPUtil.peekHeader(buffer, offset, buffer.length)) != null) {
+            long size = header[0] + header[1];
+            if (offset + size > buffer.length) {
+                break;
+            }
+            if (!RLPUtil.isList(buffer[offset])) {
+                throw new IllegalArgumentException("invalid TypePrefixedMessage");
+            }
+            byte[] bytes = new byte[(int) size];
+            System.arraycopy(buffer, offset, bytes, 0, bytes.length);
+            messages.add(bytes);
+            offset += bytes.length;
+        }
+        if (offset > 0) {
+            byte[] rest = new byte[buffer.length - offset];
+            System.arraycopy(buffer, offset, rest, 0, rest.length);
+            buffer = rest;
+            remain -= offset;
+        }
+        return messages;
+    }
+
+    public static void writeObject(ObjectWriter writer, RelayMessageStream obj) {
+        writer.beginList(2);
+        writer.write(obj.remain);
+        writer.write(obj.buffer);
+        writer.end();
+    }
+
+    public static RelayMessageStream readObject(ObjectReader reader) {
+        reader.beginList();
+        RelayMessageStream obj = new RelayMessageStream(reader.readLong(), reader.readByteArray());
+        reader.end();
+        return obj;
+    }
+
+    public static RelayMessageStream fromBytes(byte[] bytes) {
+        ObjectReader reader = Context.newByteArrayObjectReader("RLPn", bytes);
+        return readObject(reader);
+    }
+
+    public byte[] toBytes() {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writeObject(writer, this);
+        return writer.toByteArray();
+    }
+}
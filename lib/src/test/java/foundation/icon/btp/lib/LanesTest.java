@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.btp.lib;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanesTest {
+
+    @Test
+    void tag() {
+        BigInteger seq = BigInteger.valueOf(3);
+        assertEquals(seq, Lanes.tag(Lanes.NORMAL, seq));
+        BigInteger tagged = Lanes.tag(Lanes.PRIORITY, seq);
+        assertEquals(Lanes.PRIORITY, Lanes.laneOf(tagged));
+        assertEquals(seq, Lanes.seqOf(tagged));
+        assertEquals(Lanes.NORMAL, Lanes.laneOf(seq));
+        assertEquals(seq, Lanes.seqOf(seq));
+    }
+
+    @Test
+    void laneOfShouldReturnInvalid() {
+        assertEquals(-1, Lanes.laneOf(BigInteger.ONE.negate()));
+        assertEquals(-1, Lanes.laneOf(Lanes.tag(Lanes.PRIORITY, BigInteger.ONE).add(BigInteger.ONE)));
+        assertEquals(-1, Lanes.laneOf(Lanes.tag(Lanes.SIZE, BigInteger.ONE)));
+    }
+
+    @Test
+    void combine() {
+        BigInteger normal = BigInteger.valueOf(10);
+        BigInteger priority = BigInteger.valueOf(2);
+        BigInteger seqs = Lanes.combine(normal, priority);
+        assertArrayEquals(new BigInteger[]{normal, priority}, Lanes.split(seqs));
+        assertEquals(normal, Lanes.combine(normal));
+        assertArrayEquals(new BigInteger[]{normal, BigInteger.ZERO}, Lanes.split(normal));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package foundation.icon.btp.lib;
+
+import org.junit.jupiter.api.Test;
+import score.ByteArrayObjectWriter;
+import score.Context;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MerklePatriciaTreeTest {
+    static final MerklePatriciaTree mpt = new MerklePatriciaTree("RLPn", "sha3-256");
+    //keys 0x01, 0x02 are under the branch at nibble 0, and 0x13 is the leaf at nibble 1 of the root
+    static final byte[][] keys = new byte[][]{mpt.encodeKey(1), mpt.encodeKey(2), mpt.encodeKey(0x13)};
+    static final byte[][] values = new byte[][]{value(1), value(2), value(3)};
+    static final byte[] leaf1 = leaf(new byte[]{0x20}, values[0]);
+    static final byte[] leaf2 = leaf(new byte[]{0x20}, values[1]);
+    static final byte[] leaf3 = leaf(new byte[]{0x33}, values[2]);
+    static final byte[] branch = branch(null, mpt.hash(leaf1), mpt.hash(leaf2));
+    static final byte[] root = branch(mpt.hash(branch), mpt.hash(leaf3));
+    static final byte[] rootHash = mpt.hash(root);
+
+    //longer than hash, so that the node is referenced by hash
+    static byte[] value(int v) {
+        byte[] bytes = new byte[40];
+        Arrays.fill(bytes, (byte) v);
+        return bytes;
+    }
+
+    static byte[] leaf(byte[] path, byte[] value) {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(2);
+        writer.write(path);
+        writer.write(value);
+        writer.end();
+        return writer.toByteArray();
+    }
+
+    static byte[] branch(byte[]... children) {
+        ByteArrayObjectWriter writer = Context.newByteArrayObjectWriter("RLPn");
+        writer.beginList(17);
+        for (int i = 0; i < 16; i++) {
+            byte[] child = i < children.length ? children[i] : null;
+            writer.write(child != null ? child : new byte[0]);
+        }
+        writer.write(new byte[0]);
+        writer.end();
+        return writer.toByteArray();
+    }
+
+    @Test
+    void prove() {
+        assertArrayEquals(values[0], mpt.prove(rootHash, keys[0], new byte[][]{root, branch, leaf1}));
+        assertArrayEquals(values[2], mpt.prove(rootHash, keys[2], new byte[][]{root, leaf3}));
+    }
+
+    @Test
+    void proveKeysWithDeduplicatedNodes() {
+        byte[][] nodes = new byte[][]{leaf3, branch, leaf2, root, leaf1};
+        byte[][] ret = mpt.prove(rootHash, keys, nodes);
+        for (int i = 0; i < keys.length; i++) {
+            assertArrayEquals(values[i], ret[i]);
+        }
+    }
+
+    @Test
+    void proveShouldRevertMissingNode() {
+        assertThrows(MerklePatriciaTree.MPTException.class,
+                () -> mpt.prove(rootHash, keys, new byte[][]{root, branch, leaf1, leaf3}));
+    }
+
+    @Test
+    void proveShouldRevertUnknownKey() {
+        byte[][] nodes = new byte[][]{root, branch, leaf1, leaf2, leaf3};
+        assertThrows(MerklePatriciaTree.MPTException.class,
+                () -> mpt.prove(rootHash, mpt.encodeKey(3), nodes));
+        assertThrows(MerklePatriciaTree.MPTException.class,
+                () -> mpt.prove(rootHash, mpt.encodeKey(0x14), nodes));
+    }
+}
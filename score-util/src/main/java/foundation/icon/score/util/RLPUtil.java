@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 ICON Foundation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package foundation.icon.score.util;
+
+/**
+ * Reads and writes RLP headers, for splicing the encoded items without decoding them.
+ */
+public class RLPUtil {
+
+    public static boolean isList(byte prefix) {
+        return (prefix & 0xff) >= 0xc0;
+    }
+
+    /**
+     * Reads RLP header of the item at the offset, which must end before the end.
+     *
+     * @param b      encoded bytes
+     * @param offset offset of the item
+     * @param end    end of the bytes to read
+     * @return {length of header, length of payload}
+     * @throws IllegalArgumentException if the item is out of bounds
+     */
+    public static long[] header(byte[] b, int offset, int end) {
+        long[] h = peekHeader(b, offset, end);
+        if (h == null || h[0] + h[1] > end - offset) {
+            throw new IllegalArgumentException("invalid rlp length");
+        }
+        return h;
+    }
+
+    /**
+     * Reads RLP header of the item at the offset, the payload of the item could be beyond the end.
+     *
+     * @param b      encoded bytes
+     * @param offset offset of the item
+     * @param end    end of the bytes to read
+     * @return {length of header, length of payload}, or null if the header itself is beyond the end
+     * @throws IllegalArgumentException if the header is malformed
+     */
+    public static long[] peekHeader(byte[] b, int offset, int end) {
+        if (offset < 0 || end > b.length || offset > end) {
+            throw new IllegalArgumentException("invalid rlp offset");
+        }
+        if (offset == end) {
+            return null;
+        }
+        int prefix = b[offset] & 0xff;
+        if (prefix < 0x80) {
+            return new long[]{0, 1};
+        } else if (prefix <= 0xb7) {
+            return new long[]{1, prefix - 0x80};
+        } else if (prefix < 0xc0) {
+            return longHeader(b, offset, end, prefix - 0xb7);
+        } else if (prefix <= 0xf7) {
+            return new long[]{1, prefix - 0xc0};
+        } else {
+            return longHeader(b, offset, end, prefix - 0xf7);
+        }
+    }
+
+    private static long[] longHeader(byte[] b, int offset, int end, int sizeOfLength) {
+        // the length of the item could not exceed the bytes, which is less than 2^31
+        if (sizeOfLength > 4) {
+            throw new IllegalArgumentException("invalid rlp length");
+        }
+        if (offset + sizeOfLength >= end) {
+            return null;
+        }
+        long length = 0;
+        for (int i = 1; i <= sizeOfLength; i++) {
+            length = (length << 8) | (b[offset + i] & 0xff);
+        }
+        //0xf800 is null of RLPn
+        if (length <= 0 && !(sizeOfLength == 1 && (b[offset] & 0xff) == 0xf8)) {
+            throw new IllegalArgumentException("invalid rlp length");
+        }
+        return new long[]{1 + sizeOfLength, length};
+    }
+
+    /**
+     * Returns RLP header of the list whose payload is the given length.
+     *
+     * @param length length of the payload
+     * @return encoded header
+     */
+    public static byte[] listHeader(int length) {
+        if (length <= 55) {
+            return new byte[]{(byte) (0xc0 + length)};
+        }
+        int sizeOfLength = 0;
+        for (int v = length; v > 0; v >>>= 8) {
+            sizeOfLength++;
+        }
+        byte[] b = new byte[1 + sizeOfLength];
+        b[0] = (byte) (0xf7 + sizeOfLength);
+        for (int i = sizeOfLength, v = length; i > 0; i--, v >>>= 8) {
+            b[i] = (byte) v;
+        }
+        return b;
+    }
+}
@@ -17,6 +17,7 @@
 package foundation.icon.btp.mock;
 
 import foundation.icon.btp.lib.BMV;
+import foundation.icon.btp.lib.IncrementalBMV;
 import foundation.icon.score.client.ScoreClient;
 import score.ByteArrayObjectWriter;
 import score.Context;
@@ -32,7 +33,7 @@ import java.util.List;
  * for BMC
  */
 @ScoreClient
-public interface MockBMV extends BMV {
+public interface MockBMV extends BMV, IncrementalBMV {
 
     @External
     void setHeight(long _height);
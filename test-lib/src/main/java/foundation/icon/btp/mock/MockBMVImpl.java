@@ -115,6 +115,14 @@ public class MockBMVImpl implements MockBMV {
         }
     }
 
+    /**
+     * Regards each fragment as a complete MockRelayMessage
+     */
+    @External
+    public byte[][] handleFragment(String _bmc, String _prev, BigInteger _seq, byte[] _msg, int _idx) {
+        return handleRelayMessage(_bmc, _prev, _seq, _msg);
+    }
+
     @External(readonly = true)
     public BMVStatus getStatus() {
         MockBMVProperties p = getProperties();
@@ -17,6 +17,7 @@
 package foundation.icon.btp.mock;
 
 import foundation.icon.btp.lib.BSH;
+import foundation.icon.btp.lib.BatchBSH;
 import foundation.icon.score.client.ScoreClient;
 import score.Address;
 import score.annotation.EventLog;
@@ -29,12 +30,16 @@ import java.math.BigInteger;
  * for BMC
  */
 @ScoreClient
-public interface MockBSH extends BSH {
+public interface MockBSH extends BSH, BatchBSH {
 
     @Payable
     @External
     void sendMessage(Address _bmc, String _to, String _svc, BigInteger _sn, byte[] _msg);
 
+    @Payable
+    @External
+    void sendMessages(Address _bmc, String[] _to, String _svc, BigInteger[] _sn, byte[][] _msg);
+
     @EventLog(indexed = 1)
     void SendMessage(BigInteger _nsn, String _to, String _svc, BigInteger _sn, byte[] _msg);
 
@@ -39,6 +39,13 @@ public class MockBSHImpl implements MockBSH {
         HandleBTPMessage(_from, _svc, _sn, _msg);
     }
 
+    @External
+    public void handleBTPMessages(String _from, String _svc, BigInteger[] _sn, byte[][] _msg) {
+        for (int i = 0; i < _sn.length; i++) {
+            HandleBTPMessage(_from, _svc, _sn[i], _msg[i]);
+        }
+    }
+
     @External
     public void handleBTPError(String _src, String _svc, BigInteger _sn, long _code, String _msg) {
         HandleBTPError(_src, _svc, _sn, _code, _msg);
@@ -56,6 +63,20 @@ public class MockBSHImpl implements MockBSH {
         }
     }
 
+    @Payable
+    @External
+    public void sendMessages(Address _bmc, String[] _to, String _svc, BigInteger[] _sn, byte[][] _msg) {
+        BMCScoreInterface bmc = new BMCScoreInterface(_bmc);
+        try {
+            BigInteger[] nsns = bmc.sendMessages(Context.getValue(), _to, _svc, _sn, _msg);
+            for (int i = 0; i < nsns.length; i++) {
+                SendMessage(nsns[i], _to[i], _svc, _sn[i], _msg[i]);
+            }
+        } catch (UserRevertedException e) {
+            throw BTPException.of(e);
+        }
+    }
+
     @EventLog(indexed = 1)
     public void SendMessage(BigInteger _nsn, String _to, String _svc, BigInteger _sn, byte[] _msg) {}
 